@@ -0,0 +1,78 @@
+package dominio;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import persistencia.CatalogoBenchmark;
+
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReglasGarantiaBenchmark {
+
+	private static final int TAMANO = 1024;
+
+	private static final LocalDate FECHA_BASE = LocalDate.of(2020, 1, 1);
+
+	private Vendedor vendedor;
+
+	private CalculadoraFechaGarantia calculadoraFechaGarantia;
+
+	private Producto[] productos;
+
+	private LocalDate[] fechas;
+
+	private String[] codigos;
+
+	private int indice;
+
+	@Setup
+	public void preparar() {
+		vendedor = new Vendedor(null, null, CatalogoBenchmark.GENERADOR_FECHA);
+		calculadoraFechaGarantia = new CalculadoraFechaGarantia();
+		productos = new Producto[TAMANO];
+		fechas = new LocalDate[TAMANO];
+		codigos = new String[TAMANO];
+
+		for (int i = 0; i < TAMANO; i++) {
+			codigos[i] = i % 4 == 0 ? "A" + CatalogoBenchmark.codigo(i) + "EI" : CatalogoBenchmark.codigo(i);
+			productos[i] = new Producto(codigos[i], "Producto " + i, CatalogoBenchmark.precio(i));
+			fechas[i] = FECHA_BASE.plusDays(i);
+		}
+	}
+
+	@Benchmark
+	public double calcularPrecioGarantia() {
+		return vendedor.calcularPrecioGarantia(productos[siguiente()]);
+	}
+
+	@Benchmark
+	public LocalDate calcularFechaFinGarantia() {
+		int i = siguiente();
+		return calculadoraFechaGarantia.calcularFechaFin(fechas[i], productos[i].getPrecio());
+	}
+
+	@Benchmark
+	public boolean tieneTresVocales() {
+		return vendedor.tieneTresVocales(codigos[siguiente()]);
+	}
+
+	private int siguiente() {
+		indice = (indice + 1) & (TAMANO - 1);
+		return indice;
+	}
+}
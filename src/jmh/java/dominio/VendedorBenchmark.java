@@ -0,0 +1,72 @@
+package dominio;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import persistencia.CatalogoBenchmark;
+import persistencia.conexion.ConexionJPA;
+import persistencia.sistema.SistemaDePersistencia;
+
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dhibernate.show_sql=false")
+@State(Scope.Benchmark)
+public class VendedorBenchmark {
+
+	@Param({ "1000", "10000", "100000" })
+	private int tamanoCatalogo;
+
+	private SistemaDePersistencia sistemaPersistencia;
+
+	private Vendedor vendedor;
+
+	private String[] codigos;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		ConexionJPA.cerrar();
+		sistemaPersistencia = new SistemaDePersistencia();
+		codigos = CatalogoBenchmark.cargarProductos(sistemaPersistencia.obtenerRepositorioProductos(),
+				tamanoCatalogo);
+		vendedor = new Vendedor(sistemaPersistencia.obtenerRepositorioProductos(),
+				sistemaPersistencia.obtenerRepositorioGarantia(), CatalogoBenchmark.GENERADOR_FECHA);
+	}
+
+	@TearDown(Level.Trial)
+	public void cerrar() {
+		ConexionJPA.cerrar();
+	}
+
+	/**
+	 * La transaccion se revierte para que el catalogo siga sin garantias y
+	 * cada operacion recorra el camino completo de aceptacion
+	 */
+	@Benchmark
+	public void generarGarantia() {
+
+		String codigo = codigos[ThreadLocalRandom.current().nextInt(codigos.length)];
+
+		sistemaPersistencia.iniciar();
+		try {
+			vendedor.generarGarantia(codigo, CatalogoBenchmark.NOMBRE_CLIENTE);
+		} finally {
+			sistemaPersistencia.cancelar();
+		}
+	}
+}
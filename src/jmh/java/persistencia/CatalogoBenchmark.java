@@ -0,0 +1,74 @@
+package persistencia;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import dominio.Producto;
+import dominio.SolicitudGarantia;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioProducto;
+import infraestructura.GeneradorFecha;
+import infraestructura.UnidadDeTrabajo;
+
+public final class CatalogoBenchmark {
+
+	public static final String NOMBRE_CLIENTE = "Cliente benchmark";
+
+	private static final int TAMANO_LOTE = 1000;
+
+	public static final GeneradorFecha GENERADOR_FECHA = new GeneradorFecha() {
+
+		@Override
+		public LocalDate obtenerFechaActual() {
+			return LocalDate.now();
+		}
+
+		@Override
+		public LocalDate obtenerFechaFin() {
+			return LocalDate.now();
+		}
+	};
+
+	private CatalogoBenchmark() {
+	}
+
+	public static String codigo(int indice) {
+		return String.format("B%07d", indice);
+	}
+
+	/**
+	 * Alterna precios por debajo y por encima de Vendedor.LIMITE_PRECIO para
+	 * recorrer las dos ramas del calculo de la garantia
+	 */
+	public static double precio(int indice) {
+		return indice % 2 == 0 ? Vendedor.LIMITE_PRECIO / 2 : Vendedor.LIMITE_PRECIO + indice;
+	}
+
+	public static String[] cargarProductos(RepositorioProducto repositorioProducto, int tamano) {
+
+		String[] codigos = new String[tamano];
+		for (int i = 0; i < tamano; i++) {
+			codigos[i] = codigo(i);
+		}
+
+		repositorioProducto.agregarTodos(
+				IntStream.range(0, tamano).mapToObj(i -> new Producto(codigos[i], "Producto " + i, precio(i))));
+
+		return codigos;
+	}
+
+	public static void cargarGarantias(UnidadDeTrabajo unidadDeTrabajo, Vendedor vendedor, String[] codigos) {
+
+		for (int desde = 0; desde < codigos.length; desde += TAMANO_LOTE) {
+			List<SolicitudGarantia> solicitudes = new ArrayList<>();
+			for (String codigo : Arrays.asList(codigos).subList(desde, Math.min(codigos.length, desde + TAMANO_LOTE))) {
+				solicitudes.add(new SolicitudGarantia(codigo, NOMBRE_CLIENTE));
+			}
+
+			unidadDeTrabajo.ejecutar(() -> vendedor.generarGarantias(solicitudes));
+		}
+	}
+}
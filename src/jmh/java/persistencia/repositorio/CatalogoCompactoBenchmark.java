@@ -0,0 +1,122 @@
+package persistencia.repositorio;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.Producto;
+import persistencia.CatalogoBenchmark;
+import persistencia.conexion.ConexionJPA;
+import persistencia.conexion.ProveedorEntityManager;
+import persistencia.repositorio.compacto.RepositorioProductoCompacto;
+
+/**
+ * Compara el catalogo compacto con el repositorio JPA en latencia de
+ * busqueda; el heap retenido por cada forma de tener el catalogo en memoria
+ * se registra en el log al preparar el trial, y la asignacion por operacion la reporta
+ * el perfilador gc de la tarea jmh.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dhibernate.show_sql=false")
+@State(Scope.Benchmark)
+public class CatalogoCompactoBenchmark {
+
+	private static final Logger LOGGER = Logger.getLogger(CatalogoCompactoBenchmark.class);
+
+	@Param({ "1000", "10000", "100000" })
+	private int tamanoCatalogo;
+
+	private ProveedorEntityManager proveedorEntityManager;
+
+	private RepositorioProductoPersistente repositorioPersistente;
+
+	private RepositorioProductoCompacto repositorioCompacto;
+
+	private Map<String, Producto> productosEnHeap;
+
+	private String[] codigos;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		ConexionJPA.cerrar();
+		proveedorEntityManager = new ProveedorEntityManager(new ConexionJPA().getEntityManagerFactory());
+		repositorioPersistente = new RepositorioProductoPersistente(proveedorEntityManager);
+		codigos = CatalogoBenchmark.cargarProductos(repositorioPersistente, tamanoCatalogo);
+
+		long antes = memoriaUsada();
+		productosEnHeap = new HashMap<>();
+		for (int i = 0; i < tamanoCatalogo; i++) {
+			Producto producto = new Producto(CatalogoBenchmark.codigo(i), "Producto " + i,
+					CatalogoBenchmark.precio(i));
+			productosEnHeap.put(producto.getCodigo(), producto);
+		}
+		long heapObjetos = memoriaUsada() - antes;
+
+		antes = memoriaUsada();
+		repositorioCompacto = new RepositorioProductoCompacto(tamanoCatalogo);
+		CatalogoBenchmark.cargarProductos(repositorioCompacto, tamanoCatalogo);
+		long heapCompacto = memoriaUsada() - antes;
+
+		LOGGER.info(String.format(
+				"Catalogo de %d productos: HashMap de Producto %d bytes de heap, compacto %d bytes de heap y %d fuera del heap",
+				tamanoCatalogo, heapObjetos, heapCompacto, repositorioCompacto.getBytesTexto()));
+	}
+
+	@TearDown(Level.Trial)
+	public void cerrar() {
+		proveedorEntityManager.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	@Benchmark
+	public Producto obtenerPorCodigoPersistente() {
+		try {
+			return repositorioPersistente.obtenerPorCodigo(codigoAleatorio());
+		} finally {
+			proveedorEntityManager.obtener().clear();
+		}
+	}
+
+	@Benchmark
+	public Producto obtenerPorCodigoCompacto() {
+		return repositorioCompacto.obtenerPorCodigo(codigoAleatorio());
+	}
+
+	@Benchmark
+	public double precioPorCodigoCompacto() {
+		return repositorioCompacto.precioPorCodigo(codigoAleatorio());
+	}
+
+	private String codigoAleatorio() {
+		return codigos[ThreadLocalRandom.current().nextInt(codigos.length)];
+	}
+
+	private static long memoriaUsada() {
+
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,119 @@
+package persistencia.repositorio;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+import persistencia.CatalogoBenchmark;
+import persistencia.conexion.ConexionJPA;
+import persistencia.conexion.ProveedorEntityManager;
+import persistencia.entitad.ProductoEntity;
+import persistencia.sistema.SistemaDePersistencia;
+
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dhibernate.show_sql=false")
+@State(Scope.Benchmark)
+public class RepositorioBenchmark {
+
+	@Param({ "1000", "10000", "100000" })
+	private int tamanoCatalogo;
+
+	private ProveedorEntityManager proveedorEntityManager;
+
+	private RepositorioProductoPersistente repositorioProducto;
+
+	private RepositorioGarantiaPersistente repositorioGarantia;
+
+	private String[] codigos;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		ConexionJPA.cerrar();
+		SistemaDePersistencia sistemaPersistencia = new SistemaDePersistencia();
+		codigos = CatalogoBenchmark.cargarProductos(sistemaPersistencia.obtenerRepositorioProductos(),
+				tamanoCatalogo);
+		CatalogoBenchmark.cargarGarantias(sistemaPersistencia,
+				new Vendedor(sistemaPersistencia.obtenerRepositorioProductos(),
+						sistemaPersistencia.obtenerRepositorioGarantia(), CatalogoBenchmark.GENERADOR_FECHA),
+				codigos);
+
+		// Repositorios sin la cache de aplicacion ni el indice, solo con la cache de segundo nivel de Hibernate
+		proveedorEntityManager = new ProveedorEntityManager(new ConexionJPA().getEntityManagerFactory());
+		repositorioProducto = new RepositorioProductoPersistente(proveedorEntityManager);
+		repositorioGarantia = new RepositorioGarantiaPersistente(proveedorEntityManager, repositorioProducto);
+	}
+
+	@TearDown(Level.Trial)
+	public void cerrar() {
+		proveedorEntityManager.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	@Benchmark
+	public Producto obtenerProductoPorCodigo() {
+		try {
+			return repositorioProducto.obtenerPorCodigo(codigoAleatorio());
+		} finally {
+			proveedorEntityManager.obtener().clear();
+		}
+	}
+
+	@Benchmark
+	public ProductoEntity obtenerProductoEntityPorCodigo() {
+		try {
+			return repositorioProducto.obtenerProductoEntityPorCodigo(codigoAleatorio());
+		} finally {
+			proveedorEntityManager.obtener().clear();
+		}
+	}
+
+	@Benchmark
+	public boolean existeGarantia() {
+		try {
+			return repositorioGarantia.existeGarantia(codigoAleatorio());
+		} finally {
+			proveedorEntityManager.obtener().clear();
+		}
+	}
+
+	@Benchmark
+	public Producto obtenerProductoConGarantia() {
+		try {
+			return repositorioGarantia.obtenerProductoConGarantiaPorCodigo(codigoAleatorio());
+		} finally {
+			proveedorEntityManager.obtener().clear();
+		}
+	}
+
+	@Benchmark
+	public GarantiaExtendida obtenerGarantia() {
+		try {
+			return repositorioGarantia.obtener(codigoAleatorio());
+		} finally {
+			proveedorEntityManager.obtener().clear();
+		}
+	}
+
+	private String codigoAleatorio() {
+		return codigos[ThreadLocalRandom.current().nextInt(codigos.length)];
+	}
+}
@@ -0,0 +1,133 @@
+package persistencia.repositorio;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import persistencia.CatalogoBenchmark;
+import persistencia.repositorio.particionado.RepositorioGarantiaParticionado;
+
+/**
+ * Rendimiento del repositorio particionado segun el numero de hilos: cada
+ * operacion reparte un lote de garantias entre los hilos, que las agregan a
+ * un repositorio vacio o las leen de uno ya cargado. Sin persistencia, para
+ * medir solo la estructura en memoria.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RepositorioParticionadoBenchmark {
+
+	private static final int TAMANO_LOTE = 100000;
+
+	@Param({ "1", "2", "4", "8" })
+	private int hilos;
+
+	@Param({ "1", "16", "64" })
+	private int particiones;
+
+	private ExecutorService ejecutor;
+
+	private GarantiaExtendida[] garantias;
+
+	private RepositorioGarantiaParticionado repositorioCargado;
+
+	private RepositorioGarantiaParticionado repositorioVacio;
+
+	@Setup(Level.Trial)
+	public void preparar() {
+		ejecutor = Executors.newFixedThreadPool(hilos);
+
+		Date hoy = new Date();
+		garantias = new GarantiaExtendida[TAMANO_LOTE];
+		for (int i = 0; i < TAMANO_LOTE; i++) {
+			Producto producto = new Producto(CatalogoBenchmark.codigo(i), "Producto " + i,
+					CatalogoBenchmark.precio(i));
+			garantias[i] = new GarantiaExtendida(producto, hoy, hoy, producto.getPrecio() / 10,
+					CatalogoBenchmark.NOMBRE_CLIENTE);
+		}
+
+		repositorioCargado = new RepositorioGarantiaParticionado(particiones);
+		for (GarantiaExtendida garantia : garantias) {
+			repositorioCargado.agregar(garantia);
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void vaciar() {
+		repositorioVacio = new RepositorioGarantiaParticionado(particiones);
+	}
+
+	@TearDown(Level.Trial)
+	public void cerrar() {
+		ejecutor.shutdown();
+	}
+
+	@Benchmark
+	public void agregarLote() throws Exception {
+		repartir((desde, hasta) -> {
+			for (int i = desde; i < hasta; i++) {
+				repositorioVacio.agregar(garantias[i]);
+			}
+			return hasta - desde;
+		});
+	}
+
+	@Benchmark
+	public long obtenerLote() throws Exception {
+		return repartir((desde, hasta) -> {
+			int encontradas = 0;
+			for (int i = desde; i < hasta; i++) {
+				if (repositorioCargado.obtener(garantias[i].getProducto().getCodigo()) != null) {
+					encontradas++;
+				}
+			}
+			return encontradas;
+		});
+	}
+
+	private long repartir(Tramo tramo) throws Exception {
+
+		int porHilo = (TAMANO_LOTE + hilos - 1) / hilos;
+		List<Future<Integer>> partes = new ArrayList<>(hilos);
+		for (int desde = 0; desde < TAMANO_LOTE; desde += porHilo) {
+			int inicio = desde;
+			partes.add(ejecutor.submit(() -> tramo.procesar(inicio, Math.min(TAMANO_LOTE, inicio + porHilo))));
+		}
+
+		long total = 0;
+		for (Future<Integer> parte : partes) {
+			total += parte.get();
+		}
+
+		return total;
+	}
+
+	private interface Tramo {
+
+		int procesar(int desde, int hasta);
+	}
+}
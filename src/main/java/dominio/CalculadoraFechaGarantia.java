@@ -0,0 +1,114 @@
+package dominio;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CalculadoraFechaGarantia {
+
+	private static final int DIAS_SEMANA = 7;
+
+	private static final long PRIMER_LUNES_EPOCA = 4;
+
+	private static final int DOMINGO = 6;
+
+	private final int[] diasGarantiaMayorPorDiaSemana = new int[DIAS_SEMANA];
+
+	/**
+	 * La fecha fin de la garantia mayor solo depende del dia de la semana de
+	 * la fecha de inicio, por eso la tabla se precalcula una unica vez para
+	 * los siete dias
+	 */
+	public CalculadoraFechaGarantia() {
+		for (long diaInicio = 0; diaInicio < DIAS_SEMANA; diaInicio++) {
+			diasGarantiaMayorPorDiaSemana[diaSemana(diaInicio)] = (int) (calcularDiaFinGarantiaMayor(diaInicio)
+					- diaInicio);
+		}
+	}
+
+	/**
+	 * Permite obtener la fecha fin de la garantia segun la fecha de inicio y
+	 * el precio del producto
+	 *
+	 * @param fechaInicio
+	 * @param precio
+	 * @return
+	 */
+	public LocalDate calcularFechaFin(LocalDate fechaInicio, double precio) {
+		return LocalDate.ofEpochDay(calcularDiaFin(fechaInicio.toEpochDay(), precio));
+	}
+
+	/**
+	 * Permite obtener la fecha fin de la garantia, expresada en dias desde la
+	 * epoca, segun el dia de inicio y el precio del producto
+	 *
+	 * @param diaInicio
+	 * @param precio
+	 * @return
+	 */
+	public long calcularDiaFin(long diaInicio, double precio) {
+
+		if (Vendedor.LIMITE_PRECIO < precio) {
+			return diaInicio + diasGarantiaMayorPorDiaSemana[diaSemana(diaInicio)];
+		}
+
+		return diaInicio + Vendedor.DIAS_GARANTIA_MENOR;
+	}
+
+	/**
+	 * Permite obtener las fechas fin de la garantia de varias fechas de inicio
+	 * para un mismo precio
+	 *
+	 * @param fechasInicio
+	 * @param precio
+	 * @return
+	 */
+	public List<LocalDate> calcularFechasFin(List<LocalDate> fechasInicio, double precio) {
+
+		List<LocalDate> fechasFin = new ArrayList<>(fechasInicio.size());
+
+		for (LocalDate fechaInicio : fechasInicio) {
+			fechasFin.add(calcularFechaFin(fechaInicio, precio));
+		}
+
+		return fechasFin;
+	}
+
+	/**
+	 * Permite obtener en bloque los dias fin de la garantia, desde la epoca,
+	 * de cada par dia de inicio y precio
+	 *
+	 * @param diasInicio
+	 * @param precios
+	 * @param diasFin
+	 */
+	public void calcularDiasFin(long[] diasInicio, double[] precios, long[] diasFin) {
+
+		for (int i = 0; i < diasInicio.length; i++) {
+			diasFin[i] = calcularDiaFin(diasInicio[i], precios[i]);
+		}
+	}
+
+	private static long calcularDiaFinGarantiaMayor(long diaInicio) {
+
+		long diaFin = diaInicio + Vendedor.DIAS_GARANTIA_MAYOR;
+
+		long diaFinConLunes = diaFin + contarLunes(diaInicio, diaFin);
+		diaFinConLunes += contarLunes(diaFin + 1, diaFinConLunes);
+
+		if (diaSemana(diaFinConLunes) == DOMINGO) {
+			diaFinConLunes++;
+		}
+
+		return diaFinConLunes;
+	}
+
+	private static long contarLunes(long desde, long hasta) {
+		return Math.floorDiv(hasta - PRIMER_LUNES_EPOCA, DIAS_SEMANA)
+				- Math.floorDiv(desde - 1 - PRIMER_LUNES_EPOCA, DIAS_SEMANA);
+	}
+
+	private static int diaSemana(long diaEpoca) {
+		return (int) Math.floorMod(diaEpoca - PRIMER_LUNES_EPOCA, DIAS_SEMANA);
+	}
+}
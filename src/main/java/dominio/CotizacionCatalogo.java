@@ -0,0 +1,113 @@
+package dominio;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Cotizacion en paralelo de un catalogo en columnas: el catalogo se parte en
+ * tramos de hasta el umbral y cada tramo aplica las reglas del vendedor fila
+ * por fila sobre los arreglos, escribiendo precio, dia fin y mensaje en las
+ * columnas de resultado sin crear objetos por fila. Los tramos se entregan en
+ * orden a medida que terminan, sin esperar al catalogo completo.
+ */
+class CotizacionCatalogo extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int UMBRAL = 4096;
+
+	private final Vendedor vendedor;
+	private final String[] codigos;
+	private final double[] precios;
+	private final Set<String> codigosConGarantia;
+	private final long diaInicio;
+
+	private final double[] preciosGarantia;
+	private final long[] diasFin;
+	private final String[] mensajes;
+
+	private final int desde;
+	private final int hasta;
+
+	private CotizacionCatalogo(Vendedor vendedor, String[] codigos, double[] precios,
+			Set<String> codigosConGarantia, long diaInicio, double[] preciosGarantia, long[] diasFin,
+			String[] mensajes, int desde, int hasta) {
+
+		this.vendedor = vendedor;
+		this.codigos = codigos;
+		this.precios = precios;
+		this.codigosConGarantia = codigosConGarantia;
+		this.diaInicio = diaInicio;
+		this.preciosGarantia = preciosGarantia;
+		this.diasFin = diasFin;
+		this.mensajes = mensajes;
+		this.desde = desde;
+		this.hasta = hasta;
+	}
+
+	/**
+	 * Permite partir un catalogo en tramos consecutivos que comparten las
+	 * columnas de resultado
+	 *
+	 * @param vendedor
+	 * @param codigos
+	 * @param precios
+	 * @param codigosConGarantia
+	 * @param diaInicio
+	 * @return
+	 */
+	static List<CotizacionCatalogo> tramos(Vendedor vendedor, String[] codigos, double[] precios,
+			Set<String> codigosConGarantia, long diaInicio) {
+
+		double[] preciosGarantia = new double[codigos.length];
+		long[] diasFin = new long[codigos.length];
+		String[] mensajes = new String[codigos.length];
+
+		List<CotizacionCatalogo> tramos = new ArrayList<>(codigos.length / UMBRAL + 1);
+		for (int desde = 0; desde < codigos.length; desde += UMBRAL) {
+			tramos.add(new CotizacionCatalogo(vendedor, codigos, precios, codigosConGarantia, diaInicio,
+					preciosGarantia, diasFin, mensajes, desde, Math.min(desde + UMBRAL, codigos.length)));
+		}
+		return tramos;
+	}
+
+	@Override
+	protected void compute() {
+		cotizar();
+	}
+
+	/**
+	 * Permite entregar al sumidero las cotizaciones del tramo en el orden del
+	 * catalogo
+	 *
+	 * @param sumidero
+	 */
+	void entregar(SumideroCotizaciones sumidero) {
+
+		for (int i = desde; i < hasta; i++) {
+			sumidero.aceptar(codigos[i], preciosGarantia[i], diasFin[i], mensajes[i]);
+		}
+	}
+
+	private void cotizar() {
+
+		for (int i = desde; i < hasta; i++) {
+			String mensaje = vendedor.validarCodigo(codigos[i]);
+			if (mensaje == null && codigosConGarantia.contains(codigos[i])) {
+				mensaje = Vendedor.EL_PRODUCTO_TIENE_GARANTIA;
+			} else if (mensaje == null && Double.isNaN(precios[i])) {
+				mensaje = Vendedor.PRODUCTO_NO_EXISTE;
+			}
+
+			if (mensaje == null) {
+				preciosGarantia[i] = vendedor.calcularPrecioGarantia(precios[i]);
+				diasFin[i] = vendedor.calcularDiaFinGarantia(diaInicio, precios[i]);
+			} else {
+				preciosGarantia[i] = Double.NaN;
+				mensajes[i] = mensaje;
+			}
+		}
+	}
+}
@@ -0,0 +1,39 @@
+package dominio;
+
+import java.util.Date;
+
+public class CotizacionGarantia {
+
+	private String codigo;
+	private double precioGarantia;
+	private Date fechaFinGarantia;
+	private String mensaje;
+
+	public CotizacionGarantia(String codigo, double precioGarantia, Date fechaFinGarantia, String mensaje) {
+
+		this.codigo = codigo;
+		this.precioGarantia = precioGarantia;
+		this.fechaFinGarantia = fechaFinGarantia;
+		this.mensaje = mensaje;
+	}
+
+	public String getCodigo() {
+		return codigo;
+	}
+
+	public double getPrecioGarantia() {
+		return precioGarantia;
+	}
+
+	public Date getFechaFinGarantia() {
+		return fechaFinGarantia;
+	}
+
+	public String getMensaje() {
+		return mensaje;
+	}
+
+	public boolean isExitosa() {
+		return mensaje == null;
+	}
+}
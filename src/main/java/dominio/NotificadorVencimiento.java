@@ -0,0 +1,12 @@
+package dominio;
+
+public interface NotificadorVencimiento {
+
+	/**
+	 * Permite avisar al cliente que su garantia esta proxima a vencer
+	 *
+	 * @param garantia
+	 */
+	void notificar(GarantiaExtendida garantia);
+
+}
@@ -0,0 +1,34 @@
+package dominio;
+
+import java.util.List;
+
+public class PaginaGarantias {
+
+	private List<GarantiaExtendida> garantias;
+	private String siguienteCursor;
+	private boolean hayMas;
+
+	public PaginaGarantias(List<GarantiaExtendida> garantias, String siguienteCursor, boolean hayMas) {
+
+		this.garantias = garantias;
+		this.siguienteCursor = siguienteCursor;
+		this.hayMas = hayMas;
+	}
+
+	public List<GarantiaExtendida> getGarantias() {
+		return garantias;
+	}
+
+	/**
+	 * Cursor opaco que continua despues de la ultima garantia de la pagina,
+	 * null si la pagina esta vacia. En la ultima pagina sirve para consultar
+	 * mas adelante solo las garantias nuevas
+	 */
+	public String getSiguienteCursor() {
+		return siguienteCursor;
+	}
+
+	public boolean hayMas() {
+		return hayMas;
+	}
+}
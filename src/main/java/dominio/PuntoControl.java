@@ -0,0 +1,29 @@
+package dominio;
+
+import java.util.Date;
+
+public class PuntoControl {
+
+	private String nombre;
+	private Date fechaInicio;
+	private String cursor;
+
+	public PuntoControl(String nombre, Date fechaInicio, String cursor) {
+
+		this.nombre = nombre;
+		this.fechaInicio = fechaInicio;
+		this.cursor = cursor;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public Date getFechaInicio() {
+		return fechaInicio;
+	}
+
+	public String getCursor() {
+		return cursor;
+	}
+}
@@ -0,0 +1,25 @@
+package dominio;
+
+public class ResultadoGarantia {
+
+	private String codigo;
+	private String mensaje;
+
+	public ResultadoGarantia(String codigo, String mensaje) {
+
+		this.codigo = codigo;
+		this.mensaje = mensaje;
+	}
+
+	public String getCodigo() {
+		return codigo;
+	}
+
+	public String getMensaje() {
+		return mensaje;
+	}
+
+	public boolean isExitosa() {
+		return mensaje == null;
+	}
+}
@@ -0,0 +1,18 @@
+package dominio;
+
+public interface SumideroCotizaciones {
+
+	/**
+	 * Permite recibir la cotizacion de un producto del catalogo; si el
+	 * producto no se puede cotizar el mensaje explica por que y el precio y el
+	 * dia fin no aplican
+	 *
+	 * @param codigo
+	 * @param precioGarantia
+	 * @param diaFinGarantia
+	 *            dias desde la epoca, LocalDate.ofEpochDay lo convierte
+	 * @param mensaje
+	 */
+	void aceptar(String codigo, double precioGarantia, long diaFinGarantia, String mensaje);
+
+}
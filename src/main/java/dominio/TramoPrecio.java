@@ -0,0 +1,18 @@
+package dominio;
+
+/**
+ * Tramos de precio del producto separados por Vendedor.LIMITE_PRECIO. Como
+ * la garantia es un porcentaje del precio, el tramo tambien se distingue por
+ * el precio de la garantia: ninguna garantia de un producto hasta el limite
+ * supera LIMITE_PRECIO * PORCENTAJE_MENOR y todas las demas lo superan.
+ */
+public enum TramoPrecio {
+
+	MENOR, MAYOR;
+
+	public static final double UMBRAL_PRECIO_GARANTIA = Vendedor.LIMITE_PRECIO * Vendedor.PORCENTAJE_MENOR;
+
+	public static TramoPrecio deProducto(Producto producto) {
+		return producto.getPrecio() > Vendedor.LIMITE_PRECIO ? MAYOR : MENOR;
+	}
+}
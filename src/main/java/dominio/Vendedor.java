@@ -1,16 +1,23 @@
 package dominio;
 
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import dominio.excepcion.GarantiaExtendidaException;
 import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioIdempotencia;
 import dominio.repositorio.RepositorioProducto;
 import infraestructura.GeneradorFecha;
+import infraestructura.concurrencia.BloqueoPorCodigo;
 
 public class Vendedor {
 
@@ -20,6 +27,8 @@ public class Vendedor {
 
 	public static final String CODIGO_PRODUCTO_NULL = "Codigo de producto NULL";
 
+	public static final String PRODUCTO_NO_EXISTE = "El producto no existe";
+
 	public static final double LIMITE_PRECIO = 500000;
 
 	public static final int DIAS_GARANTIA_MAYOR = 200;
@@ -30,17 +39,45 @@ public class Vendedor {
 
 	public static final double PORCENTAJE_MENOR = 0.10;
 
-	public static final String REGEX = "([aeiouAEIOU])";
+	private static final String VOCALES = "aeiouAEIOU";
 
 	private RepositorioProducto repositorioProducto;
 	private RepositorioGarantiaExtendida repositorioGarantia;
 	private GeneradorFecha generadorFecha;
+	private CalculadoraFechaGarantia calculadoraFechaGarantia;
+	private BloqueoPorCodigo bloqueoPorCodigo;
+	private RepositorioIdempotencia repositorioIdempotencia;
 
 	public Vendedor(RepositorioProducto repositorioProducto, RepositorioGarantiaExtendida repositorioGarantia,
 			GeneradorFecha generadorFecha) {
+		this(repositorioProducto, repositorioGarantia, generadorFecha, null, null);
+	}
+
+	public Vendedor(RepositorioProducto repositorioProducto, RepositorioGarantiaExtendida repositorioGarantia,
+			GeneradorFecha generadorFecha, BloqueoPorCodigo bloqueoPorCodigo) {
+		this(repositorioProducto, repositorioGarantia, generadorFecha, bloqueoPorCodigo, null);
+	}
+
+	/**
+	 * @param repositorioProducto
+	 * @param repositorioGarantia
+	 * @param generadorFecha
+	 * @param bloqueoPorCodigo
+	 *            si no es null, las garantias de un mismo codigo se generan de a
+	 *            una; el repositorio sigue rechazando la segunda
+	 * @param repositorioIdempotencia
+	 *            si no es null, guarda el resultado de las solicitudes con
+	 *            clave de idempotencia
+	 */
+	public Vendedor(RepositorioProducto repositorioProducto, RepositorioGarantiaExtendida repositorioGarantia,
+			GeneradorFecha generadorFecha, BloqueoPorCodigo bloqueoPorCodigo,
+			RepositorioIdempotencia repositorioIdempotencia) {
 		this.repositorioProducto = repositorioProducto;
 		this.repositorioGarantia = repositorioGarantia;
 		this.generadorFecha = generadorFecha;
+		this.calculadoraFechaGarantia = new CalculadoraFechaGarantia();
+		this.bloqueoPorCodigo = bloqueoPorCodigo;
+		this.repositorioIdempotencia = repositorioIdempotencia;
 
 	}
 
@@ -48,7 +85,75 @@ public class Vendedor {
 
 		validacionesGenerarGarantia(codigo);
 
+		if (bloqueoPorCodigo == null) {
+			agregarGarantia(codigo, nombreCliente);
+			return;
+		}
+
+		bloqueoPorCodigo.ejecutar(codigo, () -> agregarGarantia(codigo, nombreCliente));
+	}
+
+	/**
+	 * Permite generar la garantia de una solicitud que se puede reintentar: el
+	 * resultado queda registrado con la clave, el exito al confirmarse la
+	 * transaccion y el rechazo aunque se revierta, y los reintentos con la
+	 * misma clave lo repiten sin validar ni consultar los repositorios de
+	 * nuevo. Sin clave se comporta como generarGarantia
+	 *
+	 * @param codigo
+	 * @param nombreCliente
+	 * @param claveIdempotencia
+	 */
+	public void generarGarantia(String codigo, String nombreCliente, String claveIdempotencia) {
+
+		if (repositorioIdempotencia == null || claveIdempotencia == null) {
+			generarGarantia(codigo, nombreCliente);
+			return;
+		}
+
+		ResultadoGarantia resultado = repositorioIdempotencia.registrar(claveIdempotencia,
+				() -> generarResultado(codigo, nombreCliente));
+
+		if (resultado.getCodigo() == null ? codigo != null : !resultado.getCodigo().equals(codigo)) {
+			throw new IllegalArgumentException("La clave de idempotencia " + claveIdempotencia
+					+ " ya se uso con el producto " + resultado.getCodigo());
+		}
+
+		if (!resultado.isExitosa()) {
+			throw new GarantiaExtendidaException(resultado.getMensaje());
+		}
+	}
+
+	public List<ResultadoGarantia> generarGarantias(List<SolicitudGarantia> solicitudes) {
+
+		if (bloqueoPorCodigo == null) {
+			return agregarGarantias(solicitudes);
+		}
+
+		List<String> codigos = new ArrayList<>(solicitudes.size());
+		for (SolicitudGarantia solicitud : solicitudes) {
+			codigos.add(solicitud.getCodigo());
+		}
+
+		return bloqueoPorCodigo.ejecutar(codigos, () -> agregarGarantias(solicitudes));
+	}
+
+	private ResultadoGarantia generarResultado(String codigo, String nombreCliente) {
+
+		try {
+			generarGarantia(codigo, nombreCliente);
+			return new ResultadoGarantia(codigo, null);
+		} catch (GarantiaExtendidaException e) {
+			return new ResultadoGarantia(codigo, e.getMessage());
+		}
+	}
+
+	private void agregarGarantia(String codigo, String nombreCliente) {
+
 		Producto producto = this.repositorioProducto.obtenerPorCodigo(codigo);
+		if (producto == null) {
+			throw new GarantiaExtendidaException(Vendedor.PRODUCTO_NO_EXISTE);
+		}
 
 		double precioGarantiaExt = calcularPrecioGarantia(producto);
 
@@ -59,97 +164,191 @@ public class Vendedor {
 		this.repositorioGarantia.agregar(garantiaExtendida);
 	}
 
-	public boolean tieneGarantia(String codigo) {
+	private List<ResultadoGarantia> agregarGarantias(List<SolicitudGarantia> solicitudes) {
 
-		Producto prodGarantia = this.repositorioGarantia.obtenerProductoConGarantiaPorCodigo(codigo);
-		return prodGarantia != null;
-	}
+		String[] mensajes = new String[solicitudes.size()];
+		Set<String> codigos = new LinkedHashSet<>();
 
-	private boolean tieneTresVocales(String codigo) {
+		for (int i = 0; i < solicitudes.size(); i++) {
+			String codigo = solicitudes.get(i).getCodigo();
 
-		Pattern pat = Pattern.compile(REGEX);
+			mensajes[i] = validarCodigo(codigo);
+			if (mensajes[i] == null && !codigos.add(codigo)) {
+				mensajes[i] = Vendedor.EL_PRODUCTO_TIENE_GARANTIA;
+			}
+		}
 
-		Matcher mat = pat.matcher(codigo);
+		Set<String> codigosConGarantia = this.repositorioGarantia.obtenerCodigosConGarantia(codigos);
+		codigos.removeAll(codigosConGarantia);
 
-		int cont = 0;
+		Map<String, Producto> productos = new HashMap<>();
+		for (Producto producto : this.repositorioProducto.obtenerPorCodigos(codigos)) {
+			productos.put(producto.getCodigo(), producto);
+		}
+
+		Date fechaSolicitudGarantia = new Date();
+		List<GarantiaExtendida> garantias = new ArrayList<>(productos.size());
+
+		for (int i = 0; i < solicitudes.size(); i++) {
+			if (mensajes[i] != null) {
+				continue;
+			}
+
+			String codigo = solicitudes.get(i).getCodigo();
+			Producto producto = productos.get(codigo);
+
+			if (codigosConGarantia.contains(codigo)) {
+				mensajes[i] = Vendedor.EL_PRODUCTO_TIENE_GARANTIA;
+			} else if (producto == null) {
+				mensajes[i] = Vendedor.PRODUCTO_NO_EXISTE;
+			} else {
+				garantias.add(new GarantiaExtendida(producto, fechaSolicitudGarantia,
+						calcularFechaFinGarantia(producto), calcularPrecioGarantia(producto),
+						solicitudes.get(i).getNombreCliente()));
+			}
+		}
+
+		this.repositorioGarantia.agregarTodas(garantias);
 
-		while (mat.find()) {
-			cont++;
+		List<ResultadoGarantia> resultados = new ArrayList<>(solicitudes.size());
+		for (int i = 0; i < solicitudes.size(); i++) {
+			resultados.add(new ResultadoGarantia(solicitudes.get(i).getCodigo(), mensajes[i]));
 		}
 
-		return cont == 3;
+		return resultados;
 	}
 
-	private double calcularPrecioGarantia(Producto producto) {
+	public boolean tieneGarantia(String codigo) {
 
-		return LIMITE_PRECIO < producto.getPrecio() ? producto.getPrecio() * PORCENTAJE_MAYOR
-				: producto.getPrecio() * PORCENTAJE_MENOR;
+		return this.repositorioGarantia.existeGarantia(codigo);
 	}
 
-	private Date calcularFechaFinGarantia(Producto producto) {
+	/**
+	 * Permite cotizar la garantia de un producto con las mismas reglas de
+	 * generarGarantia, sin guardarla
+	 *
+	 * @param codigo
+	 * @return
+	 */
+	public CotizacionGarantia cotizarGarantia(String codigo) {
+
+		String mensaje = validarCodigo(codigo);
+		if (mensaje == null && this.repositorioGarantia.existeGarantia(codigo)) {
+			mensaje = Vendedor.EL_PRODUCTO_TIENE_GARANTIA;
+		}
 
-		if (LIMITE_PRECIO < producto.getPrecio()) {
-			return calcularFechaFinGarantiaMayor();
+		List<Producto> productos = mensaje == null
+				? this.repositorioProducto.obtenerPorCodigos(Arrays.asList(codigo))
+				: new ArrayList<>();
+		if (mensaje == null && productos.isEmpty()) {
+			mensaje = Vendedor.PRODUCTO_NO_EXISTE;
+		}
 
-		} else {
-			return calcularFechaFinGarantiaMenor();
+		if (mensaje != null) {
+			return new CotizacionGarantia(codigo, Double.NaN, null, mensaje);
 		}
+
+		Producto producto = productos.get(0);
+		return new CotizacionGarantia(codigo, calcularPrecioGarantia(producto), calcularFechaFinGarantia(producto),
+				null);
 	}
 
-	private Date calcularFechaFinGarantiaMayor() {
+	/**
+	 * Permite cotizar sin guardar las garantias de un catalogo dado en
+	 * columnas: los codigos y sus precios en la misma posicion, con NaN para
+	 * los productos que no existen. Los tramos del catalogo se cotizan en
+	 * paralelo en el pool dado y se entregan al sumidero desde el hilo que
+	 * llama, en el orden del catalogo, apenas termina cada tramo y los
+	 * anteriores
+	 *
+	 * @param codigos
+	 * @param precios
+	 * @param sumidero
+	 * @param pool
+	 */
+	public void cotizarCatalogo(String[] codigos, double[] precios, SumideroCotizaciones sumidero,
+			ForkJoinPool pool) {
+
+		if (codigos.length != precios.length) {
+			throw new IllegalArgumentException("El catalogo tiene " + codigos.length + " codigos y " + precios.length
+					+ " precios");
+		}
 
-		LocalDate fechaInicio = generadorFecha.obtenerFechaActual();
-		LocalDate fechaFin = fechaInicio.plusDays(DIAS_GARANTIA_MAYOR);
+		List<String> codigosNoNulos = new ArrayList<>(codigos.length);
+		for (String codigo : codigos) {
+			if (codigo != null) {
+				codigosNoNulos.add(codigo);
+			}
+		}
 
-		fechaFin = procesarFechasGarantias(fechaInicio, fechaFin);
+		List<CotizacionCatalogo> tramos = CotizacionCatalogo.tramos(this, codigos, precios,
+				this.repositorioGarantia.obtenerCodigosConGarantia(codigosNoNulos),
+				generadorFecha.obtenerFechaActual().toEpochDay());
+		for (CotizacionCatalogo tramo : tramos) {
+			pool.execute(tramo);
+		}
+		for (CotizacionCatalogo tramo : tramos) {
+			tramo.join();
+			tramo.entregar(sumidero);
+		}
+	}
+
+	boolean tieneTresVocales(String codigo) {
 
-		if (DayOfWeek.SUNDAY.equals(fechaFin.getDayOfWeek())) {
-			fechaFin = fechaFin.plusDays(1);
+		int cont = 0;
+
+		for (int i = 0; i < codigo.length(); i++) {
+			if (VOCALES.indexOf(codigo.charAt(i)) >= 0) {
+				cont++;
+			}
 		}
 
-		return java.util.Date.from(fechaFin.atStartOfDay().atZone(ZoneId.systemDefault()).toInstant());
+		return cont == 3;
 	}
 
-	private LocalDate procesarFechasGarantias(LocalDate fechaInicio, LocalDate fechaFin) {
-		int iter = 2;
+	double calcularPrecioGarantia(Producto producto) {
+		return calcularPrecioGarantia(producto.getPrecio());
+	}
 
-		while (iter > 0) {
-			int lunes = 0;
+	double calcularPrecioGarantia(double precio) {
 
-			while (fechaFin.isAfter(fechaInicio) || fechaFin.equals(fechaInicio)) {
-				if (DayOfWeek.MONDAY.equals(fechaInicio.getDayOfWeek())) {
-					lunes++;
-				}
-				fechaInicio = fechaInicio.plusDays(1);
-			}
+		return LIMITE_PRECIO < precio ? precio * PORCENTAJE_MAYOR : precio * PORCENTAJE_MENOR;
+	}
+
+	long calcularDiaFinGarantia(long diaInicio, double precio) {
+		return calculadoraFechaGarantia.calcularDiaFin(diaInicio, precio);
+	}
 
-			fechaFin = fechaFin.plusDays(lunes);
+	/**
+	 * Permite validar el codigo antes de consultar los repositorios; la
+	 * garantia individual, el lote y las cotizaciones aplican el mismo orden:
+	 * codigo nulo, tres vocales y despues garantia existente
+	 *
+	 * @param codigo
+	 * @return el mensaje de rechazo, null si el codigo es valido
+	 */
+	String validarCodigo(String codigo) {
 
-			--iter;
+		if (null == codigo) {
+			return Vendedor.CODIGO_PRODUCTO_NULL;
 		}
 
-		return fechaFin;
+		return tieneTresVocales(codigo) ? Vendedor.PRODUCTO_SIN_GARANTIA : null;
 	}
 
-	private Date calcularFechaFinGarantiaMenor() {
-		LocalDate fechaInicio = generadorFecha.obtenerFechaActual();
+	private Date calcularFechaFinGarantia(Producto producto) {
 
-		LocalDate fechaFin = fechaInicio.plusDays(DIAS_GARANTIA_MENOR);
+		LocalDate fechaFin = calculadoraFechaGarantia.calcularFechaFin(generadorFecha.obtenerFechaActual(),
+				producto.getPrecio());
 
 		return java.util.Date.from(fechaFin.atStartOfDay().atZone(ZoneId.systemDefault()).toInstant());
 	}
 
 	private void validacionesGenerarGarantia(String codigo) {
-		if (null == codigo) {
-			throw new GarantiaExtendidaException(Vendedor.CODIGO_PRODUCTO_NULL);
-		}
-
-		if (tieneGarantia(codigo)) {
-			throw new GarantiaExtendidaException(Vendedor.EL_PRODUCTO_TIENE_GARANTIA);
-		}
 
-		if (tieneTresVocales(codigo)) {
-			throw new GarantiaExtendidaException(Vendedor.PRODUCTO_SIN_GARANTIA);
+		String mensaje = validarCodigo(codigo);
+		if (mensaje != null) {
+			throw new GarantiaExtendidaException(mensaje);
 		}
 	}
 }
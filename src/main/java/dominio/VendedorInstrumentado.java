@@ -0,0 +1,67 @@
+package dominio;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioIdempotencia;
+import dominio.repositorio.RepositorioProducto;
+import infraestructura.GeneradorFecha;
+import infraestructura.concurrencia.BloqueoPorCodigo;
+import infraestructura.metricas.MetricaMetodo;
+import infraestructura.metricas.RegistroMetricas;
+
+public class VendedorInstrumentado extends Vendedor {
+
+	private static final String PREFIJO = "Vendedor.";
+
+	private MetricaMetodo generarGarantia;
+	private MetricaMetodo generarGarantias;
+	private MetricaMetodo tieneGarantia;
+	private MetricaMetodo cotizarGarantia;
+	private MetricaMetodo cotizarCatalogo;
+
+	public VendedorInstrumentado(RepositorioProducto repositorioProducto,
+			RepositorioGarantiaExtendida repositorioGarantia, GeneradorFecha generadorFecha,
+			RegistroMetricas registroMetricas) {
+		this(repositorioProducto, repositorioGarantia, generadorFecha, null, null, registroMetricas);
+	}
+
+	public VendedorInstrumentado(RepositorioProducto repositorioProducto,
+			RepositorioGarantiaExtendida repositorioGarantia, GeneradorFecha generadorFecha,
+			BloqueoPorCodigo bloqueoPorCodigo, RepositorioIdempotencia repositorioIdempotencia,
+			RegistroMetricas registroMetricas) {
+		super(repositorioProducto, repositorioGarantia, generadorFecha, bloqueoPorCodigo, repositorioIdempotencia);
+		this.generarGarantia = registroMetricas.metrica(PREFIJO + "generarGarantia");
+		this.generarGarantias = registroMetricas.metrica(PREFIJO + "generarGarantias");
+		this.tieneGarantia = registroMetricas.metrica(PREFIJO + "tieneGarantia");
+		this.cotizarGarantia = registroMetricas.metrica(PREFIJO + "cotizarGarantia");
+		this.cotizarCatalogo = registroMetricas.metrica(PREFIJO + "cotizarCatalogo");
+	}
+
+	@Override
+	public void generarGarantia(String codigo, String nombreCliente) {
+		generarGarantia.medir(() -> super.generarGarantia(codigo, nombreCliente));
+	}
+
+	@Override
+	public List<ResultadoGarantia> generarGarantias(List<SolicitudGarantia> solicitudes) {
+		return generarGarantias.medir(() -> super.generarGarantias(solicitudes));
+	}
+
+	@Override
+	public boolean tieneGarantia(String codigo) {
+		return tieneGarantia.medir(() -> super.tieneGarantia(codigo));
+	}
+
+	@Override
+	public CotizacionGarantia cotizarGarantia(String codigo) {
+		return cotizarGarantia.medir(() -> super.cotizarGarantia(codigo));
+	}
+
+	@Override
+	public void cotizarCatalogo(String[] codigos, double[] precios, SumideroCotizaciones sumidero,
+			ForkJoinPool pool) {
+		cotizarCatalogo.medir(() -> super.cotizarCatalogo(codigos, precios, sumidero, pool));
+	}
+}
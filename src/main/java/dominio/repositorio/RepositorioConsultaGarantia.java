@@ -0,0 +1,52 @@
+package dominio.repositorio;
+
+import java.util.Date;
+
+import dominio.PaginaGarantias;
+import dominio.TramoPrecio;
+
+/**
+ * Consultas paginadas por cursor: cursor null pide la primera pagina y cada
+ * pagina devuelve el cursor que continua despues de su ultima garantia
+ */
+public interface RepositorioConsultaGarantia {
+
+	/**
+	 * Permite obtener las garantias de un cliente
+	 * @param nombreCliente
+	 * @param cursor
+	 * @param tamano
+	 * @return
+	 */
+	PaginaGarantias buscarPorCliente(String nombreCliente, String cursor, int tamano);
+
+	/**
+	 * Permite obtener las garantias solicitadas en el rango [desde, hasta)
+	 * @param desde
+	 * @param hasta
+	 * @param cursor
+	 * @param tamano
+	 * @return
+	 */
+	PaginaGarantias buscarPorFechaSolicitud(Date desde, Date hasta, String cursor, int tamano);
+
+	/**
+	 * Permite obtener las garantias que vencen en el rango [desde, hasta)
+	 * @param desde
+	 * @param hasta
+	 * @param cursor
+	 * @param tamano
+	 * @return
+	 */
+	PaginaGarantias buscarPorFechaFin(Date desde, Date hasta, String cursor, int tamano);
+
+	/**
+	 * Permite obtener las garantias de los productos de un tramo de precio
+	 * @param tramo
+	 * @param cursor
+	 * @param tamano
+	 * @return
+	 */
+	PaginaGarantias buscarPorTramoPrecio(TramoPrecio tramo, String cursor, int tamano);
+
+}
@@ -1,5 +1,9 @@
 package dominio.repositorio;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 import dominio.Producto;
 import dominio.GarantiaExtendida;
 
@@ -11,12 +15,32 @@ public interface RepositorioGarantiaExtendida {
 	 * @return
 	 */
 	Producto obtenerProductoConGarantiaPorCodigo(String codigo);
+
+	/**
+	 * Permite saber si el producto de un codigo tiene garantia extendida sin cargarla
+	 * @param codigo
+	 * @return
+	 */
+	boolean existeGarantia(String codigo);
 	
 	/**
 	 * Permite agregar una garantia al repositorio de garantia
 	 * @param garantia
 	 */
 	void agregar(GarantiaExtendida garantia);
+
+	/**
+	 * Permite agregar por lotes varias garantias al repositorio de garantia
+	 * @param garantias
+	 */
+	void agregarTodas(List<GarantiaExtendida> garantias);
+
+	/**
+	 * Permite obtener, de los codigos dados, los que ya tienen garantia extendida
+	 * @param codigos
+	 * @return
+	 */
+	Set<String> obtenerCodigosConGarantia(Collection<String> codigos);
 	
 	/**
 	 * Permite obtener una garantia extendida por el codigo del producto
@@ -0,0 +1,27 @@
+package dominio.repositorio;
+
+import java.util.function.Supplier;
+
+import dominio.ResultadoGarantia;
+
+public interface RepositorioIdempotencia {
+
+	/**
+	 * Permite obtener el resultado registrado con una clave de idempotencia,
+	 * null si la clave no se ha usado o ya expiro
+	 * @param clave
+	 * @return
+	 */
+	ResultadoGarantia obtener(String clave);
+
+	/**
+	 * Permite obtener el resultado registrado con una clave o, si aun no
+	 * tiene, generarlo y registrarlo; si otra solicitud con la misma clave lo
+	 * registro antes, se conserva y se devuelve ese sin generar otro
+	 * @param clave
+	 * @param generador
+	 * @return
+	 */
+	ResultadoGarantia registrar(String clave, Supplier<ResultadoGarantia> generador);
+
+}
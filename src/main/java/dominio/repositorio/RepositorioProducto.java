@@ -1,5 +1,9 @@
 package dominio.repositorio;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 import dominio.Producto;
 
 public interface RepositorioProducto {
@@ -7,14 +11,28 @@ public interface RepositorioProducto {
 	/**
 	 * Permite obtener un producto dado un codigo
 	 * @param codigo
-	 * @return
+	 * @return null si el codigo no existe, en los repositorios en memoria
 	 */
 	Producto obtenerPorCodigo(String codigo);
 
+	/**
+	 * Permite obtener en una sola consulta los productos de varios codigos
+	 * @param codigos
+	 * @return
+	 */
+	List<Producto> obtenerPorCodigos(Collection<String> codigos);
+
 	/**
 	 * Permite agregar un producto al repositorio
 	 * @param producto
 	 */
 	void agregar(Producto producto);
 
+	/**
+	 * Permite agregar productos en lotes, actualizando nombre y precio de los
+	 * que ya existen con el mismo codigo
+	 * @param productos
+	 */
+	void agregarTodos(Stream<Producto> productos);
+
 }
\ No newline at end of file
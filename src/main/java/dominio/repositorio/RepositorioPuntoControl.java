@@ -0,0 +1,20 @@
+package dominio.repositorio;
+
+import dominio.PuntoControl;
+
+public interface RepositorioPuntoControl {
+
+	/**
+	 * Permite obtener el punto de control de un proceso, null si nunca se guardo
+	 * @param nombre
+	 * @return
+	 */
+	PuntoControl obtener(String nombre);
+
+	/**
+	 * Permite guardar o reemplazar el punto de control de un proceso
+	 * @param puntoControl
+	 */
+	void guardar(PuntoControl puntoControl);
+
+}
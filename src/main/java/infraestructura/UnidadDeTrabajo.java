@@ -0,0 +1,34 @@
+package infraestructura;
+
+import java.util.function.Supplier;
+
+public interface UnidadDeTrabajo {
+
+	/**
+	 * Permite ejecutar un trabajo dentro de una transaccion propia del hilo
+	 * actual, o dentro de la que ya este activa en el hilo
+	 *
+	 * @param trabajo
+	 * @return
+	 */
+	<T> T ejecutar(Supplier<T> trabajo);
+
+	/**
+	 * Permite ejecutar un trabajo sin resultado dentro de una transaccion
+	 * propia del hilo actual, o dentro de la que ya este activa en el hilo
+	 *
+	 * @param trabajo
+	 */
+	void ejecutar(Runnable trabajo);
+
+	/**
+	 * Permite registrar acciones para el final de la transaccion activa del
+	 * hilo actual: la primera se ejecuta si se confirma y la segunda si se
+	 * revierte. Sin transaccion activa la primera se ejecuta de inmediato
+	 *
+	 * @param alConfirmar
+	 * @param alCancelar
+	 */
+	void alTerminar(Runnable alConfirmar, Runnable alCancelar);
+
+}
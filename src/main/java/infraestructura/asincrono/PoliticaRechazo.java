@@ -0,0 +1,16 @@
+package infraestructura.asincrono;
+
+public enum PoliticaRechazo {
+
+	/**
+	 * Con la cola llena la tarea se rechaza y su futuro termina con
+	 * RejectedExecutionException
+	 */
+	RECHAZAR,
+
+	/**
+	 * Con la cola llena el hilo que envia la tarea espera a que haya espacio
+	 */
+	BLOQUEAR
+
+}
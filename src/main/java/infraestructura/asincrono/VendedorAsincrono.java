@@ -0,0 +1,230 @@
+package infraestructura.asincrono;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.log4j.Logger;
+
+import dominio.Vendedor;
+import infraestructura.UnidadDeTrabajo;
+
+/**
+ * Fachada asincrona del vendedor sobre un pool de hilos acotado con una cola
+ * acotada: cuando la cola se llena la politica de rechazo decide si la tarea
+ * falla o si quien la envia espera.
+ *
+ * Cada tarea corre en su propia unidad de trabajo, con un entity manager que
+ * se crea y se cierra en el hilo del pool. En Java 21 o superior los hilos
+ * del pool pueden ser virtuales; el limite de tareas simultaneas sigue siendo
+ * el numero de hilos.
+ */
+public class VendedorAsincrono implements VendedorAsincronoMXBean {
+
+	private static final Logger LOGGER = Logger.getLogger(VendedorAsincrono.class);
+
+	private static final String NOMBRE_HILOS = "vendedor-asincrono-";
+
+	private Vendedor vendedor;
+	private UnidadDeTrabajo unidadDeTrabajo;
+	private Function<String, CompletableFuture<Void>> confirmacionGarantia;
+	private ThreadPoolExecutor ejecutor;
+	private boolean hilosVirtuales;
+
+	private AtomicInteger tareasEnCurso = new AtomicInteger();
+	private LongAdder tareasCompletadas = new LongAdder();
+	private LongAdder tareasFallidas = new LongAdder();
+	private LongAdder tareasRechazadas = new LongAdder();
+
+	public VendedorAsincrono(Vendedor vendedor, UnidadDeTrabajo unidadDeTrabajo, int hilos, int capacidadCola,
+			PoliticaRechazo politicaRechazo, boolean usarHilosVirtuales) {
+		this(vendedor, unidadDeTrabajo, codigo -> CompletableFuture.completedFuture(null), hilos, capacidadCola,
+				politicaRechazo, usarHilosVirtuales);
+	}
+
+	/**
+	 * @param confirmacionGarantia
+	 *            futuro que termina cuando la garantia de un codigo es
+	 *            durable, para repositorios con escritura diferida
+	 */
+	public VendedorAsincrono(Vendedor vendedor, UnidadDeTrabajo unidadDeTrabajo,
+			Function<String, CompletableFuture<Void>> confirmacionGarantia, int hilos, int capacidadCola,
+			PoliticaRechazo politicaRechazo, boolean usarHilosVirtuales) {
+
+		this.vendedor = vendedor;
+		this.unidadDeTrabajo = unidadDeTrabajo;
+		this.confirmacionGarantia = confirmacionGarantia;
+
+		ThreadFactory fabricaHilos = usarHilosVirtuales ? fabricaHilosVirtuales() : null;
+		this.hilosVirtuales = fabricaHilos != null;
+		if (fabricaHilos == null) {
+			fabricaHilos = fabricaHilosDemonio();
+		}
+
+		this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(capacidadCola), fabricaHilos,
+				politicaRechazo == PoliticaRechazo.BLOQUEAR ? new EsperarEspacioEnCola()
+						: new ThreadPoolExecutor.AbortPolicy());
+
+		LOGGER.info("Vendedor asincrono con " + hilos + " hilos" + (hilosVirtuales ? " virtuales" : "")
+				+ ", cola de " + capacidadCola + " y politica " + politicaRechazo);
+	}
+
+	/**
+	 * Permite generar la garantia de un producto sin bloquear al llamador; el
+	 * futuro termina cuando la garantia es durable
+	 *
+	 * @param codigo
+	 * @param nombreCliente
+	 * @return
+	 */
+	public CompletableFuture<Void> generarGarantiaAsync(String codigo, String nombreCliente) {
+		return enviar(() -> {
+			unidadDeTrabajo.ejecutar(() -> vendedor.generarGarantia(codigo, nombreCliente));
+			return null;
+		}).thenCompose(generada -> confirmacionGarantia.apply(codigo));
+	}
+
+	/**
+	 * Permite consultar si un producto tiene garantia sin bloquear al llamador
+	 *
+	 * @param codigo
+	 * @return
+	 */
+	public CompletableFuture<Boolean> tieneGarantiaAsync(String codigo) {
+		return enviar(() -> unidadDeTrabajo.ejecutar(() -> vendedor.tieneGarantia(codigo)));
+	}
+
+	/**
+	 * Permite dejar de recibir tareas; las que ya estan en la cola se terminan
+	 */
+	public void detener() {
+		ejecutor.shutdown();
+	}
+
+	private <T> CompletableFuture<T> enviar(Supplier<T> trabajo) {
+
+		CompletableFuture<T> resultado = new CompletableFuture<>();
+
+		try {
+			ejecutor.execute(() -> {
+				tareasEnCurso.incrementAndGet();
+				try {
+					T valor = trabajo.get();
+					tareasCompletadas.increment();
+					resultado.complete(valor);
+				} catch (Throwable e) {
+					tareasFallidas.increment();
+					resultado.completeExceptionally(e);
+					if (e instanceof Error) {
+						throw (Error) e;
+					}
+				} finally {
+					tareasEnCurso.decrementAndGet();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			tareasRechazadas.increment();
+			resultado.completeExceptionally(e);
+		}
+
+		return resultado;
+	}
+
+	private static ThreadFactory fabricaHilosVirtuales() {
+
+		try {
+			Class<?> tipoConstructor = Class.forName("java.lang.Thread$Builder");
+			Object constructor = Thread.class.getMethod("ofVirtual").invoke(null);
+			constructor = tipoConstructor.getMethod("name", String.class, long.class).invoke(constructor,
+					NOMBRE_HILOS, 1L);
+			return (ThreadFactory) tipoConstructor.getMethod("factory").invoke(constructor);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	private static ThreadFactory fabricaHilosDemonio() {
+
+		AtomicInteger contador = new AtomicInteger();
+		return tarea -> {
+			Thread hilo = new Thread(tarea, NOMBRE_HILOS + contador.incrementAndGet());
+			hilo.setDaemon(true);
+			return hilo;
+		};
+	}
+
+	private static class EsperarEspacioEnCola implements RejectedExecutionHandler {
+
+		@Override
+		public void rejectedExecution(Runnable tarea, ThreadPoolExecutor ejecutor) {
+
+			if (ejecutor.isShutdown()) {
+				throw new RejectedExecutionException("El vendedor asincrono esta detenido");
+			}
+
+			try {
+				ejecutor.getQueue().put(tarea);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RejectedExecutionException("Interrumpido esperando espacio en la cola", e);
+			}
+
+			// si se detuvo mientras esperaba, puede que ya no queden hilos
+			// que vacien la cola
+			if (ejecutor.isShutdown() && ejecutor.getQueue().remove(tarea)) {
+				throw new RejectedExecutionException("El vendedor asincrono esta detenido");
+			}
+		}
+	}
+
+	@Override
+	public int getTareasEnCola() {
+		return ejecutor.getQueue().size();
+	}
+
+	@Override
+	public int getCapacidadDisponibleCola() {
+		return ejecutor.getQueue().remainingCapacity();
+	}
+
+	@Override
+	public int getTareasEnCurso() {
+		return tareasEnCurso.get();
+	}
+
+	@Override
+	public long getTareasCompletadas() {
+		return tareasCompletadas.sum();
+	}
+
+	@Override
+	public long getTareasFallidas() {
+		return tareasFallidas.sum();
+	}
+
+	@Override
+	public long getTareasRechazadas() {
+		return tareasRechazadas.sum();
+	}
+
+	@Override
+	public boolean isHilosVirtuales() {
+		return hilosVirtuales;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("VendedorAsincrono enCola=%d, enCurso=%d, completadas=%d, fallidas=%d, rechazadas=%d",
+				getTareasEnCola(), getTareasEnCurso(), getTareasCompletadas(), getTareasFallidas(),
+				getTareasRechazadas());
+	}
+}
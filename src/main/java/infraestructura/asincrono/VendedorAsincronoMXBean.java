@@ -0,0 +1,19 @@
+package infraestructura.asincrono;
+
+public interface VendedorAsincronoMXBean {
+
+	int getTareasEnCola();
+
+	int getCapacidadDisponibleCola();
+
+	int getTareasEnCurso();
+
+	long getTareasCompletadas();
+
+	long getTareasFallidas();
+
+	long getTareasRechazadas();
+
+	boolean isHilosVirtuales();
+
+}
@@ -0,0 +1,117 @@
+package infraestructura.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class CacheLocal<K, V> {
+
+	private final int capacidad;
+	private final long ttlNanos;
+	private final LinkedHashMap<K, Entrada<V>> entradas;
+
+	private long aciertos;
+	private long fallos;
+	private long desalojos;
+
+	/**
+	 * Cache acotada con desalojo LRU y expiracion por tiempo de vida, un ttl
+	 * menor o igual a cero deshabilita la expiracion
+	 *
+	 * @param capacidad
+	 * @param ttl
+	 * @param unidad
+	 */
+	public CacheLocal(int capacidad, long ttl, TimeUnit unidad) {
+		this.capacidad = capacidad;
+		this.ttlNanos = unidad.toNanos(ttl);
+		this.entradas = new LinkedHashMap<K, Entrada<V>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> masAntigua) {
+
+				if (size() > CacheLocal.this.capacidad) {
+					desalojos++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	public synchronized V obtener(K clave) {
+
+		Entrada<V> entrada = entradas.get(clave);
+
+		if (entrada == null) {
+			fallos++;
+			return null;
+		}
+
+		if (expirada(entrada, System.nanoTime())) {
+			entradas.remove(clave);
+			desalojos++;
+			fallos++;
+			return null;
+		}
+
+		aciertos++;
+		return entrada.valor;
+	}
+
+	public synchronized void guardar(K clave, V valor) {
+
+		entradas.put(clave, new Entrada<>(valor, System.nanoTime() + ttlNanos));
+	}
+
+	public synchronized void invalidar(K clave) {
+		entradas.remove(clave);
+	}
+
+	public synchronized void invalidarTodo() {
+		entradas.clear();
+	}
+
+	public synchronized int purgarExpiradas() {
+
+		long ahora = System.nanoTime();
+		int purgadas = 0;
+
+		Iterator<Entrada<V>> iterador = entradas.values().iterator();
+		while (iterador.hasNext()) {
+			if (expirada(iterador.next(), ahora)) {
+				iterador.remove();
+				purgadas++;
+			}
+		}
+
+		desalojos += purgadas;
+		return purgadas;
+	}
+
+	private boolean expirada(Entrada<V> entrada, long ahora) {
+		return ttlNanos > 0 && ahora - entrada.expiracion > 0;
+	}
+
+	public int getCapacidad() {
+		return capacidad;
+	}
+
+	public synchronized EstadisticasCache getEstadisticas() {
+		return new EstadisticasCache(aciertos, fallos, desalojos, entradas.size());
+	}
+
+	private static class Entrada<V> {
+
+		private final V valor;
+		private final long expiracion;
+
+		Entrada(V valor, long expiracion) {
+			this.valor = valor;
+			this.expiracion = expiracion;
+		}
+	}
+}
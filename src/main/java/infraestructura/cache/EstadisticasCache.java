@@ -0,0 +1,44 @@
+package infraestructura.cache;
+
+public class EstadisticasCache {
+
+	private long aciertos;
+	private long fallos;
+	private long desalojos;
+	private int tamano;
+
+	public EstadisticasCache(long aciertos, long fallos, long desalojos, int tamano) {
+
+		this.aciertos = aciertos;
+		this.fallos = fallos;
+		this.desalojos = desalojos;
+		this.tamano = tamano;
+	}
+
+	public long getAciertos() {
+		return aciertos;
+	}
+
+	public long getFallos() {
+		return fallos;
+	}
+
+	public long getDesalojos() {
+		return desalojos;
+	}
+
+	public int getTamano() {
+		return tamano;
+	}
+
+	public double getTasaAciertos() {
+
+		long consultas = aciertos + fallos;
+		return consultas == 0 ? 0 : (double) aciertos / consultas;
+	}
+
+	@Override
+	public String toString() {
+		return "aciertos=" + aciertos + ", fallos=" + fallos + ", desalojos=" + desalojos + ", tamano=" + tamano;
+	}
+}
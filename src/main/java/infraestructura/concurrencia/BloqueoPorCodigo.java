@@ -0,0 +1,121 @@
+package infraestructura.concurrencia;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Candados por codigo de producto repartidos en franjas: las operaciones
+ * sobre un mismo codigo se ejecutan de a una y las de codigos distintos solo
+ * se esperan cuando sus codigos caen en la misma franja.
+ *
+ * Para varios codigos las franjas se toman en orden ascendente, asi dos
+ * lotes que comparten franjas no se bloquean mutuamente.
+ *
+ * El candado se suelta al terminar el trabajo, antes del commit de la
+ * transaccion que lo contiene: ordena las llamadas pero no reemplaza el
+ * rechazo de duplicados del repositorio ni la restriccion de la base de datos.
+ */
+public class BloqueoPorCodigo {
+
+	private final ReentrantLock[] franjas;
+
+	private final int mascara;
+
+	private final LongAdder esperas = new LongAdder();
+
+	public BloqueoPorCodigo(int franjas) {
+
+		int numeroFranjas = 1;
+		while (numeroFranjas < franjas) {
+			numeroFranjas <<= 1;
+		}
+
+		this.franjas = new ReentrantLock[numeroFranjas];
+		this.mascara = numeroFranjas - 1;
+		for (int i = 0; i < numeroFranjas; i++) {
+			this.franjas[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Permite ejecutar un trabajo con el candado del codigo
+	 *
+	 * @param codigo
+	 * @param trabajo
+	 * @return
+	 */
+	public <T> T ejecutar(String codigo, Supplier<T> trabajo) {
+
+		ReentrantLock candado = franjas[franja(codigo)];
+		bloquear(candado);
+		try {
+			return trabajo.get();
+		} finally {
+			candado.unlock();
+		}
+	}
+
+	public void ejecutar(String codigo, Runnable trabajo) {
+		ejecutar(codigo, () -> {
+			trabajo.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Permite ejecutar un trabajo con los candados de todos los codigos
+	 *
+	 * @param codigos
+	 * @param trabajo
+	 * @return
+	 */
+	public <T> T ejecutar(Collection<String> codigos, Supplier<T> trabajo) {
+
+		int[] indices = codigos.stream().filter(Objects::nonNull).mapToInt(this::franja).distinct().sorted()
+				.toArray();
+
+		int bloqueadas = 0;
+		try {
+			for (int indice : indices) {
+				bloquear(franjas[indice]);
+				bloqueadas++;
+			}
+			return trabajo.get();
+		} finally {
+			for (int i = bloqueadas - 1; i >= 0; i--) {
+				franjas[indices[i]].unlock();
+			}
+		}
+	}
+
+	public int getFranjas() {
+		return franjas.length;
+	}
+
+	/**
+	 * Permite saber cuantas veces un hilo encontro ocupada la franja de su
+	 * codigo y tuvo que esperar
+	 *
+	 * @return
+	 */
+	public long getEsperas() {
+		return esperas.sum();
+	}
+
+	private void bloquear(ReentrantLock candado) {
+
+		if (!candado.tryLock()) {
+			esperas.increment();
+			candado.lock();
+		}
+	}
+
+	private int franja(String codigo) {
+
+		int hash = codigo.hashCode();
+		return (hash ^ (hash >>> 16)) & mascara;
+	}
+}
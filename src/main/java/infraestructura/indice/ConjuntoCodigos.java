@@ -0,0 +1,102 @@
+package infraestructura.indice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class ConjuntoCodigos {
+
+	private static final int CAPACIDAD_INICIAL = 16;
+	private static final int BYTES_REFERENCIA = 4;
+	private static final int BYTES_CABECERA_ARREGLO = 16;
+
+	private byte[][] codigos;
+	private int[] hashes;
+	private int tamano;
+	private long bytesCodigos;
+
+	public ConjuntoCodigos() {
+		this.codigos = new byte[CAPACIDAD_INICIAL][];
+		this.hashes = new int[CAPACIDAD_INICIAL];
+	}
+
+	public synchronized boolean agregar(String codigo) {
+
+		byte[] bytes = codigo.getBytes(StandardCharsets.UTF_8);
+		int hash = hash(bytes);
+
+		if (buscar(bytes, hash) >= 0) {
+			return false;
+		}
+
+		if ((tamano + 1) * 2 > codigos.length) {
+			redimensionar();
+		}
+
+		insertar(bytes, hash);
+		tamano++;
+		bytesCodigos += BYTES_CABECERA_ARREGLO + bytes.length;
+		return true;
+	}
+
+	public synchronized boolean contiene(String codigo) {
+
+		byte[] bytes = codigo.getBytes(StandardCharsets.UTF_8);
+		return buscar(bytes, hash(bytes)) >= 0;
+	}
+
+	public synchronized int getTamano() {
+		return tamano;
+	}
+
+	/**
+	 * Permite estimar los bytes de heap que ocupa el conjunto
+	 *
+	 * @return
+	 */
+	public synchronized long getBytes() {
+		return (long) codigos.length * (BYTES_REFERENCIA + Integer.BYTES) + bytesCodigos;
+	}
+
+	private int buscar(byte[] bytes, int hash) {
+
+		int mascara = codigos.length - 1;
+		for (int i = hash & mascara; codigos[i] != null; i = (i + 1) & mascara) {
+			if (hashes[i] == hash && Arrays.equals(codigos[i], bytes)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void insertar(byte[] bytes, int hash) {
+
+		int mascara = codigos.length - 1;
+		int i = hash & mascara;
+		while (codigos[i] != null) {
+			i = (i + 1) & mascara;
+		}
+		codigos[i] = bytes;
+		hashes[i] = hash;
+	}
+
+	private static int hash(byte[] bytes) {
+
+		int hash = Arrays.hashCode(bytes);
+		return hash ^ (hash >>> 16);
+	}
+
+	private void redimensionar() {
+
+		byte[][] codigosAnteriores = codigos;
+		int[] hashesAnteriores = hashes;
+
+		codigos = new byte[codigosAnteriores.length * 2][];
+		hashes = new int[codigosAnteriores.length * 2];
+
+		for (int i = 0; i < codigosAnteriores.length; i++) {
+			if (codigosAnteriores[i] != null) {
+				insertar(codigosAnteriores[i], hashesAnteriores[i]);
+			}
+		}
+	}
+}
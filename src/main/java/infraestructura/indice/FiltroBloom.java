@@ -0,0 +1,100 @@
+package infraestructura.indice;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class FiltroBloom {
+
+	private static final int BITS_POR_PALABRA = 64;
+
+	private final AtomicLongArray bits;
+	private final long numeroBits;
+	private final int numeroFunciones;
+
+	/**
+	 * Dimensiona el filtro para la cantidad de elementos esperada y la tasa de
+	 * falsos positivos deseada
+	 *
+	 * @param elementosEsperados
+	 * @param tasaFalsosPositivos
+	 */
+	public FiltroBloom(long elementosEsperados, double tasaFalsosPositivos) {
+
+		long elementos = Math.max(1, elementosEsperados);
+		long bitsRequeridos = (long) Math.ceil(-elementos * Math.log(tasaFalsosPositivos) / (Math.log(2) * Math.log(2)));
+		int palabras = (int) Math.max(1, (bitsRequeridos + BITS_POR_PALABRA - 1) / BITS_POR_PALABRA);
+
+		this.bits = new AtomicLongArray(palabras);
+		this.numeroBits = (long) palabras * BITS_POR_PALABRA;
+		this.numeroFunciones = Math.max(1, (int) Math.round((double) numeroBits / elementos * Math.log(2)));
+	}
+
+	public void agregar(String valor) {
+
+		long hash = hash(valor);
+		int hash1 = (int) hash;
+		int hash2 = (int) (hash >>> 32);
+
+		for (int i = 0; i < numeroFunciones; i++) {
+			long bit = Math.floorMod(hash1 + (long) i * hash2, numeroBits);
+			int palabra = (int) (bit / BITS_POR_PALABRA);
+			long mascara = 1L << (bit % BITS_POR_PALABRA);
+
+			long actual = bits.get(palabra);
+			while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara)) {
+				actual = bits.get(palabra);
+			}
+		}
+	}
+
+	public boolean puedeContener(String valor) {
+
+		long hash = hash(valor);
+		int hash1 = (int) hash;
+		int hash2 = (int) (hash >>> 32);
+
+		for (int i = 0; i < numeroFunciones; i++) {
+			long bit = Math.floorMod(hash1 + (long) i * hash2, numeroBits);
+			if ((bits.get((int) (bit / BITS_POR_PALABRA)) & (1L << (bit % BITS_POR_PALABRA))) == 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Permite estimar la tasa de falsos positivos para la cantidad de
+	 * elementos agregados
+	 *
+	 * @param elementos
+	 * @return
+	 */
+	public double estimarTasaFalsosPositivos(long elementos) {
+		return Math.pow(1 - Math.exp(-(double) numeroFunciones * elementos / numeroBits), numeroFunciones);
+	}
+
+	public long getBytes() {
+		return numeroBits / Byte.SIZE;
+	}
+
+	public int getNumeroFunciones() {
+		return numeroFunciones;
+	}
+
+	private static long hash(String valor) {
+
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < valor.length(); i++) {
+			hash ^= valor.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+
+		return hash;
+	}
+}
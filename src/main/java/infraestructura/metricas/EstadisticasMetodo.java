@@ -0,0 +1,69 @@
+package infraestructura.metricas;
+
+import java.util.Map;
+
+public class EstadisticasMetodo {
+
+	private static final double NANOS_POR_MICRO = 1000.0;
+
+	private String nombre;
+	private long llamadas;
+	private long errores;
+	private Map<String, Long> erroresPorMensaje;
+	private long p50Nanos;
+	private long p99Nanos;
+	private long p999Nanos;
+	private long maximaNanos;
+
+	public EstadisticasMetodo(String nombre, long llamadas, long errores, Map<String, Long> erroresPorMensaje,
+			long p50Nanos, long p99Nanos, long p999Nanos, long maximaNanos) {
+
+		this.nombre = nombre;
+		this.llamadas = llamadas;
+		this.errores = errores;
+		this.erroresPorMensaje = erroresPorMensaje;
+		this.p50Nanos = p50Nanos;
+		this.p99Nanos = p99Nanos;
+		this.p999Nanos = p999Nanos;
+		this.maximaNanos = maximaNanos;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public long getLlamadas() {
+		return llamadas;
+	}
+
+	public long getErrores() {
+		return errores;
+	}
+
+	public Map<String, Long> getErroresPorMensaje() {
+		return erroresPorMensaje;
+	}
+
+	public double getLatenciaP50Micros() {
+		return p50Nanos / NANOS_POR_MICRO;
+	}
+
+	public double getLatenciaP99Micros() {
+		return p99Nanos / NANOS_POR_MICRO;
+	}
+
+	public double getLatenciaP999Micros() {
+		return p999Nanos / NANOS_POR_MICRO;
+	}
+
+	public double getLatenciaMaximaMicros() {
+		return maximaNanos / NANOS_POR_MICRO;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s llamadas=%d, errores=%d, p50=%.1fus, p99=%.1fus, p999=%.1fus, max=%.1fus %s", nombre,
+				llamadas, errores, getLatenciaP50Micros(), getLatenciaP99Micros(), getLatenciaP999Micros(),
+				getLatenciaMaximaMicros(), erroresPorMensaje.isEmpty() ? "" : erroresPorMensaje.toString()).trim();
+	}
+}
@@ -0,0 +1,130 @@
+package infraestructura.metricas;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import dominio.excepcion.GarantiaExtendidaException;
+
+/**
+ * Registra llamadas, errores y latencias de un metodo. La escritura no toma
+ * bloqueos: los contadores son LongAdder y el histograma se graba en un
+ * Recorder que solo se sincroniza al leer.
+ */
+public class MetricaMetodo implements MetricaMetodoMXBean {
+
+	private static final int DIGITOS_SIGNIFICATIVOS = 3;
+
+	private String nombre;
+
+	private LongAdder llamadas = new LongAdder();
+
+	private LongAdder errores = new LongAdder();
+
+	private ConcurrentHashMap<String, LongAdder> erroresPorMensaje = new ConcurrentHashMap<>();
+
+	private Recorder recorder = new Recorder(DIGITOS_SIGNIFICATIVOS);
+
+	private Histogram intervalo;
+
+	private Histogram acumulado = new Histogram(DIGITOS_SIGNIFICATIVOS);
+
+	public MetricaMetodo(String nombre) {
+		this.nombre = nombre;
+	}
+
+	public String getNombre() {
+		return nombre;
+	}
+
+	public <T> T medir(Supplier<T> llamada) {
+
+		long inicio = System.nanoTime();
+		try {
+			T resultado = llamada.get();
+			registrar(System.nanoTime() - inicio);
+			return resultado;
+		} catch (RuntimeException e) {
+			registrarError(System.nanoTime() - inicio, e);
+			throw e;
+		}
+	}
+
+	public void medir(Runnable llamada) {
+		medir(() -> {
+			llamada.run();
+			return null;
+		});
+	}
+
+	public void registrar(long nanos) {
+		llamadas.increment();
+		recorder.recordValue(Math.max(0, nanos));
+	}
+
+	/**
+	 * Los errores de negocio se agrupan por mensaje, el resto por tipo de
+	 * excepcion
+	 */
+	public void registrarError(long nanos, RuntimeException error) {
+		registrar(nanos);
+		errores.increment();
+
+		String clave = error instanceof GarantiaExtendidaException ? error.getMessage()
+				: error.getClass().getSimpleName();
+		erroresPorMensaje.computeIfAbsent(String.valueOf(clave), k -> new LongAdder()).increment();
+	}
+
+	public synchronized EstadisticasMetodo getEstadisticas() {
+
+		intervalo = recorder.getIntervalHistogram(intervalo);
+		acumulado.add(intervalo);
+
+		Map<String, Long> errorPorMensaje = new TreeMap<>();
+		erroresPorMensaje.forEach((mensaje, contador) -> errorPorMensaje.put(mensaje, contador.sum()));
+
+		return new EstadisticasMetodo(nombre, llamadas.sum(), errores.sum(), errorPorMensaje,
+				acumulado.getValueAtPercentile(50), acumulado.getValueAtPercentile(99),
+				acumulado.getValueAtPercentile(99.9), acumulado.getMaxValue());
+	}
+
+	@Override
+	public long getLlamadas() {
+		return llamadas.sum();
+	}
+
+	@Override
+	public long getErrores() {
+		return errores.sum();
+	}
+
+	@Override
+	public Map<String, Long> getErroresPorMensaje() {
+		return getEstadisticas().getErroresPorMensaje();
+	}
+
+	@Override
+	public double getLatenciaP50Micros() {
+		return getEstadisticas().getLatenciaP50Micros();
+	}
+
+	@Override
+	public double getLatenciaP99Micros() {
+		return getEstadisticas().getLatenciaP99Micros();
+	}
+
+	@Override
+	public double getLatenciaP999Micros() {
+		return getEstadisticas().getLatenciaP999Micros();
+	}
+
+	@Override
+	public double getLatenciaMaximaMicros() {
+		return getEstadisticas().getLatenciaMaximaMicros();
+	}
+}
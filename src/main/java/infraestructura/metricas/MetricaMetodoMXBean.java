@@ -0,0 +1,21 @@
+package infraestructura.metricas;
+
+import java.util.Map;
+
+public interface MetricaMetodoMXBean {
+
+	long getLlamadas();
+
+	long getErrores();
+
+	Map<String, Long> getErroresPorMensaje();
+
+	double getLatenciaP50Micros();
+
+	double getLatenciaP99Micros();
+
+	double getLatenciaP999Micros();
+
+	double getLatenciaMaximaMicros();
+
+}
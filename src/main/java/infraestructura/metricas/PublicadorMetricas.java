@@ -0,0 +1,134 @@
+package infraestructura.metricas;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Publica las metricas por JMX y como resumen periodico en el log
+ */
+public class PublicadorMetricas {
+
+	private static final Logger LOGGER = Logger.getLogger(PublicadorMetricas.class);
+
+	private String dominioJmx;
+
+	private RegistroMetricas registroMetricas;
+
+	private Map<String, Object> fuentes = new LinkedHashMap<>();
+
+	private List<Supplier<String>> resumenes = new ArrayList<>();
+
+	private List<ObjectName> registrados = new ArrayList<>();
+
+	private ScheduledExecutorService planificador;
+
+	private boolean iniciado;
+
+	public PublicadorMetricas(String dominioJmx, RegistroMetricas registroMetricas) {
+		this.dominioJmx = dominioJmx;
+		this.registroMetricas = registroMetricas;
+	}
+
+	/**
+	 * Permite publicar una fuente adicional de metricas
+	 *
+	 * @param nombre
+	 * @param mbean
+	 * @param resumen
+	 */
+	public synchronized void agregarFuente(String nombre, Object mbean, Supplier<String> resumen) {
+		fuentes.put(nombre, mbean);
+		resumenes.add(resumen);
+
+		if (iniciado) {
+			registrar(ManagementFactory.getPlatformMBeanServer(), dominioJmx + ":type=" + nombre, mbean);
+		}
+	}
+
+	public synchronized void iniciar(long periodo, TimeUnit unidad) {
+
+		MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+
+		for (MetricaMetodo metrica : registroMetricas.getMetricas()) {
+			registrar(servidor, dominioJmx + ":type=Metodo,name=" + metrica.getNombre(), metrica);
+		}
+		fuentes.forEach((nombre, mbean) -> registrar(servidor, dominioJmx + ":type=" + nombre, mbean));
+		iniciado = true;
+
+		if (periodo > 0) {
+			planificador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+				Thread hilo = new Thread(tarea, "publicador-metricas");
+				hilo.setDaemon(true);
+				return hilo;
+			});
+			planificador.scheduleAtFixedRate(() -> LOGGER.info(resumen()), periodo, periodo, unidad);
+		}
+	}
+
+	public synchronized void detener() {
+
+		if (planificador != null) {
+			planificador.shutdownNow();
+			planificador = null;
+		}
+
+		MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+		for (ObjectName nombre : registrados) {
+			try {
+				if (servidor.isRegistered(nombre)) {
+					servidor.unregisterMBean(nombre);
+				}
+			} catch (JMException e) {
+				LOGGER.warn("No se pudo retirar el MBean " + nombre, e);
+			}
+		}
+		registrados.clear();
+		iniciado = false;
+	}
+
+	public String resumen() {
+
+		StringBuilder resumen = new StringBuilder("Metricas:");
+
+		registroMetricas.getMetricas().stream().map(MetricaMetodo::getEstadisticas)
+				.filter(estadisticas -> estadisticas.getLlamadas() > 0)
+				.sorted(Comparator.comparing(EstadisticasMetodo::getNombre))
+				.forEach(estadisticas -> resumen.append(System.lineSeparator()).append("  ").append(estadisticas));
+
+		synchronized (this) {
+			for (Supplier<String> adicional : resumenes) {
+				resumen.append(System.lineSeparator()).append("  ").append(adicional.get());
+			}
+		}
+
+		return resumen.toString();
+	}
+
+	private void registrar(MBeanServer servidor, String nombre, Object mbean) {
+
+		try {
+			ObjectName objectName = new ObjectName(nombre);
+			if (servidor.isRegistered(objectName)) {
+				servidor.unregisterMBean(objectName);
+			}
+			servidor.registerMBean(mbean, objectName);
+			registrados.add(objectName);
+		} catch (JMException e) {
+			LOGGER.warn("No se pudo publicar el MBean " + nombre, e);
+		}
+	}
+}
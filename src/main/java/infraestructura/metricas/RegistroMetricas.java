@@ -0,0 +1,25 @@
+package infraestructura.metricas;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class RegistroMetricas {
+
+	private ConcurrentHashMap<String, MetricaMetodo> metricas = new ConcurrentHashMap<>();
+
+	/**
+	 * Permite obtener la metrica de un metodo, creandola si no existe. Los
+	 * decoradores la resuelven una sola vez al construirse
+	 *
+	 * @param nombre
+	 * @return
+	 */
+	public MetricaMetodo metrica(String nombre) {
+		return metricas.computeIfAbsent(nombre, MetricaMetodo::new);
+	}
+
+	public Collection<MetricaMetodo> getMetricas() {
+		return new ArrayList<>(metricas.values());
+	}
+}
@@ -0,0 +1,267 @@
+package infraestructura.vencimientos;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+
+import dominio.GarantiaExtendida;
+import dominio.NotificadorVencimiento;
+import dominio.PaginaGarantias;
+import dominio.PuntoControl;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioConsultaGarantia;
+import dominio.repositorio.RepositorioPuntoControl;
+import infraestructura.UnidadDeTrabajo;
+
+/**
+ * Notifica las garantias cuya fecha de fin entra en los proximos dias.
+ *
+ * La marca de agua es el cursor (fechaFinGarantia, id) de la consulta por
+ * fecha de fin: cada barrido lee solo las garantias posteriores a la marca y
+ * anteriores al horizonte, en lotes acotados que se reparten entre los hilos.
+ * Despues de cada lote se guarda el punto de control, asi un reinicio retoma
+ * desde el ultimo lote completo; las garantias de un lote interrumpido se
+ * pueden notificar dos veces. Si una notificacion falla, el punto de control
+ * se detiene justo antes de esa garantia y el barrido termina, asi el
+ * siguiente barrido la reintenta junto con las que le siguen. Las garantias
+ * nuevas vencen al menos
+ * Vendedor.DIAS_GARANTIA_MENOR dias despues de solicitarse, por lo que no
+ * quedan detras de la marca mientras la anticipacion sea menor.
+ */
+public class BarredorVencimientos implements BarredorVencimientosMXBean {
+
+	private static final Logger LOGGER = Logger.getLogger(BarredorVencimientos.class);
+
+	private static final String PUNTO_CONTROL = "vencimientos";
+
+	private UnidadDeTrabajo unidadDeTrabajo;
+	private RepositorioConsultaGarantia repositorioConsultaGarantia;
+	private RepositorioPuntoControl repositorioPuntoControl;
+	private NotificadorVencimiento notificadorVencimiento;
+	private int diasAnticipacion;
+	private int tamanoLote;
+	private ExecutorService trabajadores;
+	private ScheduledExecutorService planificador;
+
+	private LongAdder garantiasNotificadas = new LongAdder();
+	private LongAdder lotesProcesados = new LongAdder();
+	private LongAdder errores = new LongAdder();
+	private volatile double garantiasPorSegundo;
+	private volatile long duracionUltimoBarridoMillis;
+	private volatile long finUltimoBarrido;
+	private volatile Date ultimaFechaFinProcesada;
+
+	public BarredorVencimientos(UnidadDeTrabajo unidadDeTrabajo,
+			RepositorioConsultaGarantia repositorioConsultaGarantia, RepositorioPuntoControl repositorioPuntoControl,
+			NotificadorVencimiento notificadorVencimiento, int diasAnticipacion, int tamanoLote, int hilos) {
+
+		if (diasAnticipacion >= Vendedor.DIAS_GARANTIA_MENOR) {
+			throw new IllegalArgumentException("La anticipacion de " + diasAnticipacion
+					+ " dias debe ser menor que la garantia minima de " + Vendedor.DIAS_GARANTIA_MENOR + " dias");
+		}
+
+		this.unidadDeTrabajo = unidadDeTrabajo;
+		this.repositorioConsultaGarantia = repositorioConsultaGarantia;
+		this.repositorioPuntoControl = repositorioPuntoControl;
+		this.notificadorVencimiento = notificadorVencimiento;
+		this.diasAnticipacion = diasAnticipacion;
+		this.tamanoLote = tamanoLote;
+		this.trabajadores = Executors.newFixedThreadPool(hilos, hilosDemonio("barredor-vencimientos"));
+	}
+
+	public synchronized void iniciar(long periodo, TimeUnit unidad) {
+
+		if (planificador == null) {
+			planificador = Executors.newSingleThreadScheduledExecutor(hilosDemonio("planificador-vencimientos"));
+			planificador.scheduleWithFixedDelay(() -> {
+				try {
+					barrer();
+				} catch (RuntimeException e) {
+					LOGGER.error("Fallo el barrido de vencimientos, se reintenta en el siguiente periodo", e);
+				}
+			}, 0, periodo, unidad);
+		}
+	}
+
+	public synchronized void detener() {
+
+		if (planificador != null) {
+			planificador.shutdownNow();
+			planificador = null;
+		}
+		trabajadores.shutdownNow();
+	}
+
+	/**
+	 * Permite ejecutar un barrido hasta el horizonte actual
+	 *
+	 * @return el numero de garantias notificadas
+	 */
+	public synchronized long barrer() {
+
+		long inicio = System.nanoTime();
+		Date hasta = Date.from(LocalDate.now().plusDays(diasAnticipacion + 1L).atStartOfDay(ZoneId.systemDefault())
+				.toInstant());
+
+		PuntoControl puntoControl = unidadDeTrabajo.ejecutar(() -> repositorioPuntoControl.obtener(PUNTO_CONTROL));
+		if (puntoControl == null) {
+			puntoControl = new PuntoControl(PUNTO_CONTROL,
+					Date.from(LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant()), null);
+		}
+
+		Date desde = puntoControl.getFechaInicio();
+		String cursor = puntoControl.getCursor();
+		long notificadasAntes = garantiasNotificadas.sum();
+		PaginaGarantias pagina;
+
+		do {
+			String cursorActual = cursor;
+			pagina = unidadDeTrabajo.ejecutar(
+					() -> repositorioConsultaGarantia.buscarPorFechaFin(desde, hasta, cursorActual, tamanoLote));
+
+			if (pagina.getGarantias().isEmpty()) {
+				break;
+			}
+
+			int primerFallo = notificarLote(pagina.getGarantias());
+			if (primerFallo < pagina.getGarantias().size()) {
+				if (primerFallo > 0) {
+					guardarPuntoControl(desde, unidadDeTrabajo.ejecutar(() -> repositorioConsultaGarantia
+							.buscarPorFechaFin(desde, hasta, cursorActual, primerFallo)).getSiguienteCursor());
+				}
+				LOGGER.warn("El barrido de vencimientos se detiene en la garantia "
+						+ pagina.getGarantias().get(primerFallo).getProducto().getCodigo()
+						+ ", el siguiente barrido la reintenta");
+				break;
+			}
+
+			cursor = pagina.getSiguienteCursor();
+			guardarPuntoControl(desde, cursor);
+
+			lotesProcesados.increment();
+			ultimaFechaFinProcesada = ultimaFechaFin(pagina.getGarantias());
+		} while (pagina.hayMas());
+
+		long notificadas = garantiasNotificadas.sum() - notificadasAntes;
+
+		long duracion = System.nanoTime() - inicio;
+		duracionUltimoBarridoMillis = TimeUnit.NANOSECONDS.toMillis(duracion);
+		garantiasPorSegundo = notificadas * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, duracion);
+		finUltimoBarrido = System.currentTimeMillis();
+
+		LOGGER.info("Barrido de vencimientos hasta " + hasta + ": " + notificadas + " garantias en "
+				+ duracionUltimoBarridoMillis + "ms");
+
+		return notificadas;
+	}
+
+	private void guardarPuntoControl(Date desde, String cursor) {
+
+		PuntoControl avance = new PuntoControl(PUNTO_CONTROL, desde, cursor);
+		unidadDeTrabajo.ejecutar(() -> repositorioPuntoControl.guardar(avance));
+	}
+
+	/**
+	 * @return la posicion de la primera garantia que no se pudo notificar, el
+	 *         tamano del lote si se notificaron todas
+	 */
+	private int notificarLote(List<GarantiaExtendida> garantias) {
+
+		List<Future<?>> tareas = new ArrayList<>(garantias.size());
+		for (GarantiaExtendida garantia : garantias) {
+			tareas.add(trabajadores.submit(() -> notificadorVencimiento.notificar(garantia)));
+		}
+
+		int primerFallo = garantias.size();
+		for (int i = 0; i < tareas.size(); i++) {
+			try {
+				tareas.get(i).get();
+				garantiasNotificadas.increment();
+			} catch (ExecutionException e) {
+				errores.increment();
+				primerFallo = Math.min(primerFallo, i);
+				LOGGER.warn("No se pudo notificar el vencimiento de una garantia", e.getCause());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Barrido de vencimientos interrumpido", e);
+			}
+		}
+
+		return primerFallo;
+	}
+
+	private static Date ultimaFechaFin(List<GarantiaExtendida> garantias) {
+		return garantias.get(garantias.size() - 1).getFechaFinGarantia();
+	}
+
+	private static ThreadFactory hilosDemonio(String nombre) {
+
+		AtomicInteger contador = new AtomicInteger();
+		return tarea -> {
+			Thread hilo = new Thread(tarea, nombre + "-" + contador.incrementAndGet());
+			hilo.setDaemon(true);
+			return hilo;
+		};
+	}
+
+	@Override
+	public long getGarantiasNotificadas() {
+		return garantiasNotificadas.sum();
+	}
+
+	@Override
+	public long getLotesProcesados() {
+		return lotesProcesados.sum();
+	}
+
+	@Override
+	public long getErrores() {
+		return errores.sum();
+	}
+
+	@Override
+	public double getGarantiasPorSegundo() {
+		return garantiasPorSegundo;
+	}
+
+	@Override
+	public long getDuracionUltimoBarridoMillis() {
+		return duracionUltimoBarridoMillis;
+	}
+
+	/**
+	 * Retraso del barredor: segundos desde que termino el ultimo barrido, -1
+	 * si aun no ha terminado ninguno
+	 */
+	@Override
+	public long getSegundosDesdeUltimoBarrido() {
+		return finUltimoBarrido == 0 ? -1
+				: TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - finUltimoBarrido);
+	}
+
+	@Override
+	public String getUltimaFechaFinProcesada() {
+		Date fecha = ultimaFechaFinProcesada;
+		return fecha == null ? null : fecha.toInstant().toString();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("Vencimientos notificadas=%d, lotes=%d, errores=%d, garantias/s=%.1f, desdeUltimoBarrido=%ds",
+				getGarantiasNotificadas(), getLotesProcesados(), getErrores(), getGarantiasPorSegundo(),
+				getSegundosDesdeUltimoBarrido());
+	}
+}
@@ -0,0 +1,19 @@
+package infraestructura.vencimientos;
+
+public interface BarredorVencimientosMXBean {
+
+	long getGarantiasNotificadas();
+
+	long getLotesProcesados();
+
+	long getErrores();
+
+	double getGarantiasPorSegundo();
+
+	long getDuracionUltimoBarridoMillis();
+
+	long getSegundosDesdeUltimoBarrido();
+
+	String getUltimaFechaFinProcesada();
+
+}
@@ -0,0 +1,55 @@
+package persistencia.builder;
+
+import java.util.Date;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import persistencia.entitad.GarantiaExtendidaEntity;
+import persistencia.entitad.ProductoEntity;
+
+public class GarantiaExtendidaBuilder {
+
+	private GarantiaExtendidaBuilder() {}
+
+	public static GarantiaExtendida convertirADominio(GarantiaExtendidaEntity garantiaEntity) {
+
+		GarantiaExtendida garantia = null;
+
+		if (garantiaEntity != null) {
+			garantia = new GarantiaExtendida(ProductoBuilder.convertirADominio(garantiaEntity.getProducto()),
+					garantiaEntity.getFechaSolicitudGarantia(), garantiaEntity.getFechaFinGarantia(),
+					garantiaEntity.getPrecio(), garantiaEntity.getNombreCliente());
+		}
+
+		return garantia;
+	}
+
+	/**
+	 * Convierte una fila de la proyeccion GarantiaExtendida.findProyeccionByCodigo
+	 */
+	public static GarantiaExtendida convertirADominio(Object[] fila) {
+
+		GarantiaExtendida garantia = null;
+
+		if (fila != null) {
+			Producto producto = new Producto((String) fila[0], (String) fila[1], (Double) fila[2]);
+			garantia = new GarantiaExtendida(producto, (Date) fila[3], (Date) fila[4], (Double) fila[5],
+					(String) fila[6]);
+		}
+
+		return garantia;
+	}
+
+	public static GarantiaExtendidaEntity convertirAEntity(GarantiaExtendida garantia, ProductoEntity productoEntity) {
+
+		GarantiaExtendidaEntity garantiaEntity = new GarantiaExtendidaEntity();
+
+		garantiaEntity.setProducto(productoEntity);
+		garantiaEntity.setFechaSolicitudGarantia(garantia.getFechaSolicitudGarantia());
+		garantiaEntity.setFechaFinGarantia(garantia.getFechaFinGarantia());
+		garantiaEntity.setPrecio(garantia.getPrecioGarantia());
+		garantiaEntity.setNombreCliente(garantia.getNombreCliente());
+
+		return garantiaEntity;
+	}
+}
@@ -1,19 +1,121 @@
 package persistencia.conexion;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.Persistence;
 
+import org.apache.log4j.Logger;
+import org.hibernate.Session;
+
 public class ConexionJPA {
-	
+
+	private static final Logger LOGGER = Logger.getLogger(ConexionJPA.class);
+
 	private static final String TIENDA = "tienda";
-	private static EntityManagerFactory entityManagerFactory;
+	private static final String PRECALENTAR = "tienda.conexion.precalentar";
+	private static final String PREFIJO_HIBERNATE = "hibernate.";
+
+	private static volatile EntityManagerFactory entityManagerFactory;
+	private static volatile TiemposArranque tiemposArranque;
+	private static boolean ganchoCierreRegistrado;
 
-	public ConexionJPA() {
-		entityManagerFactory = Persistence.createEntityManagerFactory(TIENDA);
-	}
-	
 	public EntityManager createEntityManager() {
-		return entityManagerFactory.createEntityManager();
+		return getEntityManagerFactory().createEntityManager();
+	}
+
+	/**
+	 * Permite obtener la factory compartida, arrancandola en el primer uso
+	 *
+	 * @return
+	 */
+	public EntityManagerFactory getEntityManagerFactory() {
+
+		EntityManagerFactory factory = entityManagerFactory;
+
+		if (factory == null) {
+			synchronized (ConexionJPA.class) {
+				if (entityManagerFactory == null) {
+					entityManagerFactory = arrancar();
+				}
+				factory = entityManagerFactory;
+			}
+		}
+
+		return factory;
+	}
+
+	public static TiemposArranque getTiemposArranque() {
+		return tiemposArranque;
+	}
+
+	/**
+	 * Permite cerrar la factory compartida, el siguiente uso la vuelve a
+	 * arrancar
+	 */
+	public static synchronized void cerrar() {
+
+		if (entityManagerFactory != null && entityManagerFactory.isOpen()) {
+			entityManagerFactory.close();
+		}
+		entityManagerFactory = null;
+	}
+
+	private static EntityManagerFactory arrancar() {
+
+		long inicio = System.nanoTime();
+		EntityManagerFactory factory = Persistence.createEntityManagerFactory(TIENDA, propiedadesSistema());
+
+		long construccionFactory = System.nanoTime();
+		long primeraConexion = construccionFactory;
+
+		if (Boolean.parseBoolean(String.valueOf(factory.getProperties().get(PRECALENTAR)))) {
+			EntityManager entityManager = factory.createEntityManager();
+			try {
+				entityManager.unwrap(Session.class).doWork(conexion -> conexion.getMetaData());
+				primeraConexion = System.nanoTime();
+			} finally {
+				entityManager.close();
+			}
+		}
+
+		tiemposArranque = new TiemposArranque(milisegundos(inicio, construccionFactory),
+				milisegundos(construccionFactory, primeraConexion));
+		LOGGER.info("Arranque de la unidad de persistencia " + TIENDA + ": " + tiemposArranque);
+
+		registrarGanchoCierre();
+
+		return factory;
+	}
+
+	/**
+	 * Las propiedades de sistema hibernate.* y tienda.* sobreescriben las de
+	 * persistence.xml
+	 */
+	private static Map<String, Object> propiedadesSistema() {
+
+		Map<String, Object> propiedades = new HashMap<>();
+		for (String nombre : System.getProperties().stringPropertyNames()) {
+			if (nombre.startsWith(PREFIJO_HIBERNATE) || nombre.startsWith(TIENDA + ".")) {
+				propiedades.put(nombre, System.getProperty(nombre));
+			}
+		}
+
+		return propiedades;
+	}
+
+	private static void registrarGanchoCierre() {
+
+		if (!ganchoCierreRegistrado) {
+			Runtime.getRuntime().addShutdownHook(new Thread(ConexionJPA::cerrar));
+			ganchoCierreRegistrado = true;
+		}
+	}
+
+	private static long milisegundos(long desde, long hasta) {
+		return TimeUnit.NANOSECONDS.toMillis(hasta - desde);
 	}
 }
@@ -0,0 +1,111 @@
+package persistencia.conexion;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Expone las estadisticas de Hibernate, requiere
+ * hibernate.generate_statistics=true
+ */
+public class EstadisticasHibernate implements EstadisticasHibernateMXBean {
+
+	private Statistics estadisticas;
+
+	private long umbralConsultaLentaMillis;
+
+	public EstadisticasHibernate(EntityManagerFactory entityManagerFactory, long umbralConsultaLentaMillis) {
+		this.estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		this.umbralConsultaLentaMillis = umbralConsultaLentaMillis;
+	}
+
+	@Override
+	public long getConsultas() {
+		return estadisticas.getQueryExecutionCount();
+	}
+
+	@Override
+	public long getCargasEntidades() {
+		return estadisticas.getEntityLoadCount();
+	}
+
+	@Override
+	public long getFlushes() {
+		return estadisticas.getFlushCount();
+	}
+
+	@Override
+	public long getTransacciones() {
+		return estadisticas.getTransactionCount();
+	}
+
+	@Override
+	public long getSentenciasPreparadas() {
+		return estadisticas.getPrepareStatementCount();
+	}
+
+	@Override
+	public long getConsultaMasLentaMillis() {
+		return estadisticas.getQueryExecutionMaxTime();
+	}
+
+	@Override
+	public String getConsultaMasLenta() {
+		return estadisticas.getQueryExecutionMaxTimeQueryString();
+	}
+
+	/**
+	 * Permite obtener las consultas cuyo tiempo maximo supera el umbral, con
+	 * ese tiempo en milisegundos
+	 *
+	 * @return
+	 */
+	@Override
+	public Map<String, Long> getConsultasLentas() {
+
+		Map<String, Long> consultasLentas = new TreeMap<>();
+
+		for (String consulta : estadisticas.getQueries()) {
+			QueryStatistics estadisticasConsulta = estadisticas.getQueryStatistics(consulta);
+			if (estadisticasConsulta.getExecutionMaxTime() >= umbralConsultaLentaMillis) {
+				consultasLentas.put(consulta, estadisticasConsulta.getExecutionMaxTime());
+			}
+		}
+
+		return consultasLentas;
+	}
+
+	@Override
+	public long getAciertosCacheSegundoNivel() {
+		return estadisticas.getSecondLevelCacheHitCount();
+	}
+
+	@Override
+	public long getFallosCacheSegundoNivel() {
+		return estadisticas.getSecondLevelCacheMissCount();
+	}
+
+	@Override
+	public long getAciertosCacheConsultas() {
+		return estadisticas.getQueryCacheHitCount();
+	}
+
+	@Override
+	public long getFallosCacheConsultas() {
+		return estadisticas.getQueryCacheMissCount();
+	}
+
+	@Override
+	public String toString() {
+		return "Hibernate consultas=" + getConsultas() + ", cargasEntidades=" + getCargasEntidades() + ", flushes="
+				+ getFlushes() + ", transacciones=" + getTransacciones() + ", sentenciasPreparadas="
+				+ getSentenciasPreparadas() + ", cacheSegundoNivel=" + getAciertosCacheSegundoNivel() + "/"
+				+ getFallosCacheSegundoNivel() + ", cacheConsultas=" + getAciertosCacheConsultas() + "/"
+				+ getFallosCacheConsultas() + ", consultasLentas=" + getConsultasLentas().keySet();
+	}
+}
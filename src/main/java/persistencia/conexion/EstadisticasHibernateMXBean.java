@@ -0,0 +1,31 @@
+package persistencia.conexion;
+
+import java.util.Map;
+
+public interface EstadisticasHibernateMXBean {
+
+	long getConsultas();
+
+	long getCargasEntidades();
+
+	long getFlushes();
+
+	long getTransacciones();
+
+	long getSentenciasPreparadas();
+
+	long getConsultaMasLentaMillis();
+
+	String getConsultaMasLenta();
+
+	Map<String, Long> getConsultasLentas();
+
+	long getAciertosCacheSegundoNivel();
+
+	long getFallosCacheSegundoNivel();
+
+	long getAciertosCacheConsultas();
+
+	long getFallosCacheConsultas();
+
+}
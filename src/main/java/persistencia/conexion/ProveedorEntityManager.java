@@ -0,0 +1,158 @@
+package persistencia.conexion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+
+public class ProveedorEntityManager {
+
+	private EntityManagerFactory entityManagerFactory;
+
+	private ThreadLocal<EntityManager> entityManagerActual = new ThreadLocal<>();
+
+	private ThreadLocal<List<Runnable>> accionesAlConfirmar = new ThreadLocal<>();
+
+	private ThreadLocal<List<Runnable>> accionesAlCancelar = new ThreadLocal<>();
+
+	public ProveedorEntityManager(EntityManagerFactory entityManagerFactory) {
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	/**
+	 * Permite obtener el entity manager del hilo actual, creandolo si aun no
+	 * existe
+	 *
+	 * @return
+	 */
+	public EntityManager obtener() {
+
+		EntityManager entityManager = entityManagerActual.get();
+
+		if (entityManager == null || !entityManager.isOpen()) {
+			entityManager = entityManagerFactory.createEntityManager();
+			entityManagerActual.set(entityManager);
+		}
+
+		return entityManager;
+	}
+
+	public void iniciar() {
+		obtener().getTransaction().begin();
+	}
+
+	public void terminar() {
+
+		List<Runnable> alConfirmar = accionesAlConfirmar.get();
+		try {
+			obtener().getTransaction().commit();
+			accionesAlConfirmar.remove();
+			accionesAlCancelar.remove();
+		} finally {
+			cerrar();
+		}
+
+		ejecutarAcciones(alConfirmar);
+	}
+
+	public void cancelar() {
+
+		try {
+			EntityTransaction transaccion = obtener().getTransaction();
+			if (transaccion.isActive()) {
+				transaccion.rollback();
+			}
+		} finally {
+			cerrar();
+		}
+	}
+
+	/**
+	 * Permite cerrar y liberar el entity manager del hilo actual; las acciones
+	 * registradas para una transaccion que no se confirmo se ejecutan como
+	 * canceladas
+	 */
+	public void cerrar() {
+
+		EntityManager entityManager = entityManagerActual.get();
+		List<Runnable> alCancelar = accionesAlCancelar.get();
+		entityManagerActual.remove();
+		accionesAlConfirmar.remove();
+		accionesAlCancelar.remove();
+
+		try {
+			if (entityManager != null && entityManager.isOpen()) {
+				entityManager.close();
+			}
+		} finally {
+			ejecutarAcciones(alCancelar);
+		}
+	}
+
+	/**
+	 * Permite registrar acciones para el final de la transaccion del hilo
+	 * actual: la primera se ejecuta despues del commit y la segunda despues
+	 * del rollback. Sin transaccion activa la primera se ejecuta de inmediato
+	 *
+	 * @param alConfirmar
+	 * @param alCancelar
+	 */
+	public void alTerminar(Runnable alConfirmar, Runnable alCancelar) {
+
+		EntityManager entityManager = entityManagerActual.get();
+
+		if (entityManager == null || !entityManager.isOpen() || !entityManager.getTransaction().isActive()) {
+			alConfirmar.run();
+			return;
+		}
+
+		acciones(accionesAlConfirmar).add(alConfirmar);
+		acciones(accionesAlCancelar).add(alCancelar);
+	}
+
+	public <T> T ejecutarEnTransaccion(Supplier<T> trabajo) {
+
+		if (obtener().getTransaction().isActive()) {
+			return trabajo.get();
+		}
+
+		iniciar();
+
+		T resultado;
+		try {
+			resultado = trabajo.get();
+		} catch (Throwable e) {
+			cancelar();
+			throw e;
+		}
+
+		terminar();
+		return resultado;
+	}
+
+	private List<Runnable> acciones(ThreadLocal<List<Runnable>> accionesActuales) {
+
+		List<Runnable> acciones = accionesActuales.get();
+		if (acciones == null) {
+			acciones = new ArrayList<>();
+			accionesActuales.set(acciones);
+		}
+		return acciones;
+	}
+
+	private void ejecutarAcciones(List<Runnable> acciones) {
+
+		if (acciones != null) {
+			for (Runnable accion : acciones) {
+				accion.run();
+			}
+		}
+	}
+
+	public EntityManagerFactory getEntityManagerFactory() {
+		return entityManagerFactory;
+	}
+}
@@ -0,0 +1,96 @@
+package persistencia.conexion;
+
+import java.util.Map;
+import java.util.Properties;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.ehcache.SingletonEhCacheRegionFactory;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.EntityRegion;
+import org.hibernate.cache.spi.NaturalIdRegion;
+import org.hibernate.cache.spi.QueryResultsRegion;
+import org.hibernate.cache.spi.TimestampsRegion;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.config.CacheConfiguration;
+import persistencia.sistema.ConfiguracionPersistencia;
+
+/**
+ * Region factory de Ehcache que crea cada region con el tamano, el tiempo de
+ * vida y la politica de desalojo de las propiedades
+ * tienda.cache.segundo_nivel[.region].* del persistence.xml
+ */
+public class RegionFactoryTienda extends SingletonEhCacheRegionFactory {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final String PREFIJO = "tienda.cache.segundo_nivel.";
+	private static final String MAX_ENTRADAS = "max_entradas";
+	private static final String TTL_SEGUNDOS = "ttl_segundos";
+	private static final String EVICCION = "eviccion";
+	private static final int MAX_ENTRADAS_POR_DEFECTO = 10000;
+	private static final long TTL_SEGUNDOS_POR_DEFECTO = 600;
+	private static final String EVICCION_POR_DEFECTO = "LRU";
+
+	@Override
+	public EntityRegion buildEntityRegion(String regionName, Properties properties, CacheDataDescription metadata)
+			throws CacheException {
+
+		registrar(regionName, properties);
+		return super.buildEntityRegion(regionName, properties, metadata);
+	}
+
+	@Override
+	public NaturalIdRegion buildNaturalIdRegion(String regionName, Properties properties,
+			CacheDataDescription metadata) throws CacheException {
+
+		registrar(regionName, properties);
+		return super.buildNaturalIdRegion(regionName, properties, metadata);
+	}
+
+	@Override
+	public QueryResultsRegion buildQueryResultsRegion(String regionName, Properties properties)
+			throws CacheException {
+
+		registrar(regionName, properties);
+		return super.buildQueryResultsRegion(regionName, properties);
+	}
+
+	/**
+	 * Si una marca de tiempo se desaloja antes que las consultas que dependen
+	 * de ella, esas consultas se consideran vigentes aunque la tabla haya
+	 * cambiado, por eso esta region nunca expira ni se limita
+	 */
+	@Override
+	public TimestampsRegion buildTimestampsRegion(String regionName, Properties properties) throws CacheException {
+
+		if (!manager.cacheExists(regionName)) {
+			manager.addCache(new Cache(new CacheConfiguration(regionName, 0).eternal(true)));
+		}
+		return super.buildTimestampsRegion(regionName, properties);
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void registrar(String region, Properties properties) {
+
+		if (manager.cacheExists(region)) {
+			return;
+		}
+
+		ConfiguracionPersistencia configuracion = new ConfiguracionPersistencia((Map) properties);
+		int maxEntradas = configuracion.obtenerEntero(propiedad(region, MAX_ENTRADAS, properties),
+				MAX_ENTRADAS_POR_DEFECTO);
+		long ttlSegundos = configuracion.obtenerLargo(propiedad(region, TTL_SEGUNDOS, properties),
+				TTL_SEGUNDOS_POR_DEFECTO);
+		String eviccion = properties.getProperty(propiedad(region, EVICCION, properties), EVICCION_POR_DEFECTO);
+
+		manager.addCache(new Cache(new CacheConfiguration().name(region).maxEntriesLocalHeap(maxEntradas)
+				.timeToLiveSeconds(ttlSegundos).memoryStoreEvictionPolicy(eviccion.trim())));
+	}
+
+	private static String propiedad(String region, String nombre, Properties properties) {
+
+		String propiedadRegion = PREFIJO + region + "." + nombre;
+		return properties.containsKey(propiedadRegion) ? propiedadRegion : PREFIJO + nombre;
+	}
+}
@@ -0,0 +1,31 @@
+package persistencia.conexion;
+
+public class TiemposArranque {
+
+	private long construccionFactoryMillis;
+	private long primeraConexionMillis;
+
+	public TiemposArranque(long construccionFactoryMillis, long primeraConexionMillis) {
+
+		this.construccionFactoryMillis = construccionFactoryMillis;
+		this.primeraConexionMillis = primeraConexionMillis;
+	}
+
+	public long getConstruccionFactoryMillis() {
+		return construccionFactoryMillis;
+	}
+
+	public long getPrimeraConexionMillis() {
+		return primeraConexionMillis;
+	}
+
+	public long getTotalMillis() {
+		return construccionFactoryMillis + primeraConexionMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "total=" + getTotalMillis() + "ms, factory=" + construccionFactoryMillis + "ms, primeraConexion="
+				+ primeraConexionMillis + "ms";
+	}
+}
@@ -3,22 +3,83 @@ package persistencia.entitad;
 import java.util.Date;
 
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedNativeQueries;
+import javax.persistence.NamedNativeQuery;
+import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
 @Entity(name = "GarantiaExtendida")
-@NamedQuery(name = "GarantiaExtendida.findByCodigo", query = "SELECT garantia from GarantiaExtendida garantia where garantia.producto.codigo = :codigo")
+@Table(uniqueConstraints = @UniqueConstraint(name = GarantiaExtendidaEntity.UK_GARANTIA_PRODUCTO, columnNames = "ID_PRODUCTO"), indexes = {
+		@Index(name = "IDX_GARANTIA_CLIENTE", columnList = "nombreCliente, id"),
+		@Index(name = "IDX_GARANTIA_FECHA_SOLICITUD", columnList = "fechaSolicitudGarantia, id"),
+		@Index(name = "IDX_GARANTIA_FECHA_FIN", columnList = "fechaFinGarantia, id"),
+		@Index(name = "IDX_GARANTIA_PRECIO", columnList = "precio, id") })
+@NamedQueries({
+		@NamedQuery(name = "GarantiaExtendida.existsByCodigo", query = "SELECT 1 FROM GarantiaExtendida garantia WHERE garantia.producto.codigo = :codigo"),
+		@NamedQuery(name = "GarantiaExtendida.findProductoByCodigo", query = "SELECT NEW dominio.Producto(producto.codigo, producto.nombre, producto.precio) "
+				+ "FROM GarantiaExtendida garantia JOIN garantia.producto producto WHERE producto.codigo = :codigo"),
+		@NamedQuery(name = "GarantiaExtendida.findProyeccionByCodigo", query = "SELECT producto.codigo, producto.nombre, producto.precio, garantia.fechaSolicitudGarantia, "
+				+ "garantia.fechaFinGarantia, garantia.precio, garantia.nombreCliente "
+				+ "FROM GarantiaExtendida garantia JOIN garantia.producto producto WHERE producto.codigo = :codigo"),
+		@NamedQuery(name = "GarantiaExtendida.findCodigosByCodigos", query = "SELECT garantia.producto.codigo from GarantiaExtendida garantia where garantia.producto.codigo IN :codigos"),
+		@NamedQuery(name = "GarantiaExtendida.findCodigos", query = "SELECT garantia.producto.codigo from GarantiaExtendida garantia"),
+		@NamedQuery(name = "GarantiaExtendida.findPaginaByCliente", query = "SELECT garantia FROM GarantiaExtendida garantia "
+				+ "WHERE garantia.nombreCliente = :nombreCliente AND garantia.id > :ultimoId ORDER BY garantia.id"),
+		@NamedQuery(name = "GarantiaExtendida.findPaginaByFechaSolicitud", query = "SELECT garantia FROM GarantiaExtendida garantia "
+				+ "WHERE garantia.fechaSolicitudGarantia >= :desde AND garantia.fechaSolicitudGarantia < :hasta "
+				+ "AND (garantia.fechaSolicitudGarantia > :ultimaFecha OR (garantia.fechaSolicitudGarantia = :ultimaFecha AND garantia.id > :ultimoId)) "
+				+ "ORDER BY garantia.fechaSolicitudGarantia, garantia.id"),
+		@NamedQuery(name = "GarantiaExtendida.findPaginaByFechaFin", query = "SELECT garantia FROM GarantiaExtendida garantia "
+				+ "WHERE garantia.fechaFinGarantia >= :desde AND garantia.fechaFinGarantia < :hasta "
+				+ "AND (garantia.fechaFinGarantia > :ultimaFecha OR (garantia.fechaFinGarantia = :ultimaFecha AND garantia.id > :ultimoId)) "
+				+ "ORDER BY garantia.fechaFinGarantia, garantia.id"),
+		@NamedQuery(name = "GarantiaExtendida.findPaginaByPrecioMayor", query = "SELECT garantia FROM GarantiaExtendida garantia "
+				+ "WHERE garantia.precio > :umbral AND (garantia.precio > :ultimoPrecio OR (garantia.precio = :ultimoPrecio AND garantia.id > :ultimoId)) "
+				+ "ORDER BY garantia.precio, garantia.id"),
+		@NamedQuery(name = "GarantiaExtendida.findPaginaByPrecioMenor", query = "SELECT garantia FROM GarantiaExtendida garantia "
+				+ "WHERE garantia.precio <= :umbral AND (garantia.precio > :ultimoPrecio OR (garantia.precio = :ultimoPrecio AND garantia.id > :ultimoId)) "
+				+ "ORDER BY garantia.precio, garantia.id") })
+@NamedEntityGraph(name = GarantiaExtendidaEntity.GRAFO_CON_PRODUCTO, attributeNodes = @NamedAttributeNode("producto"))
+@NamedNativeQueries({
+		@NamedNativeQuery(name = "GarantiaExtendida.insertIfNotExists", query = "INSERT INTO GarantiaExtendida (id, ID_PRODUCTO, fechaSolicitudGarantia, fechaFinGarantia, nombreCliente, precio) "
+				+ "SELECT NEXT VALUE FOR " + GarantiaExtendidaEntity.SECUENCIA
+				+ ", producto.id, :fechaSolicitudGarantia, :fechaFinGarantia, :nombreCliente, :precio FROM Producto producto "
+				+ "WHERE producto.codigo = :codigo AND NOT EXISTS (SELECT 1 FROM GarantiaExtendida garantia WHERE garantia.ID_PRODUCTO = producto.id)") })
 public class GarantiaExtendidaEntity {
 
+	public static final String UK_GARANTIA_PRODUCTO = "UK_GARANTIA_PRODUCTO";
+
+	/**
+	 * Con el optimizador pooled-lo cada valor de la secuencia es el inicio de
+	 * un bloque propio, asi los ids tomados directamente de la secuencia no se
+	 * cruzan con los bloques que reparte Hibernate
+	 */
+	public static final String SECUENCIA = "SEQ_GARANTIA_EXTENDIDA";
+
+	/**
+	 * Sin grafo la garantia se carga sin producto, las consultas que lo
+	 * necesitan piden este grafo como javax.persistence.fetchgraph
+	 */
+	public static final String GRAFO_CON_PRODUCTO = "GarantiaExtendida.conProducto";
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "garantiaExtendidaSecuencia")
+	@SequenceGenerator(name = "garantiaExtendidaSecuencia", sequenceName = GarantiaExtendidaEntity.SECUENCIA, allocationSize = 50)
 	private Long id;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY, optional = false)
 	@JoinColumn(name = "ID_PRODUCTO", referencedColumnName = "id")
 	private ProductoEntity producto;
 
@@ -1,20 +1,51 @@
 package persistencia.entitad;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.QueryHints;
 
 @Entity(name = "Producto")
-@NamedQuery(name = "Producto.findByCodigo", query = "SELECT producto FROM Producto producto WHERE producto.codigo = :codigo")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ProductoEntity.REGION_CACHE)
+@NaturalIdCache(region = ProductoEntity.REGION_CACHE_NATURAL_ID)
+@Table(uniqueConstraints = @UniqueConstraint(name = ProductoEntity.UK_PRODUCTO_CODIGO, columnNames = "codigo"))
+@NamedQueries({
+		@NamedQuery(name = "Producto.findByCodigos", query = "SELECT producto FROM Producto producto WHERE producto.codigo IN :codigos"),
+		@NamedQuery(name = "Producto.findDominioByCodigo", query = "SELECT NEW dominio.Producto(producto.codigo, producto.nombre, producto.precio) "
+				+ "FROM Producto producto WHERE producto.codigo = :codigo", hints = {
+						@QueryHint(name = QueryHints.CACHEABLE, value = "true"),
+						@QueryHint(name = QueryHints.CACHE_REGION, value = ProductoEntity.REGION_CACHE_CONSULTAS) }),
+		@NamedQuery(name = "Producto.findDominioByCodigos", query = "SELECT NEW dominio.Producto(producto.codigo, producto.nombre, producto.precio) "
+				+ "FROM Producto producto WHERE producto.codigo IN :codigos"),
+		@NamedQuery(name = "Producto.findCodigos", query = "SELECT producto.codigo FROM Producto producto ORDER BY producto.id") })
 public class ProductoEntity {
 
+	public static final String REGION_CACHE = "producto";
+	public static final String REGION_CACHE_CONSULTAS = "producto.consultas";
+	public static final String REGION_CACHE_NATURAL_ID = "producto.natural_id";
+	public static final String UK_PRODUCTO_CODIGO = "UK_PRODUCTO_CODIGO";
+
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productoSecuencia")
+	@SequenceGenerator(name = "productoSecuencia", sequenceName = "SEQ_PRODUCTO", allocationSize = 50)
 	private Long id;
 
+	@NaturalId
 	@Column(nullable = false)
 	private String codigo;
 	
@@ -0,0 +1,101 @@
+package persistencia.exportacion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.apache.log4j.Logger;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import persistencia.builder.GarantiaExtendidaBuilder;
+import persistencia.entitad.GarantiaExtendidaEntity;
+
+/**
+ * Exporta las garantias recorriendo un cursor de solo avance sobre una
+ * StatelessSession: no hay contexto de persistencia que crezca y cada fila se
+ * escribe al canal en bloques de tamano fijo.
+ */
+public class ExportadorGarantias {
+
+	private static final Logger LOGGER = Logger.getLogger(ExportadorGarantias.class);
+
+	private static final String CONSULTA_GARANTIAS = "SELECT garantia FROM GarantiaExtendida garantia "
+			+ "JOIN FETCH garantia.producto ORDER BY garantia.id";
+
+	private static final int TAMANO_BLOQUE_ESCRITURA = 64 * 1024;
+
+	private SessionFactory sessionFactory;
+
+	private int tamanoFetch;
+
+	public ExportadorGarantias(EntityManagerFactory entityManagerFactory, int tamanoFetch) {
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		this.tamanoFetch = tamanoFetch;
+	}
+
+	/**
+	 * Permite escribir todas las garantias en el canal con el formato dado
+	 *
+	 * @param canal
+	 * @param formato
+	 * @return el numero de garantias exportadas
+	 */
+	public long exportar(WritableByteChannel canal, FormatoExportacion formato) {
+
+		long inicio = System.currentTimeMillis();
+		long exportadas = 0;
+		StringBuilder bloque = new StringBuilder(TAMANO_BLOQUE_ESCRITURA + 1024);
+		formato.escribirEncabezado(bloque);
+
+		try (StatelessSession sesion = sessionFactory.openStatelessSession()) {
+			Transaction transaccion = sesion.beginTransaction();
+
+			try (ScrollableResults resultados = sesion.createQuery(CONSULTA_GARANTIAS).setFetchSize(tamanoFetch)
+					.setReadOnly(true).scroll(ScrollMode.FORWARD_ONLY)) {
+
+				while (resultados.next()) {
+					GarantiaExtendidaEntity garantiaEntity = (GarantiaExtendidaEntity) resultados.get(0);
+					formato.escribir(GarantiaExtendidaBuilder.convertirADominio(garantiaEntity), bloque);
+					exportadas++;
+
+					if (bloque.length() >= TAMANO_BLOQUE_ESCRITURA) {
+						escribir(canal, bloque);
+					}
+				}
+
+				escribir(canal, bloque);
+				transaccion.commit();
+			} catch (RuntimeException e) {
+				transaccion.rollback();
+				throw e;
+			}
+		}
+
+		LOGGER.info("Exportadas " + exportadas + " garantias en formato " + formato + " en "
+				+ (System.currentTimeMillis() - inicio) + "ms");
+
+		return exportadas;
+	}
+
+	private static void escribir(WritableByteChannel canal, StringBuilder bloque) {
+
+		ByteBuffer buffer = ByteBuffer.wrap(bloque.toString().getBytes(StandardCharsets.UTF_8));
+		bloque.setLength(0);
+
+		try {
+			while (buffer.hasRemaining()) {
+				canal.write(buffer);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudo escribir la exportacion de garantias", e);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package persistencia.exportacion;
+
+import java.time.ZoneId;
+import java.util.Date;
+
+import dominio.GarantiaExtendida;
+
+public enum FormatoExportacion {
+
+	CSV {
+		@Override
+		void escribirEncabezado(StringBuilder salida) {
+			salida.append("codigo,producto,precioProducto,cliente,fechaSolicitud,fechaFin,precioGarantia\n");
+		}
+
+		@Override
+		void escribir(GarantiaExtendida garantia, StringBuilder salida) {
+			campoCsv(salida, garantia.getProducto().getCodigo()).append(',');
+			campoCsv(salida, garantia.getProducto().getNombre()).append(',');
+			salida.append(garantia.getProducto().getPrecio()).append(',');
+			campoCsv(salida, garantia.getNombreCliente()).append(',');
+			campoCsv(salida, fecha(garantia.getFechaSolicitudGarantia())).append(',');
+			campoCsv(salida, fecha(garantia.getFechaFinGarantia())).append(',');
+			salida.append(garantia.getPrecioGarantia()).append('\n');
+		}
+	},
+
+	JSON {
+		@Override
+		void escribirEncabezado(StringBuilder salida) {
+			// JSON lines no lleva encabezado
+		}
+
+		@Override
+		void escribir(GarantiaExtendida garantia, StringBuilder salida) {
+			salida.append("{\"codigo\":");
+			cadenaJson(salida, garantia.getProducto().getCodigo());
+			salida.append(",\"producto\":");
+			cadenaJson(salida, garantia.getProducto().getNombre());
+			salida.append(",\"precioProducto\":").append(garantia.getProducto().getPrecio());
+			salida.append(",\"cliente\":");
+			cadenaJson(salida, garantia.getNombreCliente());
+			salida.append(",\"fechaSolicitud\":");
+			cadenaJson(salida, fecha(garantia.getFechaSolicitudGarantia()));
+			salida.append(",\"fechaFin\":");
+			cadenaJson(salida, fecha(garantia.getFechaFinGarantia()));
+			salida.append(",\"precioGarantia\":").append(garantia.getPrecioGarantia()).append("}\n");
+		}
+	};
+
+	abstract void escribirEncabezado(StringBuilder salida);
+
+	abstract void escribir(GarantiaExtendida garantia, StringBuilder salida);
+
+	private static String fecha(Date fecha) {
+		return fecha == null ? null : fecha.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toString();
+	}
+
+	private static StringBuilder campoCsv(StringBuilder salida, String valor) {
+
+		if (valor == null) {
+			return salida;
+		}
+
+		if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0
+				&& valor.indexOf('\r') < 0) {
+			return salida.append(valor);
+		}
+
+		return salida.append('"').append(valor.replace("\"", "\"\"")).append('"');
+	}
+
+	private static void cadenaJson(StringBuilder salida, String valor) {
+
+		if (valor == null) {
+			salida.append("null");
+			return;
+		}
+
+		salida.append('"');
+		for (int i = 0; i < valor.length(); i++) {
+			char caracter = valor.charAt(i);
+			if (caracter == '"' || caracter == '\\') {
+				salida.append('\\').append(caracter);
+			} else if (caracter < 0x20) {
+				salida.append(String.format("\\u%04x", (int) caracter));
+			} else {
+				salida.append(caracter);
+			}
+		}
+		salida.append('"');
+	}
+}
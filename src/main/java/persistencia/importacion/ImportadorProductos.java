@@ -0,0 +1,183 @@
+package persistencia.importacion;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Cache;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import dominio.Producto;
+import persistencia.entitad.ProductoEntity;
+
+/**
+ * Importa productos en lotes de JDBC sobre una StatelessSession, sin pasar por
+ * el contexto de persistencia. Cada lote es una transaccion propia: los
+ * productos cuyo codigo ya existe se actualizan y el resto se inserta.
+ */
+public class ImportadorProductos {
+
+	private static final Logger LOGGER = Logger.getLogger(ImportadorProductos.class);
+
+	private static final String SELECT_EXISTENTES = "SELECT id, codigo FROM Producto WHERE codigo IN (%s)";
+	private static final String UPDATE_PRODUCTO = "UPDATE Producto SET nombre = ?, precio = ? WHERE id = ?";
+	private static final String INSERT_PRODUCTO = "INSERT INTO Producto (id, codigo, nombre, precio) VALUES (?, ?, ?, ?)";
+
+	private SessionFactoryImplementor sessionFactory;
+
+	private IdentifierGenerator generadorId;
+
+	private int tamanoLote;
+
+	public ImportadorProductos(EntityManagerFactory entityManagerFactory, int tamanoLote) {
+
+		if (tamanoLote <= 0) {
+			throw new IllegalArgumentException("El tamano de lote debe ser positivo");
+		}
+
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		this.generadorId = sessionFactory.getIdentifierGenerator(ProductoEntity.class.getName());
+		this.tamanoLote = tamanoLote;
+	}
+
+	public ResumenImportacion importar(Stream<Producto> productos, ProgresoImportacion progreso) {
+
+		long inicio = System.nanoTime();
+		long leidos = 0;
+		long insertados = 0;
+		long actualizados = 0;
+		long repetidos = 0;
+
+		Map<String, Producto> lote = new LinkedHashMap<>();
+
+		try (StatelessSession sesion = sessionFactory.openStatelessSession()) {
+			Iterator<Producto> iterador = productos.iterator();
+
+			while (iterador.hasNext()) {
+				Producto producto = iterador.next();
+				leidos++;
+				if (lote.put(producto.getCodigo(), producto) != null) {
+					repetidos++;
+				}
+
+				if (lote.size() == tamanoLote || !iterador.hasNext()) {
+					int insertadosLote = procesarLote(sesion, lote);
+					insertados += insertadosLote;
+					actualizados += lote.size() - insertadosLote;
+					lote.clear();
+
+					progreso.notificar(new ResumenImportacion(leidos, insertados, actualizados, repetidos,
+							milisegundos(inicio)));
+				}
+			}
+		}
+
+		ResumenImportacion resumen = new ResumenImportacion(leidos, insertados, actualizados, repetidos,
+				milisegundos(inicio));
+		LOGGER.info("Importacion de productos terminada: " + resumen);
+
+		return resumen;
+	}
+
+	private int procesarLote(StatelessSession sesion, Map<String, Producto> lote) {
+
+		SharedSessionContractImplementor implementador = (SharedSessionContractImplementor) sesion;
+		Transaction transaccion = sesion.beginTransaction();
+
+		try {
+			Connection conexion = implementador.connection();
+			Map<String, Long> existentes = buscarExistentes(conexion, lote);
+
+			try (PreparedStatement insert = conexion.prepareStatement(INSERT_PRODUCTO);
+					PreparedStatement update = conexion.prepareStatement(UPDATE_PRODUCTO)) {
+
+				for (Producto producto : lote.values()) {
+					Long id = existentes.get(producto.getCodigo());
+
+					if (id == null) {
+						insert.setLong(1, ((Number) generadorId.generate(implementador, null)).longValue());
+						insert.setString(2, producto.getCodigo());
+						insert.setString(3, producto.getNombre());
+						insert.setDouble(4, producto.getPrecio());
+						insert.addBatch();
+					} else {
+						update.setString(1, producto.getNombre());
+						update.setDouble(2, producto.getPrecio());
+						update.setLong(3, id);
+						update.addBatch();
+					}
+				}
+
+				insert.executeBatch();
+				update.executeBatch();
+			}
+
+			transaccion.commit();
+			invalidarCache(existentes.values());
+
+			return lote.size() - existentes.size();
+		} catch (SQLException e) {
+			transaccion.rollback();
+			throw new PersistenceException("No se pudo importar el lote de productos", e);
+		} catch (RuntimeException e) {
+			transaccion.rollback();
+			throw e;
+		}
+	}
+
+	/**
+	 * Las sentencias JDBC no pasan por Hibernate, hay que sacar de la cache
+	 * de segundo nivel los productos actualizados y las consultas por codigo,
+	 * que pueden tener cacheado un resultado vacio para los insertados
+	 */
+	private void invalidarCache(Collection<Long> actualizados) {
+
+		Cache cache = sessionFactory.getCache();
+		for (Long id : actualizados) {
+			cache.evictEntity(ProductoEntity.class, id);
+		}
+		cache.evictQueryRegion(ProductoEntity.REGION_CACHE_CONSULTAS);
+	}
+
+	private Map<String, Long> buscarExistentes(Connection conexion, Map<String, Producto> lote) throws SQLException {
+
+		String parametros = String.join(", ", Collections.nCopies(lote.size(), "?"));
+		Map<String, Long> existentes = new HashMap<>();
+
+		try (PreparedStatement select = conexion.prepareStatement(String.format(SELECT_EXISTENTES, parametros))) {
+			int indice = 1;
+			for (String codigo : lote.keySet()) {
+				select.setString(indice++, codigo);
+			}
+
+			try (ResultSet resultado = select.executeQuery()) {
+				while (resultado.next()) {
+					existentes.put(resultado.getString(2), resultado.getLong(1));
+				}
+			}
+		}
+
+		return existentes;
+	}
+
+	private static long milisegundos(long inicio) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+	}
+}
@@ -0,0 +1,53 @@
+package persistencia.importacion;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import dominio.Producto;
+
+/**
+ * Lee productos con el formato codigo,nombre,precio. El nombre puede
+ * contener comas, el codigo es el primer campo y el precio el ultimo
+ */
+public final class LectorCsvProductos {
+
+	private static final char SEPARADOR = ',';
+	private static final String ENCABEZADO = "codigo" + SEPARADOR;
+
+	private LectorCsvProductos() {
+	}
+
+	/**
+	 * Permite leer el archivo de forma perezosa, el stream debe cerrarse
+	 *
+	 * @param archivo
+	 * @return
+	 * @throws IOException
+	 */
+	public static Stream<Producto> leer(Path archivo) throws IOException {
+		return Files.lines(archivo, StandardCharsets.UTF_8).filter(linea -> !linea.trim().isEmpty())
+				.filter(linea -> !linea.regionMatches(true, 0, ENCABEZADO, 0, ENCABEZADO.length()))
+				.map(LectorCsvProductos::convertir);
+	}
+
+	static Producto convertir(String linea) {
+
+		int primerSeparador = linea.indexOf(SEPARADOR);
+		int ultimoSeparador = linea.lastIndexOf(SEPARADOR);
+
+		if (primerSeparador <= 0 || primerSeparador == ultimoSeparador) {
+			throw new IllegalArgumentException("Linea de producto invalida: " + linea);
+		}
+
+		try {
+			return new Producto(linea.substring(0, primerSeparador).trim(),
+					linea.substring(primerSeparador + 1, ultimoSeparador).trim(),
+					Double.parseDouble(linea.substring(ultimoSeparador + 1).trim()));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Precio invalido en la linea: " + linea, e);
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package persistencia.importacion;
+
+@FunctionalInterface
+public interface ProgresoImportacion {
+
+	/**
+	 * Permite informar el avance acumulado despues de cada lote
+	 *
+	 * @param avance
+	 */
+	void notificar(ResumenImportacion avance);
+
+	static ProgresoImportacion ninguno() {
+		return avance -> {
+		};
+	}
+}
@@ -0,0 +1,50 @@
+package persistencia.importacion;
+
+/**
+ * Avance de una importacion: cada fila leida se cuenta como insertada,
+ * actualizada o repetida, cuando su codigo ya venia antes en el mismo lote y
+ * la ultima fila del codigo reemplazo a las anteriores
+ */
+public class ResumenImportacion {
+
+	private long leidos;
+	private long insertados;
+	private long actualizados;
+	private long repetidos;
+	private long milisegundos;
+
+	public ResumenImportacion(long leidos, long insertados, long actualizados, long repetidos, long milisegundos) {
+
+		this.leidos = leidos;
+		this.insertados = insertados;
+		this.actualizados = actualizados;
+		this.repetidos = repetidos;
+		this.milisegundos = milisegundos;
+	}
+
+	public long getLeidos() {
+		return leidos;
+	}
+
+	public long getInsertados() {
+		return insertados;
+	}
+
+	public long getActualizados() {
+		return actualizados;
+	}
+
+	public long getRepetidos() {
+		return repetidos;
+	}
+
+	public long getMilisegundos() {
+		return milisegundos;
+	}
+
+	@Override
+	public String toString() {
+		return "leidos=" + leidos + ", insertados=" + insertados + ", actualizados=" + actualizados + ", repetidos="
+				+ repetidos + ", tiempo=" + milisegundos + "ms";
+	}
+}
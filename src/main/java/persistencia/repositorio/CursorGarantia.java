@@ -0,0 +1,51 @@
+package persistencia.repositorio;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Posicion de una pagina de garantias: el valor de la columna de orden y el
+ * id de la ultima fila devuelta, codificados en un texto opaco para el cliente
+ */
+final class CursorGarantia {
+
+	private static final int BYTES = 2 * Long.BYTES;
+
+	private long valor;
+	private long id;
+
+	CursorGarantia(long valor, long id) {
+		this.valor = valor;
+		this.id = id;
+	}
+
+	long getValor() {
+		return valor;
+	}
+
+	long getId() {
+		return id;
+	}
+
+	String codificar() {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(ByteBuffer.allocate(BYTES).putLong(valor).putLong(id).array());
+	}
+
+	static CursorGarantia decodificar(String cursor) {
+
+		byte[] bytes;
+		try {
+			bytes = Base64.getUrlDecoder().decode(cursor);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Cursor invalido: " + cursor, e);
+		}
+
+		if (bytes.length != BYTES) {
+			throw new IllegalArgumentException("Cursor invalido: " + cursor);
+		}
+
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		return new CursorGarantia(buffer.getLong(), buffer.getLong());
+	}
+}
@@ -0,0 +1,30 @@
+package persistencia.repositorio;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class Lotes {
+
+	private Lotes() {}
+
+	public static <T> List<List<T>> dividir(Collection<T> elementos, int tamanoLote) {
+
+		List<List<T>> lotes = new ArrayList<>();
+		List<T> lote = new ArrayList<>(Math.min(tamanoLote, elementos.size()));
+
+		for (T elemento : elementos) {
+			lote.add(elemento);
+			if (lote.size() == tamanoLote) {
+				lotes.add(lote);
+				lote = new ArrayList<>(tamanoLote);
+			}
+		}
+
+		if (!lote.isEmpty()) {
+			lotes.add(lote);
+		}
+
+		return lotes;
+	}
+}
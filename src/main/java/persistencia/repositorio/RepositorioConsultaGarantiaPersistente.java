@@ -0,0 +1,159 @@
+package persistencia.repositorio;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.annotations.QueryHints;
+
+import dominio.GarantiaExtendida;
+import dominio.PaginaGarantias;
+import dominio.TramoPrecio;
+import dominio.repositorio.RepositorioConsultaGarantia;
+import persistencia.builder.GarantiaExtendidaBuilder;
+import persistencia.conexion.ProveedorEntityManager;
+import persistencia.entitad.GarantiaExtendidaEntity;
+
+/**
+ * Pagina por keyset sobre los indices (columna, id): cada pagina continua
+ * despues de la ultima fila de la anterior en lugar de saltar filas con
+ * OFFSET, asi el costo no crece con la profundidad de la pagina
+ */
+public class RepositorioConsultaGarantiaPersistente implements RepositorioConsultaGarantia {
+
+	private static final String FETCH_GRAPH = "javax.persistence.fetchgraph";
+	private static final String NOMBRE_CLIENTE = "nombreCliente";
+	private static final String DESDE = "desde";
+	private static final String HASTA = "hasta";
+	private static final String UMBRAL = "umbral";
+	private static final String ULTIMA_FECHA = "ultimaFecha";
+	private static final String ULTIMO_PRECIO = "ultimoPrecio";
+	private static final String ULTIMO_ID = "ultimoId";
+	private static final String GARANTIA_EXTENDIDA_FIND_PAGINA_BY_CLIENTE = "GarantiaExtendida.findPaginaByCliente";
+	private static final String GARANTIA_EXTENDIDA_FIND_PAGINA_BY_FECHA_SOLICITUD = "GarantiaExtendida.findPaginaByFechaSolicitud";
+	private static final String GARANTIA_EXTENDIDA_FIND_PAGINA_BY_FECHA_FIN = "GarantiaExtendida.findPaginaByFechaFin";
+	private static final String GARANTIA_EXTENDIDA_FIND_PAGINA_BY_PRECIO_MAYOR = "GarantiaExtendida.findPaginaByPrecioMayor";
+	private static final String GARANTIA_EXTENDIDA_FIND_PAGINA_BY_PRECIO_MENOR = "GarantiaExtendida.findPaginaByPrecioMenor";
+	private static final int TAMANO_MAXIMO_PAGINA = 1000;
+	private static final long SIN_ID = -1;
+
+	private ProveedorEntityManager proveedorEntityManager;
+
+	public RepositorioConsultaGarantiaPersistente(ProveedorEntityManager proveedorEntityManager) {
+		this.proveedorEntityManager = proveedorEntityManager;
+	}
+
+	@Override
+	public PaginaGarantias buscarPorCliente(String nombreCliente, String cursor, int tamano) {
+
+		long ultimoId = cursor == null ? SIN_ID : CursorGarantia.decodificar(cursor).getId();
+
+		TypedQuery<GarantiaExtendidaEntity> query = crearConsulta(GARANTIA_EXTENDIDA_FIND_PAGINA_BY_CLIENTE);
+		query.setParameter(NOMBRE_CLIENTE, nombreCliente);
+		query.setParameter(ULTIMO_ID, ultimoId);
+
+		return paginar(query, tamano, garantia -> 0);
+	}
+
+	@Override
+	public PaginaGarantias buscarPorFechaSolicitud(Date desde, Date hasta, String cursor, int tamano) {
+		return buscarPorRangoFechas(GARANTIA_EXTENDIDA_FIND_PAGINA_BY_FECHA_SOLICITUD, desde, hasta, cursor, tamano,
+				garantia -> garantia.getFechaSolicitudGarantia().getTime());
+	}
+
+	@Override
+	public PaginaGarantias buscarPorFechaFin(Date desde, Date hasta, String cursor, int tamano) {
+		return buscarPorRangoFechas(GARANTIA_EXTENDIDA_FIND_PAGINA_BY_FECHA_FIN, desde, hasta, cursor, tamano,
+				garantia -> garantia.getFechaFinGarantia().getTime());
+	}
+
+	@Override
+	public PaginaGarantias buscarPorTramoPrecio(TramoPrecio tramo, String cursor, int tamano) {
+
+		double ultimoPrecio;
+		long ultimoId;
+
+		if (cursor != null) {
+			CursorGarantia posicion = CursorGarantia.decodificar(cursor);
+			ultimoPrecio = Double.longBitsToDouble(posicion.getValor());
+			ultimoId = posicion.getId();
+		} else if (tramo == TramoPrecio.MAYOR) {
+			ultimoPrecio = TramoPrecio.UMBRAL_PRECIO_GARANTIA;
+			ultimoId = Long.MAX_VALUE;
+		} else {
+			ultimoPrecio = -Double.MAX_VALUE;
+			ultimoId = SIN_ID;
+		}
+
+		TypedQuery<GarantiaExtendidaEntity> query = crearConsulta(
+				tramo == TramoPrecio.MAYOR ? GARANTIA_EXTENDIDA_FIND_PAGINA_BY_PRECIO_MAYOR
+						: GARANTIA_EXTENDIDA_FIND_PAGINA_BY_PRECIO_MENOR);
+		query.setParameter(UMBRAL, TramoPrecio.UMBRAL_PRECIO_GARANTIA);
+		query.setParameter(ULTIMO_PRECIO, ultimoPrecio);
+		query.setParameter(ULTIMO_ID, ultimoId);
+
+		return paginar(query, tamano, garantia -> Double.doubleToLongBits(garantia.getPrecio()));
+	}
+
+	private PaginaGarantias buscarPorRangoFechas(String consulta, Date desde, Date hasta, String cursor, int tamano,
+			ToLongFunction<GarantiaExtendidaEntity> fecha) {
+
+		Date ultimaFecha = desde;
+		long ultimoId = SIN_ID;
+
+		if (cursor != null) {
+			CursorGarantia posicion = CursorGarantia.decodificar(cursor);
+			ultimaFecha = new Date(posicion.getValor());
+			ultimoId = posicion.getId();
+		}
+
+		TypedQuery<GarantiaExtendidaEntity> query = crearConsulta(consulta);
+		query.setParameter(DESDE, desde, TemporalType.TIMESTAMP);
+		query.setParameter(HASTA, hasta, TemporalType.TIMESTAMP);
+		query.setParameter(ULTIMA_FECHA, ultimaFecha, TemporalType.TIMESTAMP);
+		query.setParameter(ULTIMO_ID, ultimoId);
+
+		return paginar(query, tamano, fecha);
+	}
+
+	private TypedQuery<GarantiaExtendidaEntity> crearConsulta(String consulta) {
+
+		EntityManager entityManager = proveedorEntityManager.obtener();
+		TypedQuery<GarantiaExtendidaEntity> query = entityManager.createNamedQuery(consulta,
+				GarantiaExtendidaEntity.class);
+		query.setHint(QueryHints.READ_ONLY, true);
+		query.setHint(FETCH_GRAPH, entityManager.getEntityGraph(GarantiaExtendidaEntity.GRAFO_CON_PRODUCTO));
+
+		return query;
+	}
+
+	private PaginaGarantias paginar(TypedQuery<GarantiaExtendidaEntity> query, int tamano,
+			ToLongFunction<GarantiaExtendidaEntity> valorCursor) {
+
+		if (tamano <= 0 || tamano > TAMANO_MAXIMO_PAGINA) {
+			throw new IllegalArgumentException("El tamano de pagina debe estar entre 1 y " + TAMANO_MAXIMO_PAGINA);
+		}
+
+		query.setMaxResults(tamano + 1);
+		List<GarantiaExtendidaEntity> resultado = query.getResultList();
+
+		int total = Math.min(tamano, resultado.size());
+		List<GarantiaExtendida> garantias = new ArrayList<>(total);
+		for (int i = 0; i < total; i++) {
+			garantias.add(GarantiaExtendidaBuilder.convertirADominio(resultado.get(i)));
+		}
+
+		String siguienteCursor = null;
+		if (total > 0) {
+			GarantiaExtendidaEntity ultima = resultado.get(total - 1);
+			siguienteCursor = new CursorGarantia(valorCursor.applyAsLong(ultima), ultima.getId()).codificar();
+		}
+
+		return new PaginaGarantias(garantias, siguienteCursor, resultado.size() > tamano);
+	}
+}
@@ -1,80 +1,198 @@
 package persistencia.repositorio;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
 import javax.persistence.Query;
+import javax.persistence.TemporalType;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.query.NativeQuery;
 
 import dominio.GarantiaExtendida;
 import dominio.Producto;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
 import dominio.repositorio.RepositorioGarantiaExtendida;
 import dominio.repositorio.RepositorioProducto;
-import persistencia.builder.ProductoBuilder;
+import persistencia.builder.GarantiaExtendidaBuilder;
+import persistencia.conexion.ProveedorEntityManager;
 import persistencia.entitad.GarantiaExtendidaEntity;
 import persistencia.entitad.ProductoEntity;
+import persistencia.repositorio.jpa.RepositorioGarantiaJPA;
 import persistencia.repositorio.jpa.RepositorioProductoJPA;
 
-public class RepositorioGarantiaPersistente implements RepositorioGarantiaExtendida {
+public class RepositorioGarantiaPersistente implements RepositorioGarantiaExtendida, RepositorioGarantiaJPA {
 
 	private static final String CODIGO = "codigo";
-	private static final String GARANTIA_EXTENDIDA_FIND_BY_CODIGO = "GarantiaExtendida.findByCodigo";
-
-	private EntityManager entityManager;
+	private static final String CODIGOS = "codigos";
+	private static final String FECHA_SOLICITUD_GARANTIA = "fechaSolicitudGarantia";
+	private static final String FECHA_FIN_GARANTIA = "fechaFinGarantia";
+	private static final String NOMBRE_CLIENTE = "nombreCliente";
+	private static final String PRECIO = "precio";
+	private static final String GARANTIA_EXTENDIDA_EXISTS_BY_CODIGO = "GarantiaExtendida.existsByCodigo";
+	private static final String GARANTIA_EXTENDIDA_FIND_PRODUCTO_BY_CODIGO = "GarantiaExtendida.findProductoByCodigo";
+	private static final String GARANTIA_EXTENDIDA_FIND_PROYECCION_BY_CODIGO = "GarantiaExtendida.findProyeccionByCodigo";
+	private static final String GARANTIA_EXTENDIDA_FIND_CODIGOS_BY_CODIGOS = "GarantiaExtendida.findCodigosByCodigos";
+	private static final String GARANTIA_EXTENDIDA_FIND_CODIGOS = "GarantiaExtendida.findCodigos";
+	private static final String GARANTIA_EXTENDIDA_INSERT_IF_NOT_EXISTS = "GarantiaExtendida.insertIfNotExists";
+	private static final int TAMANO_LOTE_CONSULTA = 1000;
+	private static final int TAMANO_LOTE_ESCRITURA = 50;
+
+	private ProveedorEntityManager proveedorEntityManager;
 
 	private RepositorioProductoJPA repositorioProductoJPA;
 
-	public RepositorioGarantiaPersistente(EntityManager entityManager, RepositorioProducto repositorioProducto) {
-		this.entityManager = entityManager;
+	public RepositorioGarantiaPersistente(ProveedorEntityManager proveedorEntityManager,
+			RepositorioProducto repositorioProducto) {
+		this.proveedorEntityManager = proveedorEntityManager;
 		this.repositorioProductoJPA = (RepositorioProductoJPA) repositorioProducto;
 	}
 
+	/**
+	 * La garantia se inserta con una sola sentencia que toma el id de la
+	 * secuencia y el producto por codigo. Solo se sincroniza con las
+	 * garantias, para no vaciar las caches de productos; si no inserta nada y
+	 * hay cambios sin enviar, como un producto agregado en la misma
+	 * transaccion, se envian y se intenta una vez mas
+	 */
 	@Override
 	public void agregar(GarantiaExtendida garantia) {
 
-		GarantiaExtendidaEntity garantiaEntity = buildGarantiaExtendidaEntity(garantia);
-		entityManager.persist(garantiaEntity);
+		EntityManager entityManager = proveedorEntityManager.obtener();
+
+		int insertadas = insertarSiNoExiste(entityManager, garantia);
+		if (insertadas == 0 && entityManager.unwrap(Session.class).isDirty()) {
+			entityManager.flush();
+			insertadas = insertarSiNoExiste(entityManager, garantia);
+		}
+
+		if (insertadas == 0) {
+			throw new GarantiaExtendidaException(existeGarantia(garantia.getProducto().getCodigo())
+					? Vendedor.EL_PRODUCTO_TIENE_GARANTIA : Vendedor.PRODUCTO_NO_EXISTE);
+		}
+	}
+
+	@Override
+	public void agregarTodas(List<GarantiaExtendida> garantias) {
+
+		Set<String> codigos = new HashSet<>();
+		for (GarantiaExtendida garantia : garantias) {
+			codigos.add(garantia.getProducto().getCodigo());
+		}
+
+		Map<String, ProductoEntity> productosEntity = new HashMap<>();
+		for (ProductoEntity productoEntity : repositorioProductoJPA.obtenerProductoEntitiesPorCodigos(codigos)) {
+			productosEntity.put(productoEntity.getCodigo(), productoEntity);
+		}
+
+		EntityManager entityManager = proveedorEntityManager.obtener();
+
+		for (List<GarantiaExtendida> lote : Lotes.dividir(garantias, TAMANO_LOTE_ESCRITURA)) {
+			List<GarantiaExtendidaEntity> garantiasEntity = new ArrayList<>(lote.size());
+			for (GarantiaExtendida garantia : lote) {
+				GarantiaExtendidaEntity garantiaEntity = GarantiaExtendidaBuilder.convertirAEntity(garantia,
+						productosEntity.get(garantia.getProducto().getCodigo()));
+				entityManager.persist(garantiaEntity);
+				garantiasEntity.add(garantiaEntity);
+			}
+			try {
+				entityManager.flush();
+			} catch (PersistenceException e) {
+				throw traducirViolacionGarantiaUnica(e);
+			}
+			for (GarantiaExtendidaEntity garantiaEntity : garantiasEntity) {
+				entityManager.detach(garantiaEntity);
+			}
+		}
+	}
+
+	@Override
+	public Set<String> obtenerCodigosConGarantia(Collection<String> codigos) {
+
+		Set<String> codigosConGarantia = new HashSet<>();
+
+		for (List<String> lote : Lotes.dividir(codigos, TAMANO_LOTE_CONSULTA)) {
+			TypedQuery<String> query = proveedorEntityManager.obtener()
+					.createNamedQuery(GARANTIA_EXTENDIDA_FIND_CODIGOS_BY_CODIGOS, String.class);
+			query.setParameter(CODIGOS, lote);
+			codigosConGarantia.addAll(query.getResultList());
+		}
+
+		return codigosConGarantia;
 	}
 
 	@Override
 	public Producto obtenerProductoConGarantiaPorCodigo(String codigo) {
 
-		GarantiaExtendidaEntity garantiaEntity = obtenerGarantiaEntityPorCodigo(codigo);
-		return ProductoBuilder.convertirADominio(garantiaEntity != null ? garantiaEntity.getProducto() : null);
+		List<Producto> productos = proveedorEntityManager.obtener()
+				.createNamedQuery(GARANTIA_EXTENDIDA_FIND_PRODUCTO_BY_CODIGO, Producto.class).setParameter(CODIGO, codigo)
+				.setMaxResults(1).getResultList();
+
+		return !productos.isEmpty() ? productos.get(0) : null;
 	}
 
-	@SuppressWarnings("rawtypes")
-	private GarantiaExtendidaEntity obtenerGarantiaEntityPorCodigo(String codigo) {
+	@Override
+	public boolean existeGarantia(String codigo) {
 
-		Query query = entityManager.createNamedQuery(GARANTIA_EXTENDIDA_FIND_BY_CODIGO);
-		query.setParameter(CODIGO, codigo);
+		return !proveedorEntityManager.obtener().createNamedQuery(GARANTIA_EXTENDIDA_EXISTS_BY_CODIGO)
+				.setParameter(CODIGO, codigo).setMaxResults(1).getResultList().isEmpty();
+	}
 
-		List resultList = query.getResultList();
+	@Override
+	public List<String> obtenerTodosLosCodigosConGarantia() {
+		return proveedorEntityManager.obtener().createNamedQuery(GARANTIA_EXTENDIDA_FIND_CODIGOS, String.class)
+				.getResultList();
+	}
 
-		return !resultList.isEmpty() ? (GarantiaExtendidaEntity) resultList.get(0) : null;
+	private int insertarSiNoExiste(EntityManager entityManager, GarantiaExtendida garantia) {
+
+		Query query = entityManager.createNamedQuery(GARANTIA_EXTENDIDA_INSERT_IF_NOT_EXISTS);
+		query.unwrap(NativeQuery.class).addSynchronizedEntityClass(GarantiaExtendidaEntity.class);
+		query.setParameter(CODIGO, garantia.getProducto().getCodigo());
+		query.setParameter(FECHA_SOLICITUD_GARANTIA, garantia.getFechaSolicitudGarantia(), TemporalType.TIMESTAMP);
+		query.setParameter(FECHA_FIN_GARANTIA, garantia.getFechaFinGarantia(), TemporalType.TIMESTAMP);
+		query.setParameter(NOMBRE_CLIENTE, garantia.getNombreCliente());
+		query.setParameter(PRECIO, garantia.getPrecioGarantia());
+
+		try {
+			return query.executeUpdate();
+		} catch (PersistenceException e) {
+			throw traducirViolacionGarantiaUnica(e);
+		}
 	}
 
-	private GarantiaExtendidaEntity buildGarantiaExtendidaEntity(GarantiaExtendida garantia) {
+	private RuntimeException traducirViolacionGarantiaUnica(PersistenceException e) {
 
-		ProductoEntity productoEntity = repositorioProductoJPA
-				.obtenerProductoEntityPorCodigo(garantia.getProducto().getCodigo());
+		for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+			if (causa instanceof ConstraintViolationException) {
+				String restriccion = ((ConstraintViolationException) causa).getConstraintName();
+				if (restriccion != null
+						&& restriccion.toUpperCase().contains(GarantiaExtendidaEntity.UK_GARANTIA_PRODUCTO)) {
+					return new GarantiaExtendidaException(Vendedor.EL_PRODUCTO_TIENE_GARANTIA);
+				}
+			}
+		}
 
-		GarantiaExtendidaEntity garantiaEntity = new GarantiaExtendidaEntity();
-		garantiaEntity.setProducto(productoEntity);
-		garantiaEntity.setFechaSolicitudGarantia(garantia.getFechaSolicitudGarantia());
-		garantiaEntity.setFechaFinGarantia(garantia.getFechaFinGarantia());
-		garantiaEntity.setPrecio(garantia.getPrecioGarantia());
-		garantiaEntity.setNombreCliente(garantia.getNombreCliente());
-		return garantiaEntity;
+		return e;
 	}
 
 	@Override
 	public GarantiaExtendida obtener(String codigo) {
 
-		GarantiaExtendidaEntity garantiaEntity = obtenerGarantiaEntityPorCodigo(codigo);
-
-		return new GarantiaExtendida(ProductoBuilder.convertirADominio(garantiaEntity.getProducto()),
-				garantiaEntity.getFechaSolicitudGarantia(), garantiaEntity.getFechaFinGarantia(),
-				garantiaEntity.getPrecio(), garantiaEntity.getNombreCliente());
+		List<Object[]> filas = proveedorEntityManager.obtener()
+				.createNamedQuery(GARANTIA_EXTENDIDA_FIND_PROYECCION_BY_CODIGO, Object[].class)
+				.setParameter(CODIGO, codigo).setMaxResults(1).getResultList();
 
+		return GarantiaExtendidaBuilder.convertirADominio(!filas.isEmpty() ? filas.get(0) : null);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package persistencia.repositorio;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityTransaction;
+
+import dominio.ResultadoGarantia;
+import dominio.repositorio.RepositorioIdempotencia;
+import persistencia.conexion.ProveedorEntityManager;
+import persistencia.entitad.IdempotenciaEntity;
+
+/**
+ * Resultados por clave de idempotencia en la tabla Idempotencia. Un exito se
+ * escribe en la transaccion de la solicitud, asi que si la garantia se
+ * revierte el resultado tambien. Un rechazo se escribe en una transaccion
+ * propia, porque la solicitud rechazada se revierte al propagar la excepcion.
+ * Las filas mas antiguas que el tiempo de vida se tratan como inexistentes y
+ * se reemplazan al volver a usar la clave
+ */
+public class RepositorioIdempotenciaPersistente implements RepositorioIdempotencia {
+
+	private ProveedorEntityManager proveedorEntityManager;
+
+	private long ttlMilisegundos;
+
+	public RepositorioIdempotenciaPersistente(ProveedorEntityManager proveedorEntityManager, long ttl,
+			TimeUnit unidad) {
+		this.proveedorEntityManager = proveedorEntityManager;
+		this.ttlMilisegundos = unidad.toMillis(ttl);
+	}
+
+	@Override
+	public ResultadoGarantia obtener(String clave) {
+
+		IdempotenciaEntity idempotenciaEntity = proveedorEntityManager.obtener().find(IdempotenciaEntity.class,
+				clave);
+
+		return vigente(idempotenciaEntity) ? convertirADominio(idempotenciaEntity) : null;
+	}
+
+	@Override
+	public ResultadoGarantia registrar(String clave, Supplier<ResultadoGarantia> generador) {
+
+		IdempotenciaEntity idempotenciaEntity = proveedorEntityManager.obtener().find(IdempotenciaEntity.class,
+				clave);
+
+		if (vigente(idempotenciaEntity)) {
+			return convertirADominio(idempotenciaEntity);
+		}
+
+		ResultadoGarantia resultado = generador.get();
+
+		if (resultado.isExitosa()) {
+			guardar(proveedorEntityManager.obtener(), idempotenciaEntity, clave, resultado);
+		} else {
+			guardarEnTransaccionPropia(clave, resultado);
+		}
+
+		return resultado;
+	}
+
+	private void guardarEnTransaccionPropia(String clave, ResultadoGarantia resultado) {
+
+		EntityManager entityManager = proveedorEntityManager.getEntityManagerFactory().createEntityManager();
+		EntityTransaction transaccion = entityManager.getTransaction();
+		try {
+			transaccion.begin();
+			guardar(entityManager, entityManager.find(IdempotenciaEntity.class, clave), clave, resultado);
+			transaccion.commit();
+		} finally {
+			if (transaccion.isActive()) {
+				transaccion.rollback();
+			}
+			entityManager.close();
+		}
+	}
+
+	private void guardar(EntityManager entityManager, IdempotenciaEntity idempotenciaEntity, String clave,
+			ResultadoGarantia resultado) {
+
+		if (idempotenciaEntity == null) {
+			idempotenciaEntity = new IdempotenciaEntity();
+			idempotenciaEntity.setClave(clave);
+			entityManager.persist(idempotenciaEntity);
+		}
+
+		idempotenciaEntity.setCodigo(resultado.getCodigo());
+		idempotenciaEntity.setMensaje(resultado.getMensaje());
+		idempotenciaEntity.setFechaRegistro(new Date());
+	}
+
+	private boolean vigente(IdempotenciaEntity idempotenciaEntity) {
+
+		return idempotenciaEntity != null && (ttlMilisegundos <= 0
+				|| System.currentTimeMillis() - idempotenciaEntity.getFechaRegistro().getTime() <= ttlMilisegundos);
+	}
+
+	private ResultadoGarantia convertirADominio(IdempotenciaEntity idempotenciaEntity) {
+		return new ResultadoGarantia(idempotenciaEntity.getCodigo(), idempotenciaEntity.getMensaje());
+	}
+}
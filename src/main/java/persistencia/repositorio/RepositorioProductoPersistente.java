@@ -1,46 +1,131 @@
 package persistencia.repositorio;
 
-import javax.persistence.EntityManager;
-import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.NoResultException;
+import javax.persistence.TypedQuery;
+
+import org.hibernate.Session;
 
 import dominio.Producto;
 import dominio.repositorio.RepositorioProducto;
 import persistencia.builder.ProductoBuilder;
+import persistencia.conexion.ProveedorEntityManager;
 import persistencia.entitad.ProductoEntity;
+import persistencia.importacion.ImportadorProductos;
+import persistencia.importacion.ProgresoImportacion;
+import persistencia.importacion.ResumenImportacion;
 import persistencia.repositorio.jpa.RepositorioProductoJPA;
 
 public class RepositorioProductoPersistente implements RepositorioProducto, RepositorioProductoJPA {
 
 	private static final String CODIGO = "codigo";
-	private static final String PRODUCTO_FIND_BY_CODIGO = "Producto.findByCodigo";
+	private static final String CODIGOS = "codigos";
+	private static final String PRODUCTO_FIND_BY_CODIGOS = "Producto.findByCodigos";
+	private static final String PRODUCTO_FIND_CODIGOS = "Producto.findCodigos";
+	private static final String PRODUCTO_FIND_DOMINIO_BY_CODIGO = "Producto.findDominioByCodigo";
+	private static final String PRODUCTO_FIND_DOMINIO_BY_CODIGOS = "Producto.findDominioByCodigos";
+	private static final int TAMANO_LOTE_CONSULTA = 1000;
+	private static final int TAMANO_LOTE_IMPORTACION = 1000;
 	
-	private EntityManager entityManager;
+	private ProveedorEntityManager proveedorEntityManager;
+
+	private ImportadorProductos importadorProductos;
+
+	public RepositorioProductoPersistente(ProveedorEntityManager proveedorEntityManager) {
+		this(proveedorEntityManager, new ImportadorProductos(proveedorEntityManager.getEntityManagerFactory(),
+				TAMANO_LOTE_IMPORTACION));
+	}
 
-	public RepositorioProductoPersistente(EntityManager entityManager) {
-		this.entityManager = entityManager;
+	public RepositorioProductoPersistente(ProveedorEntityManager proveedorEntityManager,
+			ImportadorProductos importadorProductos) {
+		this.proveedorEntityManager = proveedorEntityManager;
+		this.importadorProductos = importadorProductos;
 	}
 
 	@Override
 	public Producto obtenerPorCodigo(String codigo) {
 		
-		ProductoEntity productoEntity = obtenerProductoEntityPorCodigo(codigo);
-		return ProductoBuilder.convertirADominio(productoEntity);
+		return proveedorEntityManager.obtener().createNamedQuery(PRODUCTO_FIND_DOMINIO_BY_CODIGO, Producto.class)
+				.setParameter(CODIGO, codigo).getSingleResult();
+	}
+
+	@Override
+	public List<Producto> obtenerPorCodigos(Collection<String> codigos) {
+
+		List<Producto> productos = new ArrayList<>(codigos.size());
+
+		for (List<String> lote : Lotes.dividir(codigos, TAMANO_LOTE_CONSULTA)) {
+			TypedQuery<Producto> query = proveedorEntityManager.obtener()
+					.createNamedQuery(PRODUCTO_FIND_DOMINIO_BY_CODIGOS, Producto.class);
+			query.setParameter(CODIGOS, lote);
+			productos.addAll(query.getResultList());
+		}
+
+		return productos;
 	}
 	
+	/**
+	 * Resuelve el codigo por la API de natural id: la resolucion codigo -> id
+	 * queda en el contexto de persistencia y en la cache de natural id, y la
+	 * entidad en la cache de segundo nivel
+	 */
 	@Override
 	public ProductoEntity obtenerProductoEntityPorCodigo(String codigo) {
-		
-		Query query = entityManager.createNamedQuery(PRODUCTO_FIND_BY_CODIGO);
-		query.setParameter(CODIGO, codigo);
 
-		return (ProductoEntity) query.getSingleResult();
+		ProductoEntity productoEntity = proveedorEntityManager.obtener().unwrap(Session.class)
+				.bySimpleNaturalId(ProductoEntity.class).load(codigo);
+
+		if (productoEntity == null) {
+			throw new NoResultException("No existe el producto con codigo " + codigo);
+		}
+
+		return productoEntity;
+	}
+
+	@Override
+	public List<ProductoEntity> obtenerProductoEntitiesPorCodigos(Collection<String> codigos) {
+
+		List<ProductoEntity> productosEntity = new ArrayList<>(codigos.size());
+
+		for (List<String> lote : Lotes.dividir(codigos, TAMANO_LOTE_CONSULTA)) {
+			TypedQuery<ProductoEntity> query = proveedorEntityManager.obtener()
+					.createNamedQuery(PRODUCTO_FIND_BY_CODIGOS, ProductoEntity.class);
+			query.setParameter(CODIGOS, lote);
+			productosEntity.addAll(query.getResultList());
+		}
+
+		return productosEntity;
+	}
+
+	@Override
+	public List<String> obtenerCodigos(int maximo) {
+
+		TypedQuery<String> query = proveedorEntityManager.obtener().createNamedQuery(PRODUCTO_FIND_CODIGOS,
+				String.class);
+		query.setMaxResults(maximo);
+
+		return query.getResultList();
 	}
 
 	@Override
 	public void agregar(Producto producto) {
-		entityManager.persist(ProductoBuilder.convertirAEntity(producto));
-	}	
+		proveedorEntityManager.obtener().persist(ProductoBuilder.convertirAEntity(producto));
+	}
 
-	
+	/**
+	 * Los lotes se confirman en su propia transaccion, fuera de la del hilo
+	 */
+	@Override
+	public void agregarTodos(Stream<Producto> productos) {
+		importar(productos, ProgresoImportacion.ninguno());
+	}
 
+	@Override
+	public ResumenImportacion importar(Stream<Producto> productos, ProgresoImportacion progreso) {
+		return importadorProductos.importar(productos, progreso);
+	}
 }
@@ -0,0 +1,46 @@
+package persistencia.repositorio;
+
+import java.util.Date;
+
+import javax.persistence.EntityManager;
+
+import dominio.PuntoControl;
+import dominio.repositorio.RepositorioPuntoControl;
+import persistencia.conexion.ProveedorEntityManager;
+import persistencia.entitad.PuntoControlEntity;
+
+public class RepositorioPuntoControlPersistente implements RepositorioPuntoControl {
+
+	private ProveedorEntityManager proveedorEntityManager;
+
+	public RepositorioPuntoControlPersistente(ProveedorEntityManager proveedorEntityManager) {
+		this.proveedorEntityManager = proveedorEntityManager;
+	}
+
+	@Override
+	public PuntoControl obtener(String nombre) {
+
+		PuntoControlEntity puntoControlEntity = proveedorEntityManager.obtener().find(PuntoControlEntity.class, nombre);
+
+		return puntoControlEntity == null ? null
+				: new PuntoControl(puntoControlEntity.getNombre(), puntoControlEntity.getFechaInicio(),
+						puntoControlEntity.getCursor());
+	}
+
+	@Override
+	public void guardar(PuntoControl puntoControl) {
+
+		EntityManager entityManager = proveedorEntityManager.obtener();
+		PuntoControlEntity puntoControlEntity = entityManager.find(PuntoControlEntity.class, puntoControl.getNombre());
+
+		if (puntoControlEntity == null) {
+			puntoControlEntity = new PuntoControlEntity();
+			puntoControlEntity.setNombre(puntoControl.getNombre());
+			entityManager.persist(puntoControlEntity);
+		}
+
+		puntoControlEntity.setFechaInicio(puntoControl.getFechaInicio());
+		puntoControlEntity.setCursor(puntoControl.getCursor());
+		puntoControlEntity.setFechaActualizacion(new Date());
+	}
+}
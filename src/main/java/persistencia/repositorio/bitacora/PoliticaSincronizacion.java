@@ -0,0 +1,23 @@
+package persistencia.repositorio.bitacora;
+
+public enum PoliticaSincronizacion {
+
+	/**
+	 * Cada escritura fuerza el segmento al disco antes de retornar; una
+	 * garantia agregada sobrevive a una caida del sistema operativo
+	 */
+	SIEMPRE,
+
+	/**
+	 * Un hilo fuerza los segmentos modificados cada periodo; una caida puede
+	 * perder las garantias del ultimo periodo
+	 */
+	PERIODICA,
+
+	/**
+	 * El sistema operativo decide cuando escribe las paginas; solo se fuerzan
+	 * los segmentos al cerrar la bitacora
+	 */
+	SISTEMA_OPERATIVO
+
+}
@@ -0,0 +1,146 @@
+package persistencia.repositorio.bitacora;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.zip.CRC32;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+
+/**
+ * Formato binario de tamano fijo de una garantia en la bitacora: numero
+ * magico, CRC32 de los datos, fechas en milisegundos, precios y los textos
+ * con su longitud en bytes UTF-8.
+ */
+final class RegistroGarantia {
+
+	static final int TAMANO = 256;
+
+	private static final int MAGICO = 0x47415231;
+	private static final long SIN_FECHA = Long.MIN_VALUE;
+	private static final short SIN_TEXTO = -1;
+
+	private static final int POSICION_MAGICO = 0;
+	private static final int POSICION_CRC = 4;
+	private static final int POSICION_FECHA_SOLICITUD = 8;
+	private static final int POSICION_FECHA_FIN = 16;
+	private static final int POSICION_PRECIO_GARANTIA = 24;
+	private static final int POSICION_PRECIO_PRODUCTO = 32;
+	private static final int POSICION_CODIGO = 40;
+	private static final int TAMANO_CODIGO = 32;
+	private static final int POSICION_NOMBRE_PRODUCTO = 72;
+	private static final int TAMANO_NOMBRE_PRODUCTO = 96;
+	private static final int POSICION_NOMBRE_CLIENTE = 168;
+	private static final int TAMANO_NOMBRE_CLIENTE = 88;
+
+	private RegistroGarantia() {
+	}
+
+	static byte[] codificar(GarantiaExtendida garantia) {
+
+		Producto producto = garantia.getProducto();
+		ByteBuffer registro = ByteBuffer.allocate(TAMANO);
+
+		registro.putLong(POSICION_FECHA_SOLICITUD, milisegundos(garantia.getFechaSolicitudGarantia()));
+		registro.putLong(POSICION_FECHA_FIN, milisegundos(garantia.getFechaFinGarantia()));
+		registro.putDouble(POSICION_PRECIO_GARANTIA, garantia.getPrecioGarantia());
+		registro.putDouble(POSICION_PRECIO_PRODUCTO, producto.getPrecio());
+		escribirTexto(registro, POSICION_CODIGO, TAMANO_CODIGO, producto.getCodigo());
+		escribirTexto(registro, POSICION_NOMBRE_PRODUCTO, TAMANO_NOMBRE_PRODUCTO, producto.getNombre());
+		escribirTexto(registro, POSICION_NOMBRE_CLIENTE, TAMANO_NOMBRE_CLIENTE, garantia.getNombreCliente());
+
+		registro.putInt(POSICION_CRC, calcularCrc(registro));
+		registro.putInt(POSICION_MAGICO, MAGICO);
+
+		return registro.array();
+	}
+
+	static boolean estaEscrito(ByteBuffer registro) {
+		return registro.getInt(POSICION_MAGICO) == MAGICO;
+	}
+
+	static boolean esValido(ByteBuffer registro) {
+		return estaEscrito(registro) && registro.getInt(POSICION_CRC) == calcularCrc(registro);
+	}
+
+	static boolean estaVacio(ByteBuffer registro) {
+
+		for (int posicion = 0; posicion < TAMANO; posicion += Long.BYTES) {
+			if (registro.getLong(posicion) != 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	static String leerCodigo(ByteBuffer registro) {
+		return leerTexto(registro, POSICION_CODIGO);
+	}
+
+	static Producto decodificarProducto(ByteBuffer registro) {
+		return new Producto(leerTexto(registro, POSICION_CODIGO), leerTexto(registro, POSICION_NOMBRE_PRODUCTO),
+				registro.getDouble(POSICION_PRECIO_PRODUCTO));
+	}
+
+	static GarantiaExtendida decodificar(ByteBuffer registro) {
+		return new GarantiaExtendida(decodificarProducto(registro), fecha(registro.getLong(POSICION_FECHA_SOLICITUD)),
+				fecha(registro.getLong(POSICION_FECHA_FIN)), registro.getDouble(POSICION_PRECIO_GARANTIA),
+				leerTexto(registro, POSICION_NOMBRE_CLIENTE));
+	}
+
+	private static int calcularCrc(ByteBuffer registro) {
+
+		ByteBuffer datos = registro.duplicate();
+		datos.limit(TAMANO);
+		datos.position(POSICION_FECHA_SOLICITUD);
+
+		CRC32 crc = new CRC32();
+		crc.update(datos);
+
+		return (int) crc.getValue();
+	}
+
+	private static void escribirTexto(ByteBuffer registro, int posicion, int tamano, String texto) {
+
+		if (texto == null) {
+			registro.putShort(posicion, SIN_TEXTO);
+			return;
+		}
+
+		byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > tamano - Short.BYTES) {
+			throw new IllegalArgumentException(String.format("El texto '%s' excede los %d bytes del registro", texto,
+					tamano - Short.BYTES));
+		}
+
+		registro.putShort(posicion, (short) bytes.length);
+		ByteBuffer destino = registro.duplicate();
+		destino.position(posicion + Short.BYTES);
+		destino.put(bytes);
+	}
+
+	private static String leerTexto(ByteBuffer registro, int posicion) {
+
+		short longitud = registro.getShort(posicion);
+		if (longitud == SIN_TEXTO) {
+			return null;
+		}
+
+		byte[] bytes = new byte[longitud];
+		ByteBuffer origen = registro.duplicate();
+		origen.position(posicion + Short.BYTES);
+		origen.get(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static long milisegundos(Date fecha) {
+		return fecha != null ? fecha.getTime() : SIN_FECHA;
+	}
+
+	private static Date fecha(long milisegundos) {
+		return milisegundos != SIN_FECHA ? new Date(milisegundos) : null;
+	}
+}
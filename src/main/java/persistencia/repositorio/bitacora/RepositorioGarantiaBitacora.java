@@ -0,0 +1,247 @@
+package persistencia.repositorio.bitacora;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+
+/**
+ * Repositorio de garantias sobre una bitacora de solo anexar en archivos
+ * mapeados en memoria, sin Hibernate ni base de datos.
+ *
+ * Cada garantia ocupa un registro de tamano fijo y un indice en memoria
+ * ubica el registro de cada codigo. Al abrir la bitacora el indice se
+ * reconstruye recorriendo los segmentos; los registros con CRC invalido son
+ * escrituras interrumpidas y se descartan. Cuando el segmento activo se llena
+ * se crea el siguiente, y la politica de sincronizacion decide cuando se
+ * fuerzan al disco.
+ */
+public class RepositorioGarantiaBitacora implements RepositorioGarantiaExtendida {
+
+	private static final Logger LOGGER = Logger.getLogger(RepositorioGarantiaBitacora.class);
+
+	private Path directorio;
+	private int registrosPorSegmento;
+	private PoliticaSincronizacion politicaSincronizacion;
+	private long periodoSincronizacion;
+	private TimeUnit unidad;
+
+	private List<SegmentoBitacora> segmentos = new CopyOnWriteArrayList<>();
+	private Map<String, Long> indice = new ConcurrentHashMap<>();
+	private int siguienteArchivo;
+	private int registrosDescartados;
+	private ScheduledExecutorService sincronizador;
+
+	public RepositorioGarantiaBitacora(Path directorio, int registrosPorSegmento,
+			PoliticaSincronizacion politicaSincronizacion, long periodoSincronizacion, TimeUnit unidad) {
+
+		this.directorio = directorio;
+		this.registrosPorSegmento = registrosPorSegmento;
+		this.politicaSincronizacion = politicaSincronizacion;
+		this.periodoSincronizacion = periodoSincronizacion;
+		this.unidad = unidad;
+	}
+
+	/**
+	 * Permite abrir los segmentos del directorio y reconstruir el indice de
+	 * codigos
+	 */
+	public synchronized void abrir() {
+
+		try {
+			Files.createDirectories(directorio);
+
+			List<Path> archivos;
+			try (Stream<Path> listado = Files.list(directorio)) {
+				archivos = listado.filter(SegmentoBitacora::esArchivoSegmento).sorted().collect(Collectors.toList());
+			}
+
+			for (Path archivo : archivos) {
+				SegmentoBitacora segmento = SegmentoBitacora.abrir(archivo, registrosPorSegmento);
+				int numeroSegmento = segmentos.size();
+				registrosDescartados += segmento
+						.recuperar((codigo, numero) -> indexar(codigo, numeroSegmento, numero));
+				segmentos.add(segmento);
+				siguienteArchivo = Math.max(siguienteArchivo, SegmentoBitacora.numeroArchivo(archivo) + 1);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudo abrir la bitacora de garantias en " + directorio, e);
+		}
+
+		if (politicaSincronizacion == PoliticaSincronizacion.PERIODICA) {
+			sincronizador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+				Thread hilo = new Thread(tarea, "sincronizador-bitacora");
+				hilo.setDaemon(true);
+				return hilo;
+			});
+			sincronizador.scheduleWithFixedDelay(this::sincronizar, periodoSincronizacion, periodoSincronizacion,
+					unidad);
+		}
+
+		LOGGER.info(String.format(
+				"Bitacora de garantias abierta en %s con %d segmentos, %d garantias y %d registros descartados", directorio,
+				segmentos.size(), indice.size(), registrosDescartados));
+	}
+
+	/**
+	 * Permite forzar al disco los segmentos y liberar los archivos
+	 */
+	public synchronized void cerrar() {
+
+		if (sincronizador != null) {
+			sincronizador.shutdown();
+			sincronizador = null;
+		}
+
+		try {
+			for (SegmentoBitacora segmento : segmentos) {
+				segmento.cerrar();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("No se pudo cerrar la bitacora de garantias en " + directorio, e);
+		} finally {
+			segmentos.clear();
+			indice.clear();
+		}
+	}
+
+	/**
+	 * Permite forzar al disco los segmentos con escrituras pendientes
+	 */
+	public void sincronizar() {
+
+		for (SegmentoBitacora segmento : segmentos) {
+			segmento.sincronizar();
+		}
+	}
+
+	@Override
+	public synchronized void agregar(GarantiaExtendida garantia) {
+
+		String codigo = garantia.getProducto().getCodigo();
+		if (indice.containsKey(codigo)) {
+			throw new GarantiaExtendidaException(Vendedor.EL_PRODUCTO_TIENE_GARANTIA);
+		}
+
+		anexar(codigo, RegistroGarantia.codificar(garantia));
+		sincronizarSegunPolitica();
+	}
+
+	@Override
+	public synchronized void agregarTodas(List<GarantiaExtendida> garantias) {
+
+		Map<String, byte[]> registros = new LinkedHashMap<>();
+		for (GarantiaExtendida garantia : garantias) {
+			String codigo = garantia.getProducto().getCodigo();
+			if (indice.containsKey(codigo) || registros.put(codigo, RegistroGarantia.codificar(garantia)) != null) {
+				throw new GarantiaExtendidaException(Vendedor.EL_PRODUCTO_TIENE_GARANTIA);
+			}
+		}
+
+		registros.forEach(this::anexar);
+		sincronizarSegunPolitica();
+	}
+
+	@Override
+	public Producto obtenerProductoConGarantiaPorCodigo(String codigo) {
+
+		Long posicion = codigo == null ? null : indice.get(codigo);
+		return posicion != null ? RegistroGarantia.decodificarProducto(leer(posicion)) : null;
+	}
+
+	@Override
+	public boolean existeGarantia(String codigo) {
+		return codigo != null && indice.containsKey(codigo);
+	}
+
+	@Override
+	public Set<String> obtenerCodigosConGarantia(Collection<String> codigos) {
+
+		Set<String> codigosConGarantia = new HashSet<>();
+		for (String codigo : codigos) {
+			if (existeGarantia(codigo)) {
+				codigosConGarantia.add(codigo);
+			}
+		}
+
+		return codigosConGarantia;
+	}
+
+	@Override
+	public GarantiaExtendida obtener(String codigo) {
+
+		Long posicion = codigo == null ? null : indice.get(codigo);
+		return posicion != null ? RegistroGarantia.decodificar(leer(posicion)) : null;
+	}
+
+	public int getGarantias() {
+		return indice.size();
+	}
+
+	public int getSegmentos() {
+		return segmentos.size();
+	}
+
+	public int getRegistrosDescartados() {
+		return registrosDescartados;
+	}
+
+	private void anexar(String codigo, byte[] registro) {
+
+		if (segmentos.isEmpty() || segmentos.get(segmentos.size() - 1).estaLleno()) {
+			try {
+				segmentos.add(SegmentoBitacora.abrir(SegmentoBitacora.archivo(directorio, siguienteArchivo++),
+						registrosPorSegmento));
+			} catch (IOException e) {
+				throw new UncheckedIOException("No se pudo crear un segmento de la bitacora en " + directorio, e);
+			}
+		}
+
+		int numeroSegmento = segmentos.size() - 1;
+		indice.put(codigo, posicion(numeroSegmento, segmentos.get(numeroSegmento).agregar(registro)));
+	}
+
+	private void indexar(String codigo, int numeroSegmento, int numero) {
+
+		if (indice.putIfAbsent(codigo, posicion(numeroSegmento, numero)) != null) {
+			LOGGER.warn("La bitacora tiene mas de una garantia para el codigo " + codigo + ", se conserva la primera");
+		}
+	}
+
+	private void sincronizarSegunPolitica() {
+
+		if (politicaSincronizacion == PoliticaSincronizacion.SIEMPRE) {
+			sincronizar();
+		}
+	}
+
+	private ByteBuffer leer(long posicion) {
+		return segmentos.get((int) (posicion >>> Integer.SIZE)).leer((int) posicion);
+	}
+
+	private static long posicion(int numeroSegmento, int numero) {
+		return ((long) numeroSegmento << Integer.SIZE) | numero;
+	}
+}
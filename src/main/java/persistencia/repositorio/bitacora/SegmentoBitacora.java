@@ -0,0 +1,153 @@
+package persistencia.repositorio.bitacora;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Archivo de la bitacora con capacidad para un numero fijo de registros,
+ * mapeado completo en memoria. Los registros se escriben uno tras otro y no
+ * se modifican despues; solo el repositorio escribe, bajo su bloqueo.
+ */
+class SegmentoBitacora {
+
+	private static final String PREFIJO = "garantias-";
+	private static final String EXTENSION = ".bitacora";
+
+	private final FileChannel canal;
+	private final MappedByteBuffer buffer;
+	private final int capacidad;
+	private int registros;
+	private volatile boolean modificado;
+
+	private SegmentoBitacora(FileChannel canal, int capacidad) throws IOException {
+		this.canal = canal;
+		this.capacidad = capacidad;
+		this.buffer = canal.map(MapMode.READ_WRITE, 0, (long) capacidad * RegistroGarantia.TAMANO);
+	}
+
+	/**
+	 * Permite abrir un segmento existente con su capacidad original o crear
+	 * uno nuevo con la capacidad dada
+	 *
+	 * @param archivo
+	 * @param capacidadNueva
+	 * @return
+	 * @throws IOException
+	 */
+	static SegmentoBitacora abrir(Path archivo, int capacidadNueva) throws IOException {
+
+		FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		long tamano = canal.size();
+		try {
+			return new SegmentoBitacora(canal,
+					tamano >= RegistroGarantia.TAMANO ? (int) (tamano / RegistroGarantia.TAMANO) : capacidadNueva);
+		} catch (IOException e) {
+			canal.close();
+			throw e;
+		}
+	}
+
+	static Path archivo(Path directorio, int numero) {
+		return directorio.resolve(String.format("%s%08d%s", PREFIJO, numero, EXTENSION));
+	}
+
+	static boolean esArchivoSegmento(Path archivo) {
+
+		String nombre = archivo.getFileName().toString();
+		return nombre.startsWith(PREFIJO) && nombre.endsWith(EXTENSION);
+	}
+
+	static int numeroArchivo(Path archivo) {
+
+		String nombre = archivo.getFileName().toString();
+		return Integer.parseInt(nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()));
+	}
+
+	/**
+	 * Permite recorrer los registros del segmento entregando el codigo y la
+	 * posicion de los validos. Los registros con CRC invalido se descartan y
+	 * lo escrito despues del ultimo valido se borra, para que la siguiente
+	 * escritura continue ahi
+	 *
+	 * @param indexar
+	 * @return el numero de registros descartados
+	 */
+	int recuperar(ObjIntConsumer<String> indexar) {
+
+		int descartados = 0;
+		int siguiente = 0;
+
+		for (int numero = 0; numero < capacidad; numero++) {
+			ByteBuffer registro = leer(numero);
+			if (RegistroGarantia.esValido(registro)) {
+				indexar.accept(RegistroGarantia.leerCodigo(registro), numero);
+				siguiente = numero + 1;
+			} else if (RegistroGarantia.estaEscrito(registro)) {
+				descartados++;
+			}
+		}
+
+		byte[] vacio = new byte[RegistroGarantia.TAMANO];
+		for (int numero = siguiente; numero < capacidad; numero++) {
+			if (!RegistroGarantia.estaVacio(leer(numero))) {
+				escribir(numero, vacio);
+			}
+		}
+
+		registros = siguiente;
+		return descartados;
+	}
+
+	boolean estaLleno() {
+		return registros >= capacidad;
+	}
+
+	/**
+	 * Permite anexar un registro codificado
+	 *
+	 * @param registro
+	 * @return la posicion del registro en el segmento
+	 */
+	int agregar(byte[] registro) {
+
+		escribir(registros, registro);
+		return registros++;
+	}
+
+	ByteBuffer leer(int numero) {
+
+		ByteBuffer registro = buffer.duplicate();
+		registro.limit((numero + 1) * RegistroGarantia.TAMANO);
+		registro.position(numero * RegistroGarantia.TAMANO);
+
+		return registro.slice();
+	}
+
+	void sincronizar() {
+
+		if (modificado) {
+			modificado = false;
+			buffer.force();
+		}
+	}
+
+	void cerrar() throws IOException {
+		sincronizar();
+		canal.close();
+	}
+
+	private void escribir(int numero, byte[] registro) {
+
+		ByteBuffer destino = buffer.duplicate();
+		destino.position(numero * RegistroGarantia.TAMANO);
+		destino.put(registro);
+		modificado = true;
+	}
+}
@@ -0,0 +1,173 @@
+package persistencia.repositorio.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import dominio.Producto;
+import dominio.repositorio.RepositorioProducto;
+import infraestructura.UnidadDeTrabajo;
+import infraestructura.cache.CacheLocal;
+import infraestructura.cache.EstadisticasCache;
+import persistencia.entitad.ProductoEntity;
+import persistencia.importacion.ProgresoImportacion;
+import persistencia.importacion.ResumenImportacion;
+import persistencia.repositorio.Lotes;
+import persistencia.repositorio.jpa.RepositorioProductoJPA;
+
+public class RepositorioProductoCache implements RepositorioProducto, RepositorioProductoJPA {
+
+	private static final int TAMANO_LOTE_PRECARGA = 500;
+
+	private RepositorioProducto repositorioProducto;
+
+	private RepositorioProductoJPA repositorioProductoJPA;
+
+	private CacheLocal<String, Producto> cache;
+
+	public RepositorioProductoCache(RepositorioProducto repositorioProducto, int capacidad, long ttl,
+			TimeUnit unidad) {
+		this.repositorioProducto = repositorioProducto;
+		this.repositorioProductoJPA = (RepositorioProductoJPA) repositorioProducto;
+		this.cache = new CacheLocal<>(capacidad, ttl, unidad);
+	}
+
+	@Override
+	public Producto obtenerPorCodigo(String codigo) {
+
+		Producto producto = cache.obtener(codigo);
+
+		if (producto == null) {
+			producto = repositorioProducto.obtenerPorCodigo(codigo);
+			if (producto != null) {
+				cache.guardar(codigo, producto);
+			}
+		}
+
+		return producto;
+	}
+
+	@Override
+	public List<Producto> obtenerPorCodigos(Collection<String> codigos) {
+
+		List<Producto> productos = new ArrayList<>(codigos.size());
+		List<String> codigosNoCacheados = new ArrayList<>();
+
+		for (String codigo : codigos) {
+			Producto producto = cache.obtener(codigo);
+
+			if (producto != null) {
+				productos.add(producto);
+			} else {
+				codigosNoCacheados.add(codigo);
+			}
+		}
+
+		if (!codigosNoCacheados.isEmpty()) {
+			for (Producto producto : repositorioProducto.obtenerPorCodigos(codigosNoCacheados)) {
+				cache.guardar(producto.getCodigo(), producto);
+				productos.add(producto);
+			}
+		}
+
+		return productos;
+	}
+
+	/**
+	 * Los entity son del contexto de persistencia del hilo que los carga, asi
+	 * que no se guardan en la cache local; los resuelve el repositorio
+	 * delegado con la cache de segundo nivel de Hibernate
+	 */
+	@Override
+	public ProductoEntity obtenerProductoEntityPorCodigo(String codigo) {
+		return repositorioProductoJPA.obtenerProductoEntityPorCodigo(codigo);
+	}
+
+	@Override
+	public List<ProductoEntity> obtenerProductoEntitiesPorCodigos(Collection<String> codigos) {
+		return repositorioProductoJPA.obtenerProductoEntitiesPorCodigos(codigos);
+	}
+
+	@Override
+	public List<String> obtenerCodigos(int maximo) {
+		return repositorioProductoJPA.obtenerCodigos(maximo);
+	}
+
+	@Override
+	public void agregar(Producto producto) {
+
+		cache.invalidar(producto.getCodigo());
+		repositorioProducto.agregar(producto);
+	}
+
+	@Override
+	public void agregarTodos(Stream<Producto> productos) {
+		importar(productos, ProgresoImportacion.ninguno());
+	}
+
+	/**
+	 * Cada lote se confirma por separado, asi que la cache se vacia despues de
+	 * cada uno para no servir precios anteriores a la importacion
+	 */
+	@Override
+	public ResumenImportacion importar(Stream<Producto> productos, ProgresoImportacion progreso) {
+
+		try {
+			return repositorioProductoJPA.importar(productos, avance -> {
+				cache.invalidarTodo();
+				progreso.notificar(avance);
+			});
+		} finally {
+			cache.invalidarTodo();
+		}
+	}
+
+	/**
+	 * Permite precargar la cache con el catalogo, repartiendo los lotes de
+	 * codigos entre el numero de hilos dado, cada lote en su propia unidad de
+	 * trabajo
+	 *
+	 * @param hilos
+	 * @param unidadDeTrabajo
+	 */
+	public void precargar(int hilos, UnidadDeTrabajo unidadDeTrabajo) {
+
+		List<List<String>> lotes = Lotes.dividir(
+				unidadDeTrabajo.ejecutar(() -> repositorioProductoJPA.obtenerCodigos(cache.getCapacidad())),
+				TAMANO_LOTE_PRECARGA);
+
+		ExecutorService executor = Executors.newFixedThreadPool(hilos);
+		try {
+			List<Future<?>> tareas = new ArrayList<>(lotes.size());
+			for (List<String> lote : lotes) {
+				tareas.add(executor.submit(() -> unidadDeTrabajo.ejecutar(() -> precargarLote(lote))));
+			}
+			for (Future<?> tarea : tareas) {
+				tarea.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private void precargarLote(List<String> codigos) {
+
+		for (Producto producto : repositorioProducto.obtenerPorCodigos(codigos)) {
+			cache.guardar(producto.getCodigo(), producto);
+		}
+	}
+
+	public EstadisticasCache getEstadisticas() {
+		return cache.getEstadisticas();
+	}
+}
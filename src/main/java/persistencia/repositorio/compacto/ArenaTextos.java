@@ -0,0 +1,116 @@
+package persistencia.repositorio.compacto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Arena fuera del heap donde se anexan el codigo y el nombre de cada
+ * producto, cada uno como su longitud en bytes UTF-8 seguida de los bytes.
+ * Lo escrito no se modifica; al actualizar un nombre se anexa una entrada
+ * nueva y la anterior queda sin uso.
+ */
+class ArenaTextos {
+
+	private static final short SIN_TEXTO = -1;
+	private static final char LIMITE_ASCII = 0x80;
+
+	private ByteBuffer arena;
+
+	ArenaTextos(int capacidadInicial) {
+		this.arena = ByteBuffer.allocateDirect(Math.max(capacidadInicial, Short.BYTES * 2));
+	}
+
+	/**
+	 * Permite anexar el codigo y el nombre de un producto
+	 *
+	 * @param codigo
+	 * @param nombre
+	 * @return la posicion de la entrada en la arena
+	 */
+	int agregar(String codigo, String nombre) {
+
+		byte[] bytesCodigo = codigo.getBytes(StandardCharsets.UTF_8);
+		byte[] bytesNombre = nombre != null ? nombre.getBytes(StandardCharsets.UTF_8) : new byte[0];
+		if (bytesCodigo.length > Short.MAX_VALUE || bytesNombre.length > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("El codigo o el nombre del producto " + codigo + " es demasiado largo");
+		}
+
+		asegurarEspacio(Short.BYTES * 2 + bytesCodigo.length + bytesNombre.length);
+
+		int posicion = arena.position();
+		arena.putShort((short) bytesCodigo.length).put(bytesCodigo);
+		arena.putShort(nombre != null ? (short) bytesNombre.length : SIN_TEXTO).put(bytesNombre);
+
+		return posicion;
+	}
+
+	/**
+	 * Permite comparar el codigo de una entrada sin crear objetos cuando el
+	 * codigo buscado es ASCII
+	 *
+	 * @param posicion
+	 * @param codigo
+	 * @return
+	 */
+	boolean codigoIgual(int posicion, String codigo) {
+
+		int longitud = arena.getShort(posicion);
+		int inicio = posicion + Short.BYTES;
+
+		for (int i = 0; i < codigo.length(); i++) {
+			char caracter = codigo.charAt(i);
+			if (caracter >= LIMITE_ASCII) {
+				return codigo.equals(leerTexto(posicion));
+			}
+			if (i >= longitud || arena.get(inicio + i) != caracter) {
+				return false;
+			}
+		}
+
+		return longitud == codigo.length();
+	}
+
+	String leerCodigo(int posicion) {
+		return leerTexto(posicion);
+	}
+
+	String leerNombre(int posicion) {
+		return leerTexto(posicion + Short.BYTES + arena.getShort(posicion));
+	}
+
+	int getBytesUsados() {
+		return arena.position();
+	}
+
+	private String leerTexto(int posicion) {
+
+		short longitud = arena.getShort(posicion);
+		if (longitud == SIN_TEXTO) {
+			return null;
+		}
+
+		byte[] bytes = new byte[longitud];
+		ByteBuffer origen = arena.duplicate();
+		origen.position(posicion + Short.BYTES);
+		origen.get(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private void asegurarEspacio(int bytes) {
+
+		if (arena.remaining() >= bytes) {
+			return;
+		}
+
+		long capacidad = Math.max(2L * arena.capacity(), (long) arena.position() + bytes);
+		if (capacidad > Integer.MAX_VALUE) {
+			throw new IllegalStateException("La arena de textos del catalogo supera los 2 GB");
+		}
+
+		ByteBuffer nueva = ByteBuffer.allocateDirect((int) capacidad);
+		arena.flip();
+		nueva.put(arena);
+		arena = nueva;
+	}
+}
@@ -0,0 +1,214 @@
+package persistencia.repositorio.compacto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+import dominio.Producto;
+import dominio.repositorio.RepositorioProducto;
+
+/**
+ * Catalogo de productos en memoria sin un objeto por producto: codigos y
+ * nombres viven en una arena fuera del heap, los precios en un double[] y un
+ * indice de direccionamiento abierto con sondeo lineal ubica la posicion de
+ * cada codigo.
+ *
+ * Los productos solo se construyen cuando se piden; precioPorCodigo no crea
+ * objetos para codigos ASCII. Las lecturas comparten un bloqueo de lectura y
+ * las escrituras son exclusivas.
+ */
+public class RepositorioProductoCompacto implements RepositorioProducto {
+
+	private static final int VACIA = 0;
+	private static final int BYTES_TEXTO_POR_PRODUCTO = 32;
+
+	private final StampedLock bloqueo = new StampedLock();
+
+	private ArenaTextos arena;
+	private int[] posicionesTexto;
+	private int[] hashes;
+	private double[] precios;
+	private int[] tabla;
+	private int productos;
+
+	public RepositorioProductoCompacto(int capacidadInicial) {
+
+		int capacidad = Math.max(capacidadInicial, 16);
+		this.arena = new ArenaTextos(capacidad * BYTES_TEXTO_POR_PRODUCTO);
+		this.posicionesTexto = new int[capacidad];
+		this.hashes = new int[capacidad];
+		this.precios = new double[capacidad];
+		this.tabla = new int[Integer.highestOneBit(capacidad - 1) << 2];
+	}
+
+	@Override
+	public Producto obtenerPorCodigo(String codigo) {
+
+		long estampa = bloqueo.readLock();
+		try {
+			int producto = buscar(codigo);
+			return producto >= 0 ? construir(producto) : null;
+		} finally {
+			bloqueo.unlockRead(estampa);
+		}
+	}
+
+	/**
+	 * Permite obtener el precio de un producto sin construirlo
+	 *
+	 * @param codigo
+	 * @return el precio, o NaN si el codigo no existe
+	 */
+	public double precioPorCodigo(String codigo) {
+
+		long estampa = bloqueo.readLock();
+		try {
+			int producto = buscar(codigo);
+			return producto >= 0 ? precios[producto] : Double.NaN;
+		} finally {
+			bloqueo.unlockRead(estampa);
+		}
+	}
+
+	@Override
+	public List<Producto> obtenerPorCodigos(Collection<String> codigos) {
+
+		List<Producto> encontrados = new ArrayList<>(codigos.size());
+
+		long estampa = bloqueo.readLock();
+		try {
+			for (String codigo : codigos) {
+				int producto = buscar(codigo);
+				if (producto >= 0) {
+					encontrados.add(construir(producto));
+				}
+			}
+		} finally {
+			bloqueo.unlockRead(estampa);
+		}
+
+		return encontrados;
+	}
+
+	@Override
+	public void agregar(Producto producto) {
+
+		long estampa = bloqueo.writeLock();
+		try {
+			if (buscar(producto.getCodigo()) >= 0) {
+				throw new IllegalStateException("Ya existe un producto con el codigo " + producto.getCodigo());
+			}
+			insertar(producto);
+		} finally {
+			bloqueo.unlockWrite(estampa);
+		}
+	}
+
+	@Override
+	public void agregarTodos(Stream<Producto> productos) {
+		productos.forEach(this::guardar);
+	}
+
+	public int getProductos() {
+		return productos;
+	}
+
+	public int getBytesTexto() {
+		return arena.getBytesUsados();
+	}
+
+	private void guardar(Producto producto) {
+
+		long estampa = bloqueo.writeLock();
+		try {
+			int existente = buscar(producto.getCodigo());
+			if (existente < 0) {
+				insertar(producto);
+				return;
+			}
+
+			precios[existente] = producto.getPrecio();
+			String nombre = arena.leerNombre(posicionesTexto[existente]);
+			if (nombre == null ? producto.getNombre() != null : !nombre.equals(producto.getNombre())) {
+				posicionesTexto[existente] = arena.agregar(producto.getCodigo(), producto.getNombre());
+			}
+		} finally {
+			bloqueo.unlockWrite(estampa);
+		}
+	}
+
+	private int buscar(String codigo) {
+
+		if (codigo == null) {
+			return -1;
+		}
+
+		int hash = hash(codigo);
+		int mascara = tabla.length - 1;
+
+		for (int i = hash & mascara;; i = (i + 1) & mascara) {
+			int entrada = tabla[i];
+			if (entrada == VACIA) {
+				return -1;
+			}
+			int producto = entrada - 1;
+			if (hashes[producto] == hash && arena.codigoIgual(posicionesTexto[producto], codigo)) {
+				return producto;
+			}
+		}
+	}
+
+	private void insertar(Producto producto) {
+
+		if (producto.getCodigo() == null) {
+			throw new IllegalArgumentException("El producto no tiene codigo");
+		}
+
+		if (productos == precios.length) {
+			int capacidad = precios.length * 2;
+			posicionesTexto = Arrays.copyOf(posicionesTexto, capacidad);
+			hashes = Arrays.copyOf(hashes, capacidad);
+			precios = Arrays.copyOf(precios, capacidad);
+		}
+
+		int nuevo = productos;
+		posicionesTexto[nuevo] = arena.agregar(producto.getCodigo(), producto.getNombre());
+		hashes[nuevo] = hash(producto.getCodigo());
+		precios[nuevo] = producto.getPrecio();
+		productos++;
+
+		if (productos * 2 > tabla.length) {
+			tabla = new int[tabla.length * 2];
+			for (int i = 0; i < productos; i++) {
+				indexar(i);
+			}
+		} else {
+			indexar(nuevo);
+		}
+	}
+
+	private void indexar(int producto) {
+
+		int mascara = tabla.length - 1;
+		int i = hashes[producto] & mascara;
+		while (tabla[i] != VACIA) {
+			i = (i + 1) & mascara;
+		}
+		tabla[i] = producto + 1;
+	}
+
+	private Producto construir(int producto) {
+
+		int posicion = posicionesTexto[producto];
+		return new Producto(arena.leerCodigo(posicion), arena.leerNombre(posicion), precios[producto]);
+	}
+
+	private static int hash(String codigo) {
+
+		int hash = codigo.hashCode();
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,356 @@
+package persistencia.repositorio.diferido;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import infraestructura.UnidadDeTrabajo;
+
+/**
+ * Escritura diferida de garantias: agregar solo encola la garantia y un hilo
+ * escritor las confirma en grupos, en una transaccion por grupo, cuando el
+ * grupo llega a su tamano o se cumple la espera maxima desde la primera
+ * garantia del grupo.
+ *
+ * Mientras una garantia esta pendiente las lecturas la resuelven desde
+ * memoria. Una garantia aceptada se escribe aunque la transaccion de quien la
+ * agrego se cancele; confirmacion(codigo) indica cuando es durable. Si un
+ * grupo falla, sus garantias se reintentan una a una para aislar la que
+ * fallo.
+ */
+public class RepositorioGarantiaDiferido implements RepositorioGarantiaExtendida, RepositorioGarantiaDiferidoMXBean {
+
+	private static final Logger LOGGER = Logger.getLogger(RepositorioGarantiaDiferido.class);
+
+	private static final long ESPERA_CIERRE_MILLIS = 100;
+
+	private RepositorioGarantiaExtendida repositorioGarantia;
+	private UnidadDeTrabajo unidadDeTrabajo;
+	private int tamanoGrupo;
+	private long esperaMaximaNanos;
+	private boolean verificarEscritas;
+
+	private BlockingQueue<Pendiente> cola;
+	private Map<String, Pendiente> pendientes = new ConcurrentHashMap<>();
+	private Thread escritor;
+	private volatile boolean activo;
+
+	private LongAdder gruposEscritos = new LongAdder();
+	private LongAdder garantiasEscritas = new LongAdder();
+	private LongAdder errores = new LongAdder();
+
+	public RepositorioGarantiaDiferido(RepositorioGarantiaExtendida repositorioGarantia,
+			UnidadDeTrabajo unidadDeTrabajo, int tamanoGrupo, long esperaMaxima, TimeUnit unidad, int capacidad) {
+		this(repositorioGarantia, unidadDeTrabajo, tamanoGrupo, esperaMaxima, unidad, capacidad, true);
+	}
+
+	/**
+	 * @param repositorioGarantia
+	 * @param unidadDeTrabajo
+	 * @param tamanoGrupo
+	 * @param esperaMaxima
+	 * @param unidad
+	 * @param capacidad
+	 * @param verificarEscritas
+	 *            si es true, agregarDiferido consulta el repositorio en el hilo
+	 *            que llama y rechaza las garantias ya escritas antes de
+	 *            encolarlas; quien ya las tiene todas en memoria puede omitirlo
+	 */
+	public RepositorioGarantiaDiferido(RepositorioGarantiaExtendida repositorioGarantia,
+			UnidadDeTrabajo unidadDeTrabajo, int tamanoGrupo, long esperaMaxima, TimeUnit unidad, int capacidad,
+			boolean verificarEscritas) {
+
+		this.repositorioGarantia = repositorioGarantia;
+		this.unidadDeTrabajo = unidadDeTrabajo;
+		this.tamanoGrupo = tamanoGrupo;
+		this.esperaMaximaNanos = unidad.toNanos(esperaMaxima);
+		this.cola = new LinkedBlockingQueue<>(capacidad);
+		this.verificarEscritas = verificarEscritas;
+	}
+
+	public synchronized void iniciar() {
+
+		if (escritor == null) {
+			activo = true;
+			escritor = new Thread(this::escribirGrupos, "escritor-garantias");
+			escritor.setDaemon(true);
+			escritor.start();
+		}
+	}
+
+	/**
+	 * Permite detener el escritor despues de escribir todas las garantias
+	 * pendientes
+	 */
+	public synchronized void cerrar() {
+
+		if (escritor != null) {
+			activo = false;
+			try {
+				escritor.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			escritor = null;
+		}
+	}
+
+	/**
+	 * Permite encolar una garantia y obtener un futuro que termina cuando su
+	 * grupo esta confirmado en la base de datos
+	 *
+	 * @param garantia
+	 * @return
+	 */
+	public CompletableFuture<Void> agregarDiferido(GarantiaExtendida garantia) {
+
+		String codigo = garantia.getProducto().getCodigo();
+		Pendiente pendiente = new Pendiente(garantia);
+
+		if (pendientes.putIfAbsent(codigo, pendiente) != null) {
+			throw new GarantiaExtendidaException(Vendedor.EL_PRODUCTO_TIENE_GARANTIA);
+		}
+
+		boolean yaEscrita;
+		try {
+			yaEscrita = verificarEscritas && repositorioGarantia.existeGarantia(codigo);
+		} catch (RuntimeException e) {
+			pendientes.remove(codigo, pendiente);
+			throw e;
+		}
+
+		if (yaEscrita) {
+			pendientes.remove(codigo, pendiente);
+			throw new GarantiaExtendidaException(Vendedor.EL_PRODUCTO_TIENE_GARANTIA);
+		}
+
+		try {
+			cola.put(pendiente);
+		} catch (InterruptedException e) {
+			pendientes.remove(codigo, pendiente);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrumpido esperando espacio para la garantia " + codigo, e);
+		}
+
+		return pendiente.confirmacion;
+	}
+
+	/**
+	 * Permite retirar una garantia encolada que el escritor aun no ha tomado;
+	 * su confirmacion termina cancelada
+	 *
+	 * @param garantia
+	 * @return false si el escritor ya la tomo, en ese caso se escribe igual
+	 */
+	public boolean cancelar(GarantiaExtendida garantia) {
+
+		String codigo = garantia.getProducto().getCodigo();
+		Pendiente pendiente = pendientes.get(codigo);
+
+		if (pendiente == null || pendiente.garantia != garantia || !cola.remove(pendiente)) {
+			return false;
+		}
+
+		pendientes.remove(codigo, pendiente);
+		pendiente.confirmacion.cancel(false);
+		return true;
+	}
+
+	/**
+	 * Permite obtener un futuro que termina cuando la garantia del codigo es
+	 * durable, ya terminado si no hay ninguna pendiente
+	 *
+	 * @param codigo
+	 * @return
+	 */
+	public CompletableFuture<Void> confirmacion(String codigo) {
+
+		Pendiente pendiente = pendientes.get(codigo);
+		return pendiente != null ? pendiente.confirmacion : CompletableFuture.completedFuture(null);
+	}
+
+	@Override
+	public void agregar(GarantiaExtendida garantia) {
+		agregarDiferido(garantia);
+	}
+
+	@Override
+	public void agregarTodas(List<GarantiaExtendida> garantias) {
+
+		for (GarantiaExtendida garantia : garantias) {
+			agregarDiferido(garantia);
+		}
+	}
+
+	@Override
+	public Producto obtenerProductoConGarantiaPorCodigo(String codigo) {
+
+		Pendiente pendiente = codigo == null ? null : pendientes.get(codigo);
+		return pendiente != null ? pendiente.garantia.getProducto()
+				: repositorioGarantia.obtenerProductoConGarantiaPorCodigo(codigo);
+	}
+
+	@Override
+	public boolean existeGarantia(String codigo) {
+		return (codigo != null && pendientes.containsKey(codigo)) || repositorioGarantia.existeGarantia(codigo);
+	}
+
+	@Override
+	public Set<String> obtenerCodigosConGarantia(Collection<String> codigos) {
+
+		List<String> noPendientes = new ArrayList<>(codigos.size());
+		List<String> codigosPendientes = new ArrayList<>();
+		for (String codigo : codigos) {
+			if (pendientes.containsKey(codigo)) {
+				codigosPendientes.add(codigo);
+			} else {
+				noPendientes.add(codigo);
+			}
+		}
+
+		Set<String> codigosConGarantia = repositorioGarantia.obtenerCodigosConGarantia(noPendientes);
+		codigosConGarantia.addAll(codigosPendientes);
+
+		return codigosConGarantia;
+	}
+
+	@Override
+	public GarantiaExtendida obtener(String codigo) {
+
+		Pendiente pendiente = codigo == null ? null : pendientes.get(codigo);
+		return pendiente != null ? pendiente.garantia : repositorioGarantia.obtener(codigo);
+	}
+
+	private void escribirGrupos() {
+
+		List<Pendiente> grupo = new ArrayList<>(tamanoGrupo);
+
+		while (activo || !cola.isEmpty()) {
+			try {
+				Pendiente primera = cola.poll(ESPERA_CIERRE_MILLIS, TimeUnit.MILLISECONDS);
+				if (primera == null) {
+					continue;
+				}
+
+				grupo.add(primera);
+				long limite = System.nanoTime() + esperaMaximaNanos;
+
+				while (grupo.size() < tamanoGrupo) {
+					long restante = limite - System.nanoTime();
+					Pendiente siguiente = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : cola.poll();
+					if (siguiente == null) {
+						break;
+					}
+					grupo.add(siguiente);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				activo = false;
+			}
+
+			if (!grupo.isEmpty()) {
+				escribir(grupo);
+				grupo.clear();
+			}
+		}
+	}
+
+	private void escribir(List<Pendiente> grupo) {
+
+		List<GarantiaExtendida> garantias = new ArrayList<>(grupo.size());
+		for (Pendiente pendiente : grupo) {
+			garantias.add(pendiente.garantia);
+		}
+
+		try {
+			unidadDeTrabajo.ejecutar(() -> repositorioGarantia.agregarTodas(garantias));
+			gruposEscritos.increment();
+			for (Pendiente pendiente : grupo) {
+				confirmar(pendiente, null);
+			}
+		} catch (RuntimeException e) {
+			LOGGER.warn("Fallo la escritura de un grupo de " + grupo.size() + " garantias, se reintentan una a una",
+					e);
+			for (Pendiente pendiente : grupo) {
+				try {
+					unidadDeTrabajo.ejecutar(() -> repositorioGarantia.agregar(pendiente.garantia));
+					confirmar(pendiente, null);
+				} catch (RuntimeException error) {
+					errores.increment();
+					confirmar(pendiente, error);
+				}
+			}
+		}
+	}
+
+	private void confirmar(Pendiente pendiente, RuntimeException error) {
+
+		pendientes.remove(pendiente.garantia.getProducto().getCodigo(), pendiente);
+
+		if (error == null) {
+			garantiasEscritas.increment();
+			pendiente.confirmacion.complete(null);
+		} else {
+			pendiente.confirmacion.completeExceptionally(error);
+		}
+	}
+
+	@Override
+	public int getPendientes() {
+		return pendientes.size();
+	}
+
+	@Override
+	public long getGruposEscritos() {
+		return gruposEscritos.sum();
+	}
+
+	@Override
+	public long getGarantiasEscritas() {
+		return garantiasEscritas.sum();
+	}
+
+	@Override
+	public long getErrores() {
+		return errores.sum();
+	}
+
+	@Override
+	public double getTamanoPromedioGrupo() {
+
+		long grupos = gruposEscritos.sum();
+		return grupos == 0 ? 0 : (double) garantiasEscritas.sum() / grupos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("EscrituraDiferida pendientes=%d, grupos=%d, garantias=%d, errores=%d", getPendientes(),
+				getGruposEscritos(), getGarantiasEscritas(), getErrores());
+	}
+
+	private static class Pendiente {
+
+		private final GarantiaExtendida garantia;
+
+		private final CompletableFuture<Void> confirmacion = new CompletableFuture<>();
+
+		Pendiente(GarantiaExtendida garantia) {
+			this.garantia = garantia;
+		}
+	}
+}
@@ -0,0 +1,15 @@
+package persistencia.repositorio.diferido;
+
+public interface RepositorioGarantiaDiferidoMXBean {
+
+	int getPendientes();
+
+	long getGruposEscritos();
+
+	long getGarantiasEscritas();
+
+	long getErrores();
+
+	double getTamanoPromedioGrupo();
+
+}
@@ -0,0 +1,149 @@
+package persistencia.repositorio.idempotencia;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import dominio.ResultadoGarantia;
+import dominio.repositorio.RepositorioIdempotencia;
+import infraestructura.UnidadDeTrabajo;
+import infraestructura.cache.CacheLocal;
+import infraestructura.cache.EstadisticasCache;
+
+/**
+ * Resultados por clave de idempotencia en una tabla en memoria acotada, con
+ * desalojo LRU y expiracion por tiempo de vida. Con respaldo, las claves que
+ * no estan en memoria se buscan en el y los registros nuevos se escriben en
+ * ambos, asi un reintento que llega despues de un desalojo o de un reinicio
+ * sigue encontrando su resultado.
+ *
+ * La clave se reserva antes de generar el resultado: las solicitudes con la
+ * misma clave que llegan mientras tanto esperan a que la transaccion de la
+ * primera termine. Un exito entra a la memoria solo cuando esa transaccion se
+ * confirma; si se revierte, la clave queda libre. Un rechazo entra a la
+ * memoria en ambos casos, porque la solicitud rechazada se revierte al
+ * propagar la excepcion.
+ */
+public class RepositorioIdempotenciaMemoria implements RepositorioIdempotencia {
+
+	private CacheLocal<String, ResultadoGarantia> resultados;
+
+	private ConcurrentMap<String, Reserva> reservas = new ConcurrentHashMap<>();
+
+	private RepositorioIdempotencia respaldo;
+
+	private UnidadDeTrabajo unidadDeTrabajo;
+
+	public RepositorioIdempotenciaMemoria(int capacidad, long ttl, TimeUnit unidad) {
+		this(capacidad, ttl, unidad, null, null);
+	}
+
+	/**
+	 * @param capacidad
+	 * @param ttl
+	 * @param unidad
+	 * @param respaldo
+	 * @param unidadDeTrabajo
+	 *            si es null, los resultados entran a la memoria apenas se
+	 *            generan
+	 */
+	public RepositorioIdempotenciaMemoria(int capacidad, long ttl, TimeUnit unidad, RepositorioIdempotencia respaldo,
+			UnidadDeTrabajo unidadDeTrabajo) {
+		this.resultados = new CacheLocal<>(capacidad, ttl, unidad);
+		this.respaldo = respaldo;
+		this.unidadDeTrabajo = unidadDeTrabajo;
+	}
+
+	@Override
+	public ResultadoGarantia obtener(String clave) {
+
+		ResultadoGarantia resultado = resultados.obtener(clave);
+
+		if (resultado == null && respaldo != null) {
+			resultado = respaldo.obtener(clave);
+			if (resultado != null && !reservas.containsKey(clave)) {
+				resultados.guardar(clave, resultado);
+			}
+		}
+
+		return resultado;
+	}
+
+	@Override
+	public ResultadoGarantia registrar(String clave, Supplier<ResultadoGarantia> generador) {
+
+		while (true) {
+			ResultadoGarantia registrado = obtener(clave);
+			if (registrado != null) {
+				return registrado;
+			}
+
+			Reserva propia = new Reserva();
+			Reserva reserva = reservas.putIfAbsent(clave, propia);
+
+			if (reserva == null) {
+				return generar(clave, propia, generador);
+			}
+
+			if (reserva.hilo == Thread.currentThread()) {
+				if (reserva.resultado == null) {
+					throw new IllegalStateException("La clave de idempotencia " + clave + " ya esta en uso");
+				}
+				return reserva.resultado;
+			}
+
+			reserva.terminada.join();
+		}
+	}
+
+	public EstadisticasCache getEstadisticas() {
+		return resultados.getEstadisticas();
+	}
+
+	private ResultadoGarantia generar(String clave, Reserva reserva, Supplier<ResultadoGarantia> generador) {
+
+		ResultadoGarantia resultado = null;
+		try {
+			resultado = resultados.obtener(clave);
+			if (resultado == null) {
+				resultado = respaldo != null ? respaldo.registrar(clave, generador) : generador.get();
+			}
+			reserva.resultado = resultado;
+		} finally {
+			if (reserva.resultado == null) {
+				liberar(clave, reserva);
+			}
+		}
+
+		ResultadoGarantia registrado = resultado;
+		Runnable alConfirmar = () -> {
+			resultados.guardar(clave, registrado);
+			liberar(clave, reserva);
+		};
+		Runnable alCancelar = registrado.isExitosa() ? () -> liberar(clave, reserva) : alConfirmar;
+
+		if (unidadDeTrabajo == null) {
+			alConfirmar.run();
+		} else {
+			unidadDeTrabajo.alTerminar(alConfirmar, alCancelar);
+		}
+
+		return resultado;
+	}
+
+	private void liberar(String clave, Reserva reserva) {
+		reservas.remove(clave, reserva);
+		reserva.terminada.complete(null);
+	}
+
+	private static class Reserva {
+
+		private final Thread hilo = Thread.currentThread();
+
+		private final CompletableFuture<Void> terminada = new CompletableFuture<>();
+
+		private volatile ResultadoGarantia resultado;
+	}
+}
@@ -0,0 +1,186 @@
+package persistencia.repositorio.indice;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import infraestructura.UnidadDeTrabajo;
+import infraestructura.indice.ConjuntoCodigos;
+import infraestructura.indice.FiltroBloom;
+
+/**
+ * Indice en memoria de los codigos con garantia que resuelve sin consultar la
+ * base de datos los codigos que seguro no tienen una. Los codigos agregados
+ * entran al indice cuando la transaccion se confirma; mientras tanto se
+ * consultan en el repositorio, asi la transaccion que los agrego los ve y una
+ * que se revierte no deja codigos de mas en el indice.
+ */
+public class RepositorioGarantiaIndexado implements RepositorioGarantiaExtendida {
+
+	private RepositorioGarantiaExtendida repositorioGarantia;
+
+	private FiltroBloom filtroBloom;
+
+	private ConjuntoCodigos codigosConGarantia;
+
+	private ConcurrentMap<String, Integer> codigosSinConfirmar = new ConcurrentHashMap<>();
+
+	private UnidadDeTrabajo unidadDeTrabajo;
+
+	private LongAdder consultas = new LongAdder();
+	private LongAdder consultasResueltasEnMemoria = new LongAdder();
+	private LongAdder falsosPositivos = new LongAdder();
+
+	public RepositorioGarantiaIndexado(RepositorioGarantiaExtendida repositorioGarantia,
+			UnidadDeTrabajo unidadDeTrabajo, long elementosEsperados, double tasaFalsosPositivos) {
+		this.repositorioGarantia = repositorioGarantia;
+		this.unidadDeTrabajo = unidadDeTrabajo;
+		this.filtroBloom = new FiltroBloom(elementosEsperados, tasaFalsosPositivos);
+		this.codigosConGarantia = new ConjuntoCodigos();
+	}
+
+	/**
+	 * Permite cargar en el indice los codigos que ya tienen garantia
+	 *
+	 * @param codigos
+	 */
+	public void cargar(Collection<String> codigos) {
+
+		for (String codigo : codigos) {
+			registrar(codigo);
+		}
+	}
+
+	@Override
+	public Producto obtenerProductoConGarantiaPorCodigo(String codigo) {
+
+		if (!puedeTenerGarantia(codigo)) {
+			return null;
+		}
+
+		return repositorioGarantia.obtenerProductoConGarantiaPorCodigo(codigo);
+	}
+
+	@Override
+	public boolean existeGarantia(String codigo) {
+		return puedeTenerGarantia(codigo) && repositorioGarantia.existeGarantia(codigo);
+	}
+
+	@Override
+	public void agregar(GarantiaExtendida garantia) {
+
+		repositorioGarantia.agregar(garantia);
+		registrarAlConfirmar(garantia.getProducto().getCodigo());
+	}
+
+	@Override
+	public void agregarTodas(List<GarantiaExtendida> garantias) {
+
+		repositorioGarantia.agregarTodas(garantias);
+		for (GarantiaExtendida garantia : garantias) {
+			registrarAlConfirmar(garantia.getProducto().getCodigo());
+		}
+	}
+
+	@Override
+	public Set<String> obtenerCodigosConGarantia(Collection<String> codigos) {
+
+		List<String> candidatos = new ArrayList<>();
+		for (String codigo : codigos) {
+			if (puedeTenerGarantia(codigo)) {
+				candidatos.add(codigo);
+			}
+		}
+
+		return candidatos.isEmpty() ? new HashSet<>() : repositorioGarantia.obtenerCodigosConGarantia(candidatos);
+	}
+
+	@Override
+	public GarantiaExtendida obtener(String codigo) {
+		return repositorioGarantia.obtener(codigo);
+	}
+
+	/**
+	 * Tasa observada de consultas que el filtro de Bloom dejo pasar y el
+	 * conjunto exacto descarto
+	 *
+	 * @return
+	 */
+	public double getTasaFalsosPositivos() {
+
+		long negativos = consultasResueltasEnMemoria.sum();
+		return negativos == 0 ? 0 : (double) falsosPositivos.sum() / negativos;
+	}
+
+	public double getTasaFalsosPositivosEstimada() {
+		return filtroBloom.estimarTasaFalsosPositivos(codigosConGarantia.getTamano());
+	}
+
+	public double getTasaConsultasResueltasEnMemoria() {
+
+		long total = consultas.sum();
+		return total == 0 ? 0 : (double) consultasResueltasEnMemoria.sum() / total;
+	}
+
+	public long getBytesMemoria() {
+		return filtroBloom.getBytes() + codigosConGarantia.getBytes();
+	}
+
+	public int getTamano() {
+		return codigosConGarantia.getTamano();
+	}
+
+	private boolean puedeTenerGarantia(String codigo) {
+
+		consultas.increment();
+
+		if (codigo == null) {
+			consultasResueltasEnMemoria.increment();
+			return false;
+		}
+
+		if (codigosSinConfirmar.containsKey(codigo)) {
+			return true;
+		}
+
+		if (!filtroBloom.puedeContener(codigo)) {
+			consultasResueltasEnMemoria.increment();
+			return false;
+		}
+
+		if (!codigosConGarantia.contiene(codigo)) {
+			consultasResueltasEnMemoria.increment();
+			falsosPositivos.increment();
+			return false;
+		}
+
+		return true;
+	}
+
+	private void registrarAlConfirmar(String codigo) {
+
+		codigosSinConfirmar.merge(codigo, 1, Integer::sum);
+		unidadDeTrabajo.alTerminar(() -> {
+			registrar(codigo);
+			liberar(codigo);
+		}, () -> liberar(codigo));
+	}
+
+	private void liberar(String codigo) {
+		codigosSinConfirmar.computeIfPresent(codigo, (clave, pendientes) -> pendientes == 1 ? null : pendientes - 1);
+	}
+
+	private void registrar(String codigo) {
+
+		codigosConGarantia.agregar(codigo);
+		filtroBloom.agregar(codigo);
+	}
+}
@@ -0,0 +1,13 @@
+package persistencia.repositorio.jpa;
+
+import java.util.List;
+
+public interface RepositorioGarantiaJPA {
+
+	/**
+	 * Permite obtener los codigos de todos los productos con garantia extendida
+	 * @return
+	 */
+	List<String> obtenerTodosLosCodigosConGarantia();
+
+}
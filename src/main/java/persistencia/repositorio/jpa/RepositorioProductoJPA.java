@@ -1,6 +1,14 @@
 package persistencia.repositorio.jpa;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import dominio.Producto;
+
 import persistencia.entitad.ProductoEntity;
+import persistencia.importacion.ProgresoImportacion;
+import persistencia.importacion.ResumenImportacion;
 
 public interface RepositorioProductoJPA {
 
@@ -11,4 +19,26 @@ public interface RepositorioProductoJPA {
 	 */
 	ProductoEntity obtenerProductoEntityPorCodigo(String codigo);
 
+	/**
+	 * Permite obtener en una sola consulta los productos entity de varios codigos
+	 * @param codigos
+	 * @return
+	 */
+	List<ProductoEntity> obtenerProductoEntitiesPorCodigos(Collection<String> codigos);
+
+	/**
+	 * Permite obtener los codigos del catalogo hasta un maximo dado
+	 * @param maximo
+	 * @return
+	 */
+	List<String> obtenerCodigos(int maximo);
+
+	/**
+	 * Permite importar productos en lotes informando el avance despues de cada lote
+	 * @param productos
+	 * @param progreso
+	 * @return
+	 */
+	ResumenImportacion importar(Stream<Producto> productos, ProgresoImportacion progreso);
+
 }
@@ -0,0 +1,68 @@
+package persistencia.repositorio.metricas;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import infraestructura.metricas.MetricaMetodo;
+import infraestructura.metricas.RegistroMetricas;
+
+public class RepositorioGarantiaInstrumentado implements RepositorioGarantiaExtendida {
+
+	private static final String PREFIJO = "RepositorioGarantiaExtendida.";
+
+	private RepositorioGarantiaExtendida repositorioGarantia;
+
+	private MetricaMetodo obtenerProductoConGarantiaPorCodigo;
+	private MetricaMetodo existeGarantia;
+	private MetricaMetodo agregar;
+	private MetricaMetodo agregarTodas;
+	private MetricaMetodo obtenerCodigosConGarantia;
+	private MetricaMetodo obtener;
+
+	public RepositorioGarantiaInstrumentado(RepositorioGarantiaExtendida repositorioGarantia,
+			RegistroMetricas registroMetricas) {
+		this.repositorioGarantia = repositorioGarantia;
+		this.obtenerProductoConGarantiaPorCodigo = registroMetricas
+				.metrica(PREFIJO + "obtenerProductoConGarantiaPorCodigo");
+		this.existeGarantia = registroMetricas.metrica(PREFIJO + "existeGarantia");
+		this.agregar = registroMetricas.metrica(PREFIJO + "agregar");
+		this.agregarTodas = registroMetricas.metrica(PREFIJO + "agregarTodas");
+		this.obtenerCodigosConGarantia = registroMetricas.metrica(PREFIJO + "obtenerCodigosConGarantia");
+		this.obtener = registroMetricas.metrica(PREFIJO + "obtener");
+	}
+
+	@Override
+	public Producto obtenerProductoConGarantiaPorCodigo(String codigo) {
+		return obtenerProductoConGarantiaPorCodigo
+				.medir(() -> repositorioGarantia.obtenerProductoConGarantiaPorCodigo(codigo));
+	}
+
+	@Override
+	public boolean existeGarantia(String codigo) {
+		return existeGarantia.medir(() -> repositorioGarantia.existeGarantia(codigo));
+	}
+
+	@Override
+	public void agregar(GarantiaExtendida garantia) {
+		agregar.medir(() -> repositorioGarantia.agregar(garantia));
+	}
+
+	@Override
+	public void agregarTodas(List<GarantiaExtendida> garantias) {
+		agregarTodas.medir(() -> repositorioGarantia.agregarTodas(garantias));
+	}
+
+	@Override
+	public Set<String> obtenerCodigosConGarantia(Collection<String> codigos) {
+		return obtenerCodigosConGarantia.medir(() -> repositorioGarantia.obtenerCodigosConGarantia(codigos));
+	}
+
+	@Override
+	public GarantiaExtendida obtener(String codigo) {
+		return obtener.medir(() -> repositorioGarantia.obtener(codigo));
+	}
+}
@@ -0,0 +1,88 @@
+package persistencia.repositorio.metricas;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import dominio.Producto;
+import dominio.repositorio.RepositorioProducto;
+import infraestructura.metricas.MetricaMetodo;
+import infraestructura.metricas.RegistroMetricas;
+import persistencia.entitad.ProductoEntity;
+import persistencia.importacion.ProgresoImportacion;
+import persistencia.importacion.ResumenImportacion;
+import persistencia.repositorio.jpa.RepositorioProductoJPA;
+
+public class RepositorioProductoInstrumentado implements RepositorioProducto, RepositorioProductoJPA {
+
+	private static final String PREFIJO = "RepositorioProducto.";
+
+	private RepositorioProducto repositorioProducto;
+
+	private RepositorioProductoJPA repositorioProductoJPA;
+
+	private MetricaMetodo obtenerPorCodigo;
+	private MetricaMetodo obtenerPorCodigos;
+	private MetricaMetodo agregar;
+	private MetricaMetodo obtenerProductoEntityPorCodigo;
+	private MetricaMetodo obtenerProductoEntitiesPorCodigos;
+	private MetricaMetodo obtenerCodigos;
+	private MetricaMetodo agregarTodos;
+	private MetricaMetodo importar;
+
+	public RepositorioProductoInstrumentado(RepositorioProducto repositorioProducto,
+			RegistroMetricas registroMetricas) {
+		this.repositorioProducto = repositorioProducto;
+		this.repositorioProductoJPA = (RepositorioProductoJPA) repositorioProducto;
+		this.obtenerPorCodigo = registroMetricas.metrica(PREFIJO + "obtenerPorCodigo");
+		this.obtenerPorCodigos = registroMetricas.metrica(PREFIJO + "obtenerPorCodigos");
+		this.agregar = registroMetricas.metrica(PREFIJO + "agregar");
+		this.obtenerProductoEntityPorCodigo = registroMetricas.metrica(PREFIJO + "obtenerProductoEntityPorCodigo");
+		this.obtenerProductoEntitiesPorCodigos = registroMetricas
+				.metrica(PREFIJO + "obtenerProductoEntitiesPorCodigos");
+		this.obtenerCodigos = registroMetricas.metrica(PREFIJO + "obtenerCodigos");
+		this.agregarTodos = registroMetricas.metrica(PREFIJO + "agregarTodos");
+		this.importar = registroMetricas.metrica(PREFIJO + "importar");
+	}
+
+	@Override
+	public Producto obtenerPorCodigo(String codigo) {
+		return obtenerPorCodigo.medir(() -> repositorioProducto.obtenerPorCodigo(codigo));
+	}
+
+	@Override
+	public List<Producto> obtenerPorCodigos(Collection<String> codigos) {
+		return obtenerPorCodigos.medir(() -> repositorioProducto.obtenerPorCodigos(codigos));
+	}
+
+	@Override
+	public void agregar(Producto producto) {
+		agregar.medir(() -> repositorioProducto.agregar(producto));
+	}
+
+	@Override
+	public void agregarTodos(Stream<Producto> productos) {
+		agregarTodos.medir(() -> repositorioProducto.agregarTodos(productos));
+	}
+
+	@Override
+	public ResumenImportacion importar(Stream<Producto> productos, ProgresoImportacion progreso) {
+		return importar.medir(() -> repositorioProductoJPA.importar(productos, progreso));
+	}
+
+	@Override
+	public ProductoEntity obtenerProductoEntityPorCodigo(String codigo) {
+		return obtenerProductoEntityPorCodigo.medir(() -> repositorioProductoJPA.obtenerProductoEntityPorCodigo(codigo));
+	}
+
+	@Override
+	public List<ProductoEntity> obtenerProductoEntitiesPorCodigos(Collection<String> codigos) {
+		return obtenerProductoEntitiesPorCodigos
+				.medir(() -> repositorioProductoJPA.obtenerProductoEntitiesPorCodigos(codigos));
+	}
+
+	@Override
+	public List<String> obtenerCodigos(int maximo) {
+		return obtenerCodigos.medir(() -> repositorioProductoJPA.obtenerCodigos(maximo));
+	}
+}
@@ -0,0 +1,249 @@
+package persistencia.repositorio.particionado;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import infraestructura.UnidadDeTrabajo;
+import persistencia.repositorio.diferido.RepositorioGarantiaDiferido;
+
+/**
+ * Garantias en memoria repartidas en particiones por el hash del codigo del
+ * producto. Cada particion es un mapa concurrente, asi que agregar y las
+ * lecturas no comparten ningun bloqueo entre hilos.
+ *
+ * Con persistencia, cada particion tiene su propia escritura diferida hacia
+ * el repositorio persistente, con su cola y su hilo escritor; la memoria es
+ * la fuente de las lecturas y la base de datos se alcanza en segundo plano.
+ * Si la escritura de una garantia falla, se retira de la memoria. Las
+ * garantias ya escritas se cargan en memoria con cargar, asi que encolar no
+ * consulta la base de datos para rechazarlas.
+ */
+public class RepositorioGarantiaParticionado implements RepositorioGarantiaExtendida {
+
+	private Particion[] particiones;
+
+	private int mascara;
+
+	public RepositorioGarantiaParticionado(int particiones) {
+		this(particiones, () -> null);
+	}
+
+	public RepositorioGarantiaParticionado(int particiones, RepositorioGarantiaExtendida repositorioPersistente,
+			UnidadDeTrabajo unidadDeTrabajo, int tamanoGrupo, long esperaMaxima, TimeUnit unidad, int capacidad) {
+		this(particiones, () -> {
+			RepositorioGarantiaDiferido persistencia = new RepositorioGarantiaDiferido(repositorioPersistente,
+					unidadDeTrabajo, tamanoGrupo, esperaMaxima, unidad, capacidad, false);
+			persistencia.iniciar();
+			return persistencia;
+		});
+	}
+
+	private RepositorioGarantiaParticionado(int particiones, Supplier<RepositorioGarantiaDiferido> persistencia) {
+
+		int numeroParticiones = 1;
+		while (numeroParticiones < particiones) {
+			numeroParticiones <<= 1;
+		}
+
+		this.particiones = new Particion[numeroParticiones];
+		this.mascara = numeroParticiones - 1;
+		for (int i = 0; i < numeroParticiones; i++) {
+			this.particiones[i] = new Particion(persistencia.get());
+		}
+	}
+
+	/**
+	 * Permite cargar en memoria garantias que ya estan persistidas
+	 *
+	 * @param garantias
+	 */
+	public void cargar(Collection<GarantiaExtendida> garantias) {
+
+		for (GarantiaExtendida garantia : garantias) {
+			String codigo = garantia.getProducto().getCodigo();
+			particion(codigo).garantias.putIfAbsent(codigo, garantia);
+		}
+	}
+
+	/**
+	 * Permite obtener un futuro que termina cuando la garantia del codigo
+	 * esta persistida, ya terminado si no hay persistencia o no esta pendiente
+	 *
+	 * @param codigo
+	 * @return
+	 */
+	public CompletableFuture<Void> confirmacion(String codigo) {
+
+		RepositorioGarantiaDiferido persistencia = particion(codigo).persistencia;
+		return persistencia == null ? CompletableFuture.completedFuture(null) : persistencia.confirmacion(codigo);
+	}
+
+	/**
+	 * Permite detener la persistencia de las particiones despues de escribir
+	 * las garantias pendientes
+	 */
+	public void cerrar() {
+
+		for (Particion particion : particiones) {
+			if (particion.persistencia != null) {
+				particion.persistencia.cerrar();
+			}
+		}
+	}
+
+	@Override
+	public void agregar(GarantiaExtendida garantia) {
+
+		String codigo = garantia.getProducto().getCodigo();
+		Particion particion = particion(codigo);
+
+		if (particion.garantias.putIfAbsent(codigo, garantia) != null) {
+			throw new GarantiaExtendidaException(Vendedor.EL_PRODUCTO_TIENE_GARANTIA);
+		}
+
+		persistir(particion, garantia);
+	}
+
+	@Override
+	public void agregarTodas(List<GarantiaExtendida> garantias) {
+
+		List<GarantiaExtendida> agregadas = new ArrayList<>(garantias.size());
+
+		for (GarantiaExtendida garantia : garantias) {
+			String codigo = garantia.getProducto().getCodigo();
+			if (particion(codigo).garantias.putIfAbsent(codigo, garantia) != null) {
+				for (GarantiaExtendida agregada : agregadas) {
+					String codigoAgregada = agregada.getProducto().getCodigo();
+					particion(codigoAgregada).garantias.remove(codigoAgregada, agregada);
+				}
+				throw new GarantiaExtendidaException(Vendedor.EL_PRODUCTO_TIENE_GARANTIA);
+			}
+			agregadas.add(garantia);
+		}
+
+		for (int i = 0; i < agregadas.size(); i++) {
+			try {
+				persistir(particion(agregadas.get(i).getProducto().getCodigo()), agregadas.get(i));
+			} catch (RuntimeException e) {
+				deshacer(agregadas, i);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Las garantias antes de la fallida se retiran de la cola de su
+	 * particion, y su confirmacion cancelada las saca de la memoria; las que
+	 * el escritor ya tomo se escriben y se quedan. Las siguientes aun no se
+	 * encolaban y solo se quitan de la memoria
+	 */
+	private void deshacer(List<GarantiaExtendida> agregadas, int fallida) {
+
+		for (int i = 0; i < agregadas.size(); i++) {
+			GarantiaExtendida garantia = agregadas.get(i);
+			Particion particion = particion(garantia.getProducto().getCodigo());
+
+			if (i < fallida) {
+				particion.persistencia.cancelar(garantia);
+			} else if (i > fallida) {
+				particion.garantias.remove(garantia.getProducto().getCodigo(), garantia);
+			}
+		}
+	}
+
+	@Override
+	public Producto obtenerProductoConGarantiaPorCodigo(String codigo) {
+
+		GarantiaExtendida garantia = obtener(codigo);
+		return garantia != null ? garantia.getProducto() : null;
+	}
+
+	@Override
+	public boolean existeGarantia(String codigo) {
+		return codigo != null && particion(codigo).garantias.containsKey(codigo);
+	}
+
+	@Override
+	public Set<String> obtenerCodigosConGarantia(Collection<String> codigos) {
+
+		Set<String> codigosConGarantia = new HashSet<>();
+		for (String codigo : codigos) {
+			if (existeGarantia(codigo)) {
+				codigosConGarantia.add(codigo);
+			}
+		}
+
+		return codigosConGarantia;
+	}
+
+	@Override
+	public GarantiaExtendida obtener(String codigo) {
+		return codigo == null ? null : particion(codigo).garantias.get(codigo);
+	}
+
+	public int getParticiones() {
+		return particiones.length;
+	}
+
+	public long getGarantias() {
+
+		long garantias = 0;
+		for (Particion particion : particiones) {
+			garantias += particion.garantias.size();
+		}
+
+		return garantias;
+	}
+
+	private void persistir(Particion particion, GarantiaExtendida garantia) {
+
+		if (particion.persistencia == null) {
+			return;
+		}
+
+		String codigo = garantia.getProducto().getCodigo();
+		CompletableFuture<Void> confirmacion;
+		try {
+			confirmacion = particion.persistencia.agregarDiferido(garantia);
+		} catch (RuntimeException e) {
+			particion.garantias.remove(codigo, garantia);
+			throw e;
+		}
+
+		confirmacion.whenComplete((escrita, error) -> {
+			if (error != null) {
+				particion.garantias.remove(codigo, garantia);
+			}
+		});
+	}
+
+	private Particion particion(String codigo) {
+
+		int hash = codigo.hashCode();
+		return particiones[(hash ^ (hash >>> 16)) & mascara];
+	}
+
+	private static class Particion {
+
+		private final Map<String, GarantiaExtendida> garantias = new ConcurrentHashMap<>();
+
+		private final RepositorioGarantiaDiferido persistencia;
+
+		Particion(RepositorioGarantiaDiferido persistencia) {
+			this.persistencia = persistencia;
+		}
+	}
+}
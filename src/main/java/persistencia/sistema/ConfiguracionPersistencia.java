@@ -0,0 +1,42 @@
+package persistencia.sistema;
+
+import java.util.Map;
+
+public class ConfiguracionPersistencia {
+
+	private Map<String, Object> propiedades;
+
+	public ConfiguracionPersistencia(Map<String, Object> propiedades) {
+		this.propiedades = propiedades;
+	}
+
+	public boolean obtenerBooleano(String nombre, boolean valorPorDefecto) {
+
+		Object valor = propiedades.get(nombre);
+		return valor != null ? Boolean.parseBoolean(valor.toString().trim()) : valorPorDefecto;
+	}
+
+	public int obtenerEntero(String nombre, int valorPorDefecto) {
+
+		Object valor = propiedades.get(nombre);
+		return valor != null ? Integer.parseInt(valor.toString().trim()) : valorPorDefecto;
+	}
+
+	public long obtenerLargo(String nombre, long valorPorDefecto) {
+
+		Object valor = propiedades.get(nombre);
+		return valor != null ? Long.parseLong(valor.toString().trim()) : valorPorDefecto;
+	}
+
+	public String obtenerTexto(String nombre, String valorPorDefecto) {
+
+		Object valor = propiedades.get(nombre);
+		return valor != null ? valor.toString().trim() : valorPorDefecto;
+	}
+
+	public double obtenerDecimal(String nombre, double valorPorDefecto) {
+
+		Object valor = propiedades.get(nombre);
+		return valor != null ? Double.parseDouble(valor.toString().trim()) : valorPorDefecto;
+	}
+}
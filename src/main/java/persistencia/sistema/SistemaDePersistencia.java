@@ -1,34 +1,408 @@
 package persistencia.sistema;
 
-import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+import dominio.NotificadorVencimiento;
+import dominio.PaginaGarantias;
+import dominio.Vendedor;
+import dominio.VendedorInstrumentado;
+import dominio.repositorio.RepositorioConsultaGarantia;
 import dominio.repositorio.RepositorioProducto;
 import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioIdempotencia;
+import infraestructura.GeneradorFecha;
+import infraestructura.UnidadDeTrabajo;
+import infraestructura.concurrencia.BloqueoPorCodigo;
+import infraestructura.asincrono.PoliticaRechazo;
+import infraestructura.asincrono.VendedorAsincrono;
+import infraestructura.metricas.PublicadorMetricas;
+import infraestructura.metricas.RegistroMetricas;
+import infraestructura.vencimientos.BarredorVencimientos;
 import persistencia.conexion.ConexionJPA;
+import persistencia.conexion.EstadisticasHibernate;
+import persistencia.conexion.ProveedorEntityManager;
+import persistencia.exportacion.ExportadorGarantias;
+import persistencia.importacion.ImportadorProductos;
+import persistencia.repositorio.RepositorioConsultaGarantiaPersistente;
 import persistencia.repositorio.RepositorioProductoPersistente;
+import persistencia.repositorio.RepositorioPuntoControlPersistente;
 import persistencia.repositorio.RepositorioGarantiaPersistente;
+import persistencia.repositorio.RepositorioIdempotenciaPersistente;
+import persistencia.repositorio.cache.RepositorioProductoCache;
+import persistencia.repositorio.diferido.RepositorioGarantiaDiferido;
+import persistencia.repositorio.idempotencia.RepositorioIdempotenciaMemoria;
+import persistencia.repositorio.indice.RepositorioGarantiaIndexado;
+import persistencia.repositorio.metricas.RepositorioGarantiaInstrumentado;
+import persistencia.repositorio.metricas.RepositorioProductoInstrumentado;
+import persistencia.repositorio.particionado.RepositorioGarantiaParticionado;
 
-public class SistemaDePersistencia {
+public class SistemaDePersistencia implements UnidadDeTrabajo {
 
-	private EntityManager entityManager;
+	private static final String CACHE_PRODUCTOS_HABILITADA = "tienda.cache.productos.habilitada";
+	private static final String CACHE_PRODUCTOS_CAPACIDAD = "tienda.cache.productos.capacidad";
+	private static final String CACHE_PRODUCTOS_TTL_SEGUNDOS = "tienda.cache.productos.ttl_segundos";
+	private static final String CACHE_PRODUCTOS_HILOS_PRECARGA = "tienda.cache.productos.hilos_precarga";
+	private static final String INDICE_GARANTIAS_HABILITADO = "tienda.indice.garantias.habilitado";
+	private static final String INDICE_GARANTIAS_ELEMENTOS_ESPERADOS = "tienda.indice.garantias.elementos_esperados";
+	private static final String INDICE_GARANTIAS_TASA_FALSOS_POSITIVOS = "tienda.indice.garantias.tasa_falsos_positivos";
+	private static final String METRICAS_HABILITADAS = "tienda.metricas.habilitadas";
+	private static final String METRICAS_PERIODO_RESUMEN_SEGUNDOS = "tienda.metricas.periodo_resumen_segundos";
+	private static final String METRICAS_UMBRAL_CONSULTA_LENTA_MS = "tienda.metricas.umbral_consulta_lenta_ms";
+	private static final String DOMINIO_JMX = "tienda";
+	private static final String IMPORTACION_TAMANO_LOTE = "tienda.importacion.tamano_lote";
+	private static final String EXPORTACION_TAMANO_FETCH = "tienda.exportacion.tamano_fetch";
+	private static final String VENCIMIENTOS_DIAS_ANTICIPACION = "tienda.vencimientos.dias_anticipacion";
+	private static final String VENCIMIENTOS_TAMANO_LOTE = "tienda.vencimientos.tamano_lote";
+	private static final String VENCIMIENTOS_HILOS = "tienda.vencimientos.hilos";
+	private static final String ESCRITURA_DIFERIDA_HABILITADA = "tienda.escritura_diferida.habilitada";
+	private static final String ESCRITURA_DIFERIDA_TAMANO_GRUPO = "tienda.escritura_diferida.tamano_grupo";
+	private static final String ESCRITURA_DIFERIDA_ESPERA_MAXIMA_MS = "tienda.escritura_diferida.espera_maxima_ms";
+	private static final String ESCRITURA_DIFERIDA_CAPACIDAD = "tienda.escritura_diferida.capacidad";
+	private static final String PARTICIONADO_HABILITADO = "tienda.particionado.habilitado";
+	private static final String PARTICIONADO_PARTICIONES = "tienda.particionado.particiones";
+	private static final String PARTICIONADO_PERSISTIR = "tienda.particionado.persistir";
+	private static final int TAMANO_PAGINA_CARGA = 1000;
+	private static final String BLOQUEO_FRANJAS = "tienda.bloqueo.franjas";
+	private static final String IDEMPOTENCIA_HABILITADA = "tienda.idempotencia.habilitada";
+	private static final String IDEMPOTENCIA_CAPACIDAD = "tienda.idempotencia.capacidad";
+	private static final String IDEMPOTENCIA_TTL_SEGUNDOS = "tienda.idempotencia.ttl_segundos";
+	private static final String IDEMPOTENCIA_PERSISTIR = "tienda.idempotencia.persistir";
+	private static final String ASINCRONO_HILOS = "tienda.asincrono.hilos";
+	private static final String ASINCRONO_CAPACIDAD_COLA = "tienda.asincrono.capacidad_cola";
+	private static final String ASINCRONO_POLITICA_RECHAZO = "tienda.asincrono.politica_rechazo";
+	private static final String ASINCRONO_HILOS_VIRTUALES = "tienda.asincrono.hilos_virtuales";
+
+	private ProveedorEntityManager proveedorEntityManager;
+
+	private ConfiguracionPersistencia configuracion;
+
+	private RepositorioProducto repositorioProducto;
+
+	private RepositorioGarantiaExtendida repositorioGarantia;
+
+	private RepositorioConsultaGarantia repositorioConsultaGarantia;
+
+	private RepositorioGarantiaDiferido repositorioGarantiaDiferido;
+
+	private RepositorioGarantiaParticionado repositorioGarantiaParticionado;
+
+	private BloqueoPorCodigo bloqueoPorCodigo;
+
+	private RepositorioIdempotencia repositorioIdempotencia;
+
+	private RegistroMetricas registroMetricas;
+
+	private PublicadorMetricas publicadorMetricas;
 
 	public SistemaDePersistencia() {
-		this.entityManager = new ConexionJPA().createEntityManager();
+		this.proveedorEntityManager = new ProveedorEntityManager(new ConexionJPA().getEntityManagerFactory());
+		this.configuracion = new ConfiguracionPersistencia(
+				proveedorEntityManager.getEntityManagerFactory().getProperties());
+
+		if (configuracion.obtenerBooleano(METRICAS_HABILITADAS, false)) {
+			this.registroMetricas = new RegistroMetricas();
+		}
+
+		this.repositorioProducto = instrumentar(crearRepositorioProductos());
+		this.repositorioConsultaGarantia = new RepositorioConsultaGarantiaPersistente(proveedorEntityManager);
+		this.repositorioGarantia = instrumentar(crearRepositorioGarantia());
+
+		int franjas = configuracion.obtenerEntero(BLOQUEO_FRANJAS, 0);
+		if (franjas > 0) {
+			this.bloqueoPorCodigo = new BloqueoPorCodigo(franjas);
+		}
+
+		if (configuracion.obtenerBooleano(IDEMPOTENCIA_HABILITADA, false)) {
+			this.repositorioIdempotencia = crearRepositorioIdempotencia();
+		}
+
+		if (registroMetricas != null) {
+			publicarMetricas();
+		}
 	}
 
 	public RepositorioProducto obtenerRepositorioProductos() {
-		return new RepositorioProductoPersistente(entityManager);
+		return repositorioProducto;
 	}
 	
 	public RepositorioGarantiaExtendida obtenerRepositorioGarantia() {
-		return new RepositorioGarantiaPersistente(entityManager, this.obtenerRepositorioProductos());
+		return repositorioGarantia;
+	}
+
+	public RepositorioConsultaGarantia obtenerRepositorioConsultaGarantia() {
+		return repositorioConsultaGarantia;
+	}
+
+	/**
+	 * Permite obtener un futuro que termina cuando la garantia del codigo es
+	 * durable; sin escritura diferida las garantias lo son al confirmar la
+	 * transaccion y el futuro ya esta terminado
+	 *
+	 * @param codigo
+	 * @return
+	 */
+	public CompletableFuture<Void> confirmacionGarantia(String codigo) {
+
+		if (repositorioGarantiaParticionado != null) {
+			return repositorioGarantiaParticionado.confirmacion(codigo);
+		}
+
+		return repositorioGarantiaDiferido == null ? CompletableFuture.completedFuture(null)
+				: repositorioGarantiaDiferido.confirmacion(codigo);
+	}
+
+	/**
+	 * Permite crear un vendedor sobre los repositorios del sistema,
+	 * instrumentado cuando las metricas estan habilitadas. Todos los
+	 * vendedores comparten los candados por codigo y la tabla de idempotencia
+	 * del sistema
+	 *
+	 * @param generadorFecha
+	 * @return
+	 */
+	public Vendedor crearVendedor(GeneradorFecha generadorFecha) {
+
+		if (registroMetricas == null) {
+			return new Vendedor(repositorioProducto, repositorioGarantia, generadorFecha, bloqueoPorCodigo,
+					repositorioIdempotencia);
+		}
+
+		return new VendedorInstrumentado(repositorioProducto, repositorioGarantia, generadorFecha, bloqueoPorCodigo,
+				repositorioIdempotencia, registroMetricas);
+	}
+
+	/**
+	 * Permite crear la fachada asincrona del vendedor, publicada junto a las
+	 * metricas cuando estan habilitadas
+	 *
+	 * @param generadorFecha
+	 * @return
+	 */
+	public VendedorAsincrono crearVendedorAsincrono(GeneradorFecha generadorFecha) {
+
+		VendedorAsincrono vendedorAsincrono = new VendedorAsincrono(crearVendedor(generadorFecha), this,
+				this::confirmacionGarantia,
+				configuracion.obtenerEntero(ASINCRONO_HILOS, 8),
+				configuracion.obtenerEntero(ASINCRONO_CAPACIDAD_COLA, 1000),
+				PoliticaRechazo.valueOf(configuracion.obtenerTexto(ASINCRONO_POLITICA_RECHAZO,
+						PoliticaRechazo.BLOQUEAR.name())),
+				configuracion.obtenerBooleano(ASINCRONO_HILOS_VIRTUALES, false));
+
+		if (publicadorMetricas != null) {
+			publicadorMetricas.agregarFuente("VendedorAsincrono", vendedorAsincrono, vendedorAsincrono::toString);
+		}
+
+		return vendedorAsincrono;
+	}
+
+	public ExportadorGarantias crearExportadorGarantias() {
+		return new ExportadorGarantias(proveedorEntityManager.getEntityManagerFactory(),
+				configuracion.obtenerEntero(EXPORTACION_TAMANO_FETCH, 500));
+	}
+
+	/**
+	 * Permite crear el barredor de vencimientos, publicado junto a las
+	 * metricas cuando estan habilitadas
+	 *
+	 * @param notificadorVencimiento
+	 * @return
+	 */
+	public BarredorVencimientos crearBarredorVencimientos(NotificadorVencimiento notificadorVencimiento) {
+
+		BarredorVencimientos barredorVencimientos = new BarredorVencimientos(this, repositorioConsultaGarantia,
+				new RepositorioPuntoControlPersistente(proveedorEntityManager), notificadorVencimiento,
+				configuracion.obtenerEntero(VENCIMIENTOS_DIAS_ANTICIPACION, 30),
+				configuracion.obtenerEntero(VENCIMIENTOS_TAMANO_LOTE, 500),
+				configuracion.obtenerEntero(VENCIMIENTOS_HILOS, 4));
+
+		if (publicadorMetricas != null) {
+			publicadorMetricas.agregarFuente("Vencimientos", barredorVencimientos, barredorVencimientos::toString);
+		}
+
+		return barredorVencimientos;
+	}
+
+	public RegistroMetricas obtenerRegistroMetricas() {
+		return registroMetricas;
 	}
 
 	public void iniciar() {
-		entityManager.getTransaction().begin();
+		proveedorEntityManager.iniciar();
 	}
 
 	public void terminar() {
-		entityManager.getTransaction().commit();
+		proveedorEntityManager.terminar();
+	}
+
+	public void cancelar() {
+		proveedorEntityManager.cancelar();
+	}
+
+	@Override
+	public <T> T ejecutar(Supplier<T> trabajo) {
+		return proveedorEntityManager.ejecutarEnTransaccion(trabajo);
+	}
+
+	@Override
+	public void ejecutar(Runnable trabajo) {
+		proveedorEntityManager.ejecutarEnTransaccion(() -> {
+			trabajo.run();
+			return null;
+		});
+	}
+
+	@Override
+	public void alTerminar(Runnable alConfirmar, Runnable alCancelar) {
+		proveedorEntityManager.alTerminar(alConfirmar, alCancelar);
+	}
+
+	public void cerrar() {
+
+		if (repositorioGarantiaDiferido != null) {
+			repositorioGarantiaDiferido.cerrar();
+		}
+		if (repositorioGarantiaParticionado != null) {
+			repositorioGarantiaParticionado.cerrar();
+		}
+		if (publicadorMetricas != null) {
+			publicadorMetricas.detener();
+		}
+		proveedorEntityManager.cerrar();
+	}
+
+	private RepositorioProducto instrumentar(RepositorioProducto repositorio) {
+		return registroMetricas == null ? repositorio
+				: new RepositorioProductoInstrumentado(repositorio, registroMetricas);
+	}
+
+	private RepositorioGarantiaExtendida instrumentar(RepositorioGarantiaExtendida repositorio) {
+		return registroMetricas == null ? repositorio
+				: new RepositorioGarantiaInstrumentado(repositorio, registroMetricas);
+	}
+
+	private void publicarMetricas() {
+
+		EstadisticasHibernate estadisticasHibernate = new EstadisticasHibernate(
+				proveedorEntityManager.getEntityManagerFactory(),
+				configuracion.obtenerLargo(METRICAS_UMBRAL_CONSULTA_LENTA_MS, 100));
+
+		publicadorMetricas = new PublicadorMetricas(DOMINIO_JMX, registroMetricas);
+		publicadorMetricas.agregarFuente("Hibernate", estadisticasHibernate, estadisticasHibernate::toString);
+		if (repositorioGarantiaDiferido != null) {
+			publicadorMetricas.agregarFuente("EscrituraDiferida", repositorioGarantiaDiferido,
+					repositorioGarantiaDiferido::toString);
+		}
+		publicadorMetricas.iniciar(configuracion.obtenerLargo(METRICAS_PERIODO_RESUMEN_SEGUNDOS, 60),
+				TimeUnit.SECONDS);
+	}
+
+	private RepositorioIdempotencia crearRepositorioIdempotencia() {
+
+		long ttlSegundos = configuracion.obtenerLargo(IDEMPOTENCIA_TTL_SEGUNDOS, 86400);
+
+		return new RepositorioIdempotenciaMemoria(configuracion.obtenerEntero(IDEMPOTENCIA_CAPACIDAD, 10000),
+				ttlSegundos, TimeUnit.SECONDS,
+				configuracion.obtenerBooleano(IDEMPOTENCIA_PERSISTIR, false)
+						? new RepositorioIdempotenciaPersistente(proveedorEntityManager, ttlSegundos, TimeUnit.SECONDS)
+						: null,
+				this);
+	}
+
+	private RepositorioProducto crearRepositorioProductos() {
+
+		RepositorioProductoPersistente repositorioProductoPersistente = new RepositorioProductoPersistente(
+				proveedorEntityManager, new ImportadorProductos(proveedorEntityManager.getEntityManagerFactory(),
+						configuracion.obtenerEntero(IMPORTACION_TAMANO_LOTE, 1000)));
+
+		if (!configuracion.obtenerBooleano(CACHE_PRODUCTOS_HABILITADA, false)) {
+			return repositorioProductoPersistente;
+		}
+
+		RepositorioProductoCache repositorioProductoCache = new RepositorioProductoCache(
+				repositorioProductoPersistente, configuracion.obtenerEntero(CACHE_PRODUCTOS_CAPACIDAD, 10000),
+				configuracion.obtenerLargo(CACHE_PRODUCTOS_TTL_SEGUNDOS, 300), TimeUnit.SECONDS);
+
+		int hilosPrecarga = configuracion.obtenerEntero(CACHE_PRODUCTOS_HILOS_PRECARGA, 0);
+		if (hilosPrecarga > 0) {
+			repositorioProductoCache.precargar(hilosPrecarga, this);
+		}
+
+		return repositorioProductoCache;
+	}
+
+	private RepositorioGarantiaExtendida crearRepositorioGarantia() {
+
+		RepositorioGarantiaPersistente repositorioGarantiaPersistente = new RepositorioGarantiaPersistente(
+				proveedorEntityManager, repositorioProducto);
+
+		RepositorioGarantiaExtendida repositorio = repositorioGarantiaPersistente;
+		if (configuracion.obtenerBooleano(INDICE_GARANTIAS_HABILITADO, false)) {
+			repositorio = crearRepositorioGarantiaIndexado(repositorioGarantiaPersistente);
+		}
+
+		if (configuracion.obtenerBooleano(PARTICIONADO_HABILITADO, false)) {
+			return crearRepositorioGarantiaParticionado(repositorio);
+		}
+
+		if (!configuracion.obtenerBooleano(ESCRITURA_DIFERIDA_HABILITADA, false)) {
+			return repositorio;
+		}
+
+		repositorioGarantiaDiferido = new RepositorioGarantiaDiferido(repositorio, this,
+				configuracion.obtenerEntero(ESCRITURA_DIFERIDA_TAMANO_GRUPO, 100),
+				configuracion.obtenerLargo(ESCRITURA_DIFERIDA_ESPERA_MAXIMA_MS, 5), TimeUnit.MILLISECONDS,
+				configuracion.obtenerEntero(ESCRITURA_DIFERIDA_CAPACIDAD, 10000));
+		repositorioGarantiaDiferido.iniciar();
+
+		return repositorioGarantiaDiferido;
+	}
+
+	private RepositorioGarantiaExtendida crearRepositorioGarantiaIndexado(
+			RepositorioGarantiaPersistente repositorioGarantiaPersistente) {
+
+		RepositorioGarantiaIndexado repositorioGarantiaIndexado = new RepositorioGarantiaIndexado(
+				repositorioGarantiaPersistente, this,
+				configuracion.obtenerLargo(INDICE_GARANTIAS_ELEMENTOS_ESPERADOS, 100000),
+				configuracion.obtenerDecimal(INDICE_GARANTIAS_TASA_FALSOS_POSITIVOS, 0.01));
+		repositorioGarantiaIndexado
+				.cargar(ejecutar(repositorioGarantiaPersistente::obtenerTodosLosCodigosConGarantia));
+
+		return repositorioGarantiaIndexado;
+	}
+
+	private RepositorioGarantiaExtendida crearRepositorioGarantiaParticionado(
+			RepositorioGarantiaExtendida repositorio) {
+
+		int particiones = configuracion.obtenerEntero(PARTICIONADO_PARTICIONES,
+				Runtime.getRuntime().availableProcessors());
+
+		if (!configuracion.obtenerBooleano(PARTICIONADO_PERSISTIR, true)) {
+			repositorioGarantiaParticionado = new RepositorioGarantiaParticionado(particiones);
+			return repositorioGarantiaParticionado;
+		}
+
+		repositorioGarantiaParticionado = new RepositorioGarantiaParticionado(particiones, repositorio, this,
+				configuracion.obtenerEntero(ESCRITURA_DIFERIDA_TAMANO_GRUPO, 100),
+				configuracion.obtenerLargo(ESCRITURA_DIFERIDA_ESPERA_MAXIMA_MS, 5), TimeUnit.MILLISECONDS,
+				configuracion.obtenerEntero(ESCRITURA_DIFERIDA_CAPACIDAD, 10000));
+
+		Date desde = new Date(0);
+		Date hasta = Date.from(LocalDate.of(9999, 12, 31).atStartOfDay(ZoneId.systemDefault()).toInstant());
+		String cursor = null;
+		PaginaGarantias pagina;
+		do {
+			String cursorPagina = cursor;
+			pagina = ejecutar(() -> repositorioConsultaGarantia.buscarPorFechaSolicitud(desde, hasta, cursorPagina,
+					TAMANO_PAGINA_CARGA));
+			repositorioGarantiaParticionado.cargar(pagina.getGarantias());
+			cursor = pagina.getSiguienteCursor();
+		} while (pagina.hayMas());
+
+		return repositorioGarantiaParticionado;
 	}
 }
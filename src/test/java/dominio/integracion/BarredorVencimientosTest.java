@@ -0,0 +1,136 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.SolicitudGarantia;
+import dominio.Vendedor;
+import infraestructura.GeneradorFecha;
+import infraestructura.vencimientos.BarredorVencimientos;
+import persistencia.conexion.ConexionJPA;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class BarredorVencimientosTest {
+
+	private static final String CODIGO_ECONOMICO = "V00001";
+	private static final String CODIGO_SEGUNDO_ECONOMICO = "V00002";
+	private static final String CODIGO_COSTOSO = "V00003";
+	private static final double PRECIO_ECONOMICO = 300000;
+	private static final double PRECIO_COSTOSO = 800000;
+	private static final String NOMBRE_CLIENTE = "Cliente";
+
+	private SistemaDePersistencia sistemaPersistencia;
+
+	private List<GarantiaExtendida> notificadas;
+
+	@Before
+	public void setUp() {
+
+		sistemaPersistencia = new SistemaDePersistencia();
+		notificadas = Collections.synchronizedList(new ArrayList<>());
+
+		// Solicitadas hace 100 dias: las garantias de 100 dias habiles vencen
+		// dentro del proximo mes y la de 200 dias mucho despues
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.now().minusDays(100));
+
+		sistemaPersistencia.obtenerRepositorioProductos()
+				.agregarTodos(Stream.of(
+						new ProductoTestDataBuilder().conCodigo(CODIGO_ECONOMICO).conPrecio(PRECIO_ECONOMICO).build(),
+						new ProductoTestDataBuilder().conCodigo(CODIGO_SEGUNDO_ECONOMICO).conPrecio(PRECIO_ECONOMICO)
+								.build(),
+						new ProductoTestDataBuilder().conCodigo(CODIGO_COSTOSO).conPrecio(PRECIO_COSTOSO).build()));
+
+		Vendedor vendedor = sistemaPersistencia.crearVendedor(generadorFecha);
+		sistemaPersistencia.ejecutar(() -> vendedor.generarGarantias(
+				Arrays.asList(new SolicitudGarantia(CODIGO_ECONOMICO, NOMBRE_CLIENTE),
+						new SolicitudGarantia(CODIGO_SEGUNDO_ECONOMICO, NOMBRE_CLIENTE),
+						new SolicitudGarantia(CODIGO_COSTOSO, NOMBRE_CLIENTE))));
+	}
+
+	@After
+	public void tearDown() {
+		sistemaPersistencia.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	@Test
+	public void notificaSoloLasGarantiasProximasAVencerTest() {
+
+		// arrange
+		BarredorVencimientos barredor = sistemaPersistencia.crearBarredorVencimientos(notificadas::add);
+
+		// act
+		long notificadasBarrido = barredor.barrer();
+		barredor.detener();
+
+		// assert
+		assertEquals(2, notificadasBarrido);
+		assertEquals(2, notificadas.size());
+		for (GarantiaExtendida garantia : notificadas) {
+			assertTrue(garantia.getProducto().getPrecio() <= Vendedor.LIMITE_PRECIO);
+		}
+	}
+
+	@Test
+	public void reinicioRetomaDesdeElPuntoDeControlTest() {
+
+		// arrange
+		BarredorVencimientos barredor = sistemaPersistencia.crearBarredorVencimientos(notificadas::add);
+		barredor.barrer();
+		barredor.detener();
+
+		BarredorVencimientos barredorReiniciado = sistemaPersistencia.crearBarredorVencimientos(notificadas::add);
+
+		// act
+		long notificadasDespuesDeReiniciar = barredorReiniciado.barrer();
+		barredorReiniciado.detener();
+
+		// assert
+		assertEquals(0, notificadasDespuesDeReiniciar);
+		assertEquals(2, notificadas.size());
+		assertEquals(0, barredorReiniciado.getErrores());
+	}
+
+	@Test
+	public void fallaDetieneElPuntoDeControlTest() {
+
+		// arrange
+		BarredorVencimientos barredor = sistemaPersistencia.crearBarredorVencimientos(garantia -> {
+			if (CODIGO_SEGUNDO_ECONOMICO.equals(garantia.getProducto().getCodigo())) {
+				throw new IllegalStateException("Servicio de notificaciones no disponible");
+			}
+			notificadas.add(garantia);
+		});
+		barredor.barrer();
+		barredor.detener();
+
+		BarredorVencimientos barredorReintento = sistemaPersistencia.crearBarredorVencimientos(notificadas::add);
+
+		// act
+		barredorReintento.barrer();
+		barredorReintento.detener();
+
+		// assert
+		assertEquals(1, barredor.getErrores());
+		assertTrue(notificadas.stream()
+				.anyMatch(garantia -> CODIGO_SEGUNDO_ECONOMICO.equals(garantia.getProducto().getCodigo())));
+		assertTrue(notificadas.stream()
+				.anyMatch(garantia -> CODIGO_ECONOMICO.equals(garantia.getProducto().getCodigo())));
+	}
+}
@@ -0,0 +1,100 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dominio.GarantiaExtendida;
+import persistencia.repositorio.bitacora.PoliticaSincronizacion;
+import persistencia.repositorio.bitacora.RepositorioGarantiaBitacora;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class BitacoraGarantiasTest {
+
+	private static final int REGISTROS_POR_SEGMENTO = 2;
+	private static final int TAMANO_REGISTRO = 256;
+	private static final String NOMBRE_CLIENTE = "Cliente bitacora";
+
+	@Rule
+	public TemporaryFolder carpetaTemporal = new TemporaryFolder();
+
+	private Path directorio;
+
+	@Before
+	public void setUp() {
+		directorio = carpetaTemporal.getRoot().toPath();
+	}
+
+	@Test
+	public void reconstruirIndiceAlAbrirTest() {
+
+		// arrange
+		RepositorioGarantiaBitacora bitacora = abrir();
+		for (int i = 0; i < 5; i++) {
+			bitacora.agregar(garantia(String.format("B%05d", i)));
+		}
+		bitacora.cerrar();
+
+		// act
+		RepositorioGarantiaBitacora reabierta = abrir();
+
+		// assert
+		assertEquals(3, reabierta.getSegmentos());
+		assertEquals(5, reabierta.getGarantias());
+		assertEquals(NOMBRE_CLIENTE, reabierta.obtener("B00004").getNombreCliente());
+		reabierta.cerrar();
+	}
+
+	@Test
+	public void descartarRegistroIncompletoTest() throws Exception {
+
+		// arrange
+		RepositorioGarantiaBitacora bitacora = abrir();
+		bitacora.agregar(garantia("B00000"));
+		bitacora.agregar(garantia("B00001"));
+		bitacora.cerrar();
+		try (RandomAccessFile segmento = new RandomAccessFile(
+				directorio.resolve("garantias-00000000.bitacora").toFile(), "rw")) {
+			segmento.seek(TAMANO_REGISTRO + TAMANO_REGISTRO / 2);
+			segmento.write(new byte[] { 1, 2, 3, 4 });
+		}
+
+		// act
+		RepositorioGarantiaBitacora reabierta = abrir();
+		reabierta.agregar(garantia("B00002"));
+
+		// assert
+		assertEquals(1, reabierta.getRegistrosDescartados());
+		assertTrue(reabierta.existeGarantia("B00000"));
+		assertFalse(reabierta.existeGarantia("B00001"));
+		assertNull(reabierta.obtener("B00001"));
+		assertEquals(1, reabierta.getSegmentos());
+		assertEquals(NOMBRE_CLIENTE, reabierta.obtener("B00002").getNombreCliente());
+		reabierta.cerrar();
+	}
+
+	private RepositorioGarantiaBitacora abrir() {
+
+		RepositorioGarantiaBitacora bitacora = new RepositorioGarantiaBitacora(directorio, REGISTROS_POR_SEGMENTO,
+				PoliticaSincronizacion.SIEMPRE, 0, TimeUnit.MILLISECONDS);
+		bitacora.abrir();
+
+		return bitacora;
+	}
+
+	private GarantiaExtendida garantia(String codigo) {
+		return new GarantiaExtendida(new ProductoTestDataBuilder().conCodigo(codigo).build(), new Date(), new Date(),
+				100000, NOMBRE_CLIENTE);
+	}
+}
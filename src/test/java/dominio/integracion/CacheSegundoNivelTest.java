@@ -0,0 +1,122 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.stream.Stream;
+
+import javax.persistence.NoResultException;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.Producto;
+import persistencia.conexion.ConexionJPA;
+import persistencia.conexion.ProveedorEntityManager;
+import persistencia.importacion.ProgresoImportacion;
+import persistencia.repositorio.RepositorioProductoPersistente;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class CacheSegundoNivelTest {
+
+	private static final String CODIGO = "C00001";
+	private static final String CODIGO_NUEVO = "C00002";
+	private static final double PRECIO_ACTUALIZADO = 950000;
+
+	private ProveedorEntityManager proveedorEntityManager;
+
+	private RepositorioProductoPersistente repositorioProducto;
+
+	private Statistics estadisticas;
+
+	@Before
+	public void setUp() {
+
+		proveedorEntityManager = new ProveedorEntityManager(new ConexionJPA().getEntityManagerFactory());
+		repositorioProducto = new RepositorioProductoPersistente(proveedorEntityManager);
+		estadisticas = proveedorEntityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+		Producto producto = new ProductoTestDataBuilder().conCodigo(CODIGO).build();
+		proveedorEntityManager.ejecutarEnTransaccion(() -> {
+			repositorioProducto.agregar(producto);
+			return null;
+		});
+		proveedorEntityManager.cerrar();
+	}
+
+	@After
+	public void tearDown() {
+		proveedorEntityManager.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	@Test
+	public void lecturaDesdeOtroEntityManagerSinSentenciasTest() {
+
+		// arrange
+		leerEnEntityManagerNuevo(CODIGO);
+		leerEntityEnEntityManagerNuevo(CODIGO);
+		estadisticas.clear();
+
+		// act
+		Producto producto = leerEnEntityManagerNuevo(CODIGO);
+		String codigoEntity = leerEntityEnEntityManagerNuevo(CODIGO);
+
+		// assert
+		assertEquals(CODIGO, producto.getCodigo());
+		assertEquals(CODIGO, codigoEntity);
+		assertEquals(0, estadisticas.getPrepareStatementCount());
+		assertTrue(estadisticas.getQueryCacheHitCount() > 0);
+	}
+
+	@Test
+	public void agregarInvalidaConsultaCacheadaTest() {
+
+		// arrange
+		try {
+			leerEnEntityManagerNuevo(CODIGO_NUEVO);
+		} catch (NoResultException e) {
+			// el resultado vacio queda en la cache de consultas
+		}
+		Producto nuevo = new ProductoTestDataBuilder().conCodigo(CODIGO_NUEVO).build();
+
+		// act
+		proveedorEntityManager.ejecutarEnTransaccion(() -> {
+			repositorioProducto.agregar(nuevo);
+			return null;
+		});
+
+		// assert
+		assertEquals(CODIGO_NUEVO, leerEnEntityManagerNuevo(CODIGO_NUEVO).getCodigo());
+	}
+
+	@Test
+	public void importarInvalidaProductoCacheadoTest() {
+
+		// arrange
+		leerEnEntityManagerNuevo(CODIGO);
+		Producto actualizado = new ProductoTestDataBuilder().conCodigo(CODIGO).conPrecio(PRECIO_ACTUALIZADO).build();
+
+		// act
+		repositorioProducto.importar(Stream.of(actualizado), ProgresoImportacion.ninguno());
+
+		// assert
+		assertEquals(PRECIO_ACTUALIZADO, leerEnEntityManagerNuevo(CODIGO).getPrecio(), 0);
+	}
+
+	private Producto leerEnEntityManagerNuevo(String codigo) {
+
+		proveedorEntityManager.cerrar();
+		return proveedorEntityManager.ejecutarEnTransaccion(() -> repositorioProducto.obtenerPorCodigo(codigo));
+	}
+
+	private String leerEntityEnEntityManagerNuevo(String codigo) {
+
+		proveedorEntityManager.cerrar();
+		return proveedorEntityManager
+				.ejecutarEnTransaccion(() -> repositorioProducto.obtenerProductoEntityPorCodigo(codigo).getCodigo());
+	}
+}
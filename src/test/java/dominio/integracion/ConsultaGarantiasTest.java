@@ -0,0 +1,125 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.PaginaGarantias;
+import dominio.Producto;
+import dominio.SolicitudGarantia;
+import dominio.TramoPrecio;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioConsultaGarantia;
+import infraestructura.GeneradorFecha;
+import persistencia.conexion.ConexionJPA;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class ConsultaGarantiasTest {
+
+	private static final String CLIENTE_PRODUCTOS_ECONOMICOS = "Cliente economico";
+	private static final String CLIENTE_PRODUCTOS_COSTOSOS = "Cliente costoso";
+	private static final double PRECIO_ECONOMICO = 300000;
+	private static final double PRECIO_COSTOSO = 800000;
+	private static final long UN_DIA = TimeUnit.DAYS.toMillis(1);
+
+	private SistemaDePersistencia sistemaPersistencia;
+
+	private RepositorioConsultaGarantia repositorioConsultaGarantia;
+
+	@Before
+	public void setUp() {
+
+		sistemaPersistencia = new SistemaDePersistencia();
+		repositorioConsultaGarantia = sistemaPersistencia.obtenerRepositorioConsultaGarantia();
+
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.now());
+
+		List<Producto> productos = new ArrayList<>();
+		List<SolicitudGarantia> solicitudes = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			boolean costoso = i >= 3;
+			String codigo = "K0000" + i;
+			productos.add(new ProductoTestDataBuilder().conCodigo(codigo)
+					.conPrecio(costoso ? PRECIO_COSTOSO : PRECIO_ECONOMICO).build());
+			solicitudes.add(new SolicitudGarantia(codigo,
+					costoso ? CLIENTE_PRODUCTOS_COSTOSOS : CLIENTE_PRODUCTOS_ECONOMICOS));
+		}
+		sistemaPersistencia.obtenerRepositorioProductos().agregarTodos(productos.stream());
+
+		Vendedor vendedor = sistemaPersistencia.crearVendedor(generadorFecha);
+		sistemaPersistencia.ejecutar(() -> vendedor.generarGarantias(solicitudes));
+	}
+
+	@After
+	public void tearDown() {
+		sistemaPersistencia.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	@Test
+	public void buscarPorClientePaginadoTest() {
+
+		// act
+		PaginaGarantias primera = sistemaPersistencia
+				.ejecutar(() -> repositorioConsultaGarantia.buscarPorCliente(CLIENTE_PRODUCTOS_ECONOMICOS, null, 2));
+		PaginaGarantias segunda = sistemaPersistencia.ejecutar(() -> repositorioConsultaGarantia
+				.buscarPorCliente(CLIENTE_PRODUCTOS_ECONOMICOS, primera.getSiguienteCursor(), 2));
+
+		// assert
+		assertEquals(2, primera.getGarantias().size());
+		assertTrue(primera.hayMas());
+		assertEquals(1, segunda.getGarantias().size());
+		assertFalse(segunda.hayMas());
+		assertEquals("K00002", segunda.getGarantias().get(0).getProducto().getCodigo());
+	}
+
+	@Test
+	public void buscarPorTramoPrecioTest() {
+
+		// act
+		PaginaGarantias mayor = sistemaPersistencia
+				.ejecutar(() -> repositorioConsultaGarantia.buscarPorTramoPrecio(TramoPrecio.MAYOR, null, 10));
+		PaginaGarantias menor = sistemaPersistencia
+				.ejecutar(() -> repositorioConsultaGarantia.buscarPorTramoPrecio(TramoPrecio.MENOR, null, 10));
+
+		// assert
+		assertEquals(2, mayor.getGarantias().size());
+		assertEquals(3, menor.getGarantias().size());
+		for (GarantiaExtendida garantia : mayor.getGarantias()) {
+			assertTrue(garantia.getProducto().getPrecio() > Vendedor.LIMITE_PRECIO);
+		}
+		assertFalse(menor.hayMas());
+	}
+
+	@Test
+	public void buscarPorFechaSolicitudTest() {
+
+		// arrange
+		Date ahora = new Date();
+
+		// act
+		PaginaGarantias recientes = sistemaPersistencia.ejecutar(() -> repositorioConsultaGarantia
+				.buscarPorFechaSolicitud(new Date(ahora.getTime() - UN_DIA), new Date(ahora.getTime() + UN_DIA), null, 10));
+		PaginaGarantias antiguas = sistemaPersistencia.ejecutar(() -> repositorioConsultaGarantia.buscarPorFechaSolicitud(
+				new Date(ahora.getTime() - 3 * UN_DIA), new Date(ahora.getTime() - 2 * UN_DIA), null, 10));
+
+		// assert
+		assertEquals(5, recientes.getGarantias().size());
+		assertTrue(antiguas.getGarantias().isEmpty());
+	}
+}
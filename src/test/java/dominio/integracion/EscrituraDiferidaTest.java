@@ -0,0 +1,139 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import infraestructura.GeneradorFecha;
+import persistencia.conexion.ConexionJPA;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class EscrituraDiferidaTest {
+
+	private static final String HABILITADA = "tienda.escritura_diferida.habilitada";
+	private static final String TAMANO_GRUPO = "tienda.escritura_diferida.tamano_grupo";
+	private static final String ESPERA_MAXIMA_MS = "tienda.escritura_diferida.espera_maxima_ms";
+	private static final int GARANTIAS_POR_GRUPO = 5;
+	private static final String NOMBRE_CLIENTE = "Cliente diferido";
+
+	private SistemaDePersistencia sistemaPersistencia;
+
+	private RepositorioGarantiaExtendida repositorioGarantia;
+
+	private Vendedor vendedor;
+
+	private List<String> codigos = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+
+		System.setProperty(HABILITADA, "true");
+		System.setProperty(TAMANO_GRUPO, String.valueOf(GARANTIAS_POR_GRUPO));
+		System.setProperty(ESPERA_MAXIMA_MS, "2000");
+
+		sistemaPersistencia = new SistemaDePersistencia();
+		repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.now());
+		vendedor = sistemaPersistencia.crearVendedor(generadorFecha);
+
+		List<Producto> productos = new ArrayList<>();
+		for (int i = 0; i < 2 * GARANTIAS_POR_GRUPO; i++) {
+			String codigo = String.format("D%05d", i);
+			codigos.add(codigo);
+			productos.add(new ProductoTestDataBuilder().conCodigo(codigo).build());
+		}
+		sistemaPersistencia.obtenerRepositorioProductos().agregarTodos(productos.stream());
+	}
+
+	@After
+	public void tearDown() {
+		sistemaPersistencia.cerrar();
+		ConexionJPA.cerrar();
+		System.clearProperty(HABILITADA);
+		System.clearProperty(TAMANO_GRUPO);
+		System.clearProperty(ESPERA_MAXIMA_MS);
+	}
+
+	@Test
+	public void leerGarantiaPendienteTest() throws Exception {
+
+		// arrange
+		String codigo = codigos.get(0);
+
+		// act
+		sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(codigo, NOMBRE_CLIENTE));
+
+		// assert
+		assertTrue(sistemaPersistencia.ejecutar(() -> vendedor.tieneGarantia(codigo)));
+		assertNotNull(sistemaPersistencia.ejecutar(() -> repositorioGarantia.obtener(codigo)));
+		sistemaPersistencia.confirmacionGarantia(codigo).get();
+		assertEquals(NOMBRE_CLIENTE,
+				sistemaPersistencia.ejecutar(() -> repositorioGarantia.obtener(codigo)).getNombreCliente());
+	}
+
+	@Test
+	public void escribirEnGruposTest() throws Exception {
+
+		// arrange
+		List<CompletableFuture<Void>> confirmaciones = new ArrayList<>();
+
+		// act
+		for (String codigo : codigos) {
+			sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(codigo, NOMBRE_CLIENTE));
+			confirmaciones.add(sistemaPersistencia.confirmacionGarantia(codigo));
+		}
+		CompletableFuture.allOf(confirmaciones.toArray(new CompletableFuture<?>[0])).get();
+
+		// assert
+		assertEquals(codigos.size(),
+				sistemaPersistencia.ejecutar(() -> repositorioGarantia.obtenerCodigosConGarantia(codigos)).size());
+		assertEquals(2L, ManagementFactory.getPlatformMBeanServer()
+				.getAttribute(new ObjectName("tienda:type=EscrituraDiferida"), "GruposEscritos"));
+	}
+
+	@Test
+	public void rechazarGarantiaYaEscritaAlEncolarTest() throws Exception {
+
+		// arrange
+		String codigo = codigos.get(0);
+		sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(codigo, NOMBRE_CLIENTE));
+		sistemaPersistencia.confirmacionGarantia(codigo).get();
+		GarantiaExtendida duplicada = new GarantiaExtendida(new ProductoTestDataBuilder().conCodigo(codigo).build(),
+				new Date(), new Date(), 0, NOMBRE_CLIENTE);
+
+		// act
+		String mensaje = null;
+		try {
+			sistemaPersistencia.ejecutar(() -> repositorioGarantia.agregar(duplicada));
+		} catch (GarantiaExtendidaException e) {
+			mensaje = e.getMessage();
+		}
+
+		// assert
+		assertEquals(Vendedor.EL_PRODUCTO_TIENE_GARANTIA, mensaje);
+		assertTrue(sistemaPersistencia.confirmacionGarantia(codigo).isDone());
+	}
+}
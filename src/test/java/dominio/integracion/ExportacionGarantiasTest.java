@@ -0,0 +1,95 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.SolicitudGarantia;
+import dominio.Vendedor;
+import infraestructura.GeneradorFecha;
+import persistencia.conexion.ConexionJPA;
+import persistencia.exportacion.ExportadorGarantias;
+import persistencia.exportacion.FormatoExportacion;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class ExportacionGarantiasTest {
+
+	private static final String CODIGO_PRIMER_PRODUCTO = "F01TSA0150";
+	private static final String CODIGO_SEGUNDO_PRODUCTO = "F01TSB0151";
+	private static final String NOMBRE_CLIENTE = "Perez, Juan";
+
+	private SistemaDePersistencia sistemaPersistencia;
+
+	private ExportadorGarantias exportadorGarantias;
+
+	@Before
+	public void setUp() {
+
+		sistemaPersistencia = new SistemaDePersistencia();
+		exportadorGarantias = sistemaPersistencia.crearExportadorGarantias();
+
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.of(2018, 8, 16));
+
+		sistemaPersistencia.obtenerRepositorioProductos()
+				.agregarTodos(Stream.of(new ProductoTestDataBuilder().conCodigo(CODIGO_PRIMER_PRODUCTO).build(),
+						new ProductoTestDataBuilder().conCodigo(CODIGO_SEGUNDO_PRODUCTO).build()));
+
+		Vendedor vendedor = sistemaPersistencia.crearVendedor(generadorFecha);
+		sistemaPersistencia.ejecutar(() -> vendedor.generarGarantias(
+				Arrays.asList(new SolicitudGarantia(CODIGO_PRIMER_PRODUCTO, NOMBRE_CLIENTE),
+						new SolicitudGarantia(CODIGO_SEGUNDO_PRODUCTO, NOMBRE_CLIENTE))));
+	}
+
+	@After
+	public void tearDown() {
+		sistemaPersistencia.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	@Test
+	public void exportarCsvTest() {
+
+		// arrange
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+		// act
+		long exportadas = exportadorGarantias.exportar(Channels.newChannel(salida), FormatoExportacion.CSV);
+
+		// assert
+		String[] lineas = new String(salida.toByteArray(), StandardCharsets.UTF_8).split("\n");
+		assertEquals(2, exportadas);
+		assertEquals(3, lineas.length);
+		assertTrue(lineas[1].startsWith(CODIGO_PRIMER_PRODUCTO + ",Computador Lenovo,780000.0,\"Perez, Juan\","));
+	}
+
+	@Test
+	public void exportarJsonTest() {
+
+		// arrange
+		ByteArrayOutputStream salida = new ByteArrayOutputStream();
+
+		// act
+		long exportadas = exportadorGarantias.exportar(Channels.newChannel(salida), FormatoExportacion.JSON);
+
+		// assert
+		String[] lineas = new String(salida.toByteArray(), StandardCharsets.UTF_8).split("\n");
+		assertEquals(2, exportadas);
+		assertEquals(2, lineas.length);
+		assertTrue(lineas[1].startsWith("{\"codigo\":\"" + CODIGO_SEGUNDO_PRODUCTO + "\""));
+		assertTrue(lineas[1].contains("\"cliente\":\"" + NOMBRE_CLIENTE + "\""));
+	}
+}
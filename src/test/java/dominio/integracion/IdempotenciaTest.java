@@ -0,0 +1,129 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import infraestructura.GeneradorFecha;
+import persistencia.conexion.ConexionJPA;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class IdempotenciaTest {
+
+	private static final String CAPACIDAD = "tienda.idempotencia.capacidad";
+	private static final String NOMBRE_CLIENTE = "Cliente idempotente";
+
+	private SistemaDePersistencia sistemaPersistencia;
+
+	private Vendedor vendedor;
+
+	@Before
+	public void setUp() {
+
+		System.setProperty(CAPACIDAD, "1");
+
+		sistemaPersistencia = new SistemaDePersistencia();
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.now());
+		vendedor = sistemaPersistencia.crearVendedor(generadorFecha);
+	}
+
+	@After
+	public void tearDown() {
+		sistemaPersistencia.cerrar();
+		ConexionJPA.cerrar();
+		System.clearProperty(CAPACIDAD);
+	}
+
+	@Test
+	public void reintentoDesalojadoDeMemoriaSeResuelveEnH2Test() {
+
+		// arrange
+		Producto primero = new ProductoTestDataBuilder().conCodigo("P00001").build();
+		Producto segundo = new ProductoTestDataBuilder().conCodigo("P00002").build();
+		sistemaPersistencia.ejecutar(() -> {
+			sistemaPersistencia.obtenerRepositorioProductos().agregar(primero);
+			sistemaPersistencia.obtenerRepositorioProductos().agregar(segundo);
+		});
+		sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(primero.getCodigo(), NOMBRE_CLIENTE, "clave-1"));
+		sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(segundo.getCodigo(), NOMBRE_CLIENTE, "clave-2"));
+
+		// act
+		sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(primero.getCodigo(), NOMBRE_CLIENTE, "clave-1"));
+
+		// assert
+		try {
+			sistemaPersistencia
+					.ejecutar(() -> vendedor.generarGarantia(primero.getCodigo(), NOMBRE_CLIENTE, "clave-3"));
+			fail();
+		} catch (GarantiaExtendidaException e) {
+			assertEquals(Vendedor.EL_PRODUCTO_TIENE_GARANTIA, e.getMessage());
+		}
+	}
+
+	@Test
+	public void transaccionRevertidaPermiteReintentarTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().conCodigo("P00001").build();
+		sistemaPersistencia.ejecutar(() -> sistemaPersistencia.obtenerRepositorioProductos().agregar(producto));
+		try {
+			sistemaPersistencia.ejecutar(() -> {
+				vendedor.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE, "clave-1");
+				throw new IllegalStateException();
+			});
+			fail();
+		} catch (IllegalStateException e) {
+			// la transaccion se revierte con la garantia y el resultado
+		}
+
+		// act
+		sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE, "clave-1"));
+
+		// assert
+		assertTrue(sistemaPersistencia.ejecutar(() -> vendedor.tieneGarantia(producto.getCodigo())));
+	}
+
+	@Test
+	public void reintentoRechazadoNoConsultaLaBaseDeDatosTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().conCodigo("P00001").build();
+		sistemaPersistencia.ejecutar(() -> sistemaPersistencia.obtenerRepositorioProductos().agregar(producto));
+		sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE, "clave-1"));
+		generarRechazada(producto.getCodigo(), "clave-2");
+		Statistics estadisticas = new ConexionJPA().getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+		estadisticas.clear();
+
+		// act
+		generarRechazada(producto.getCodigo(), "clave-2");
+
+		// assert
+		assertEquals(0, estadisticas.getPrepareStatementCount());
+	}
+
+	private void generarRechazada(String codigo, String clave) {
+
+		try {
+			sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(codigo, NOMBRE_CLIENTE, clave));
+			fail();
+		} catch (GarantiaExtendidaException e) {
+			assertEquals(Vendedor.EL_PRODUCTO_TIENE_GARANTIA, e.getMessage());
+		}
+	}
+}
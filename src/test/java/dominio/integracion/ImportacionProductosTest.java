@@ -0,0 +1,137 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dominio.Producto;
+import dominio.repositorio.RepositorioProducto;
+import persistencia.conexion.ConexionJPA;
+import persistencia.importacion.LectorCsvProductos;
+import persistencia.importacion.ResumenImportacion;
+import persistencia.repositorio.jpa.RepositorioProductoJPA;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class ImportacionProductosTest {
+
+	private static final int TOTAL_PRODUCTOS = 2500;
+	private static final double PRECIO_INICIAL = 100000;
+	private static final double PRECIO_ACTUALIZADO = 120000;
+
+	@Rule
+	public TemporaryFolder carpetaTemporal = new TemporaryFolder();
+
+	private SistemaDePersistencia sistemaPersistencia;
+
+	private RepositorioProducto repositorioProducto;
+
+	@Before
+	public void setUp() {
+		sistemaPersistencia = new SistemaDePersistencia();
+		repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+	}
+
+	@After
+	public void tearDown() {
+		sistemaPersistencia.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	@Test
+	public void importarProductosEnLotesTest() {
+
+		// arrange
+		Stream<Producto> productos = IntStream.range(0, TOTAL_PRODUCTOS)
+				.mapToObj(i -> new ProductoTestDataBuilder().conCodigo(String.format("I%05d", i)).build());
+		List<ResumenImportacion> avances = new ArrayList<>();
+
+		// act
+		ResumenImportacion resumen = ((RepositorioProductoJPA) repositorioProducto).importar(productos, avances::add);
+
+		// assert
+		assertEquals(TOTAL_PRODUCTOS, resumen.getInsertados());
+		assertEquals(0, resumen.getActualizados());
+		assertEquals(3, avances.size());
+		assertEquals(TOTAL_PRODUCTOS, avances.get(2).getLeidos());
+		Producto ultimo = sistemaPersistencia.ejecutar(() -> repositorioProducto.obtenerPorCodigo("I02499"));
+		assertEquals("I02499", ultimo.getCodigo());
+	}
+
+	@Test
+	public void reimportarActualizaPrecioSinDuplicarTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().conPrecio(PRECIO_INICIAL).build();
+		repositorioProducto.agregarTodos(Stream.of(producto));
+		sistemaPersistencia.ejecutar(() -> repositorioProducto.obtenerPorCodigo(producto.getCodigo()));
+
+		// act
+		repositorioProducto
+				.agregarTodos(Stream.of(new ProductoTestDataBuilder().conPrecio(PRECIO_ACTUALIZADO).build()));
+
+		// assert
+		Producto actualizado = sistemaPersistencia
+				.ejecutar(() -> repositorioProducto.obtenerPorCodigo(producto.getCodigo()));
+		assertEquals(PRECIO_ACTUALIZADO, actualizado.getPrecio(), 0);
+	}
+
+	@Test
+	public void importarCodigosRepetidosEnUnLoteTest() {
+
+		// arrange
+		Stream<Producto> productos = Stream.of(
+				new ProductoTestDataBuilder().conCodigo("R00001").conPrecio(PRECIO_INICIAL).build(),
+				new ProductoTestDataBuilder().conCodigo("R00002").build(),
+				new ProductoTestDataBuilder().conCodigo("R00001").conPrecio(PRECIO_ACTUALIZADO).build());
+
+		// act
+		ResumenImportacion resumen = ((RepositorioProductoJPA) repositorioProducto).importar(productos, avance -> {
+		});
+
+		// assert
+		assertEquals(3, resumen.getLeidos());
+		assertEquals(2, resumen.getInsertados());
+		assertEquals(0, resumen.getActualizados());
+		assertEquals(1, resumen.getRepetidos());
+		assertEquals(PRECIO_ACTUALIZADO,
+				sistemaPersistencia.ejecutar(() -> repositorioProducto.obtenerPorCodigo("R00001")).getPrecio(), 0);
+	}
+
+	@Test
+	public void importarCsvTest() throws IOException {
+
+		// arrange
+		Path archivo = carpetaTemporal.newFile("productos.csv").toPath();
+		Files.write(archivo,
+				Arrays.asList("codigo,nombre,precio", "C0001,Portatil 14, 8GB,1500000", "C0002,Mouse,45000"),
+				StandardCharsets.UTF_8);
+
+		// act
+		ResumenImportacion resumen;
+		try (Stream<Producto> productos = LectorCsvProductos.leer(archivo)) {
+			resumen = ((RepositorioProductoJPA) repositorioProducto).importar(productos, avance -> {
+			});
+		}
+
+		// assert
+		assertEquals(2, resumen.getInsertados());
+		Producto portatil = sistemaPersistencia.ejecutar(() -> repositorioProducto.obtenerPorCodigo("C0001"));
+		assertEquals("Portatil 14, 8GB", portatil.getNombre());
+		assertEquals(1500000, portatil.getPrecio(), 0);
+	}
+}
@@ -0,0 +1,140 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.PaginaGarantias;
+import dominio.Producto;
+import dominio.SolicitudGarantia;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioConsultaGarantia;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import infraestructura.GeneradorFecha;
+import persistencia.conexion.ConexionJPA;
+import persistencia.entitad.GarantiaExtendidaEntity;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class PlanCargaGarantiasTest {
+
+	private static final String CODIGO = "P00001";
+	private static final String NOMBRE_CLIENTE = "Cliente plan de carga";
+	private static final int GARANTIAS = 5;
+
+	private SistemaDePersistencia sistemaPersistencia;
+
+	private RepositorioGarantiaExtendida repositorioGarantia;
+
+	private RepositorioConsultaGarantia repositorioConsultaGarantia;
+
+	private Statistics estadisticas;
+
+	@Before
+	public void setUp() {
+
+		sistemaPersistencia = new SistemaDePersistencia();
+		repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+		repositorioConsultaGarantia = sistemaPersistencia.obtenerRepositorioConsultaGarantia();
+		estadisticas = new ConexionJPA().getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.now());
+
+		List<Producto> productos = new ArrayList<>();
+		List<SolicitudGarantia> solicitudes = new ArrayList<>();
+		for (int i = 1; i <= GARANTIAS; i++) {
+			String codigo = "P0000" + i;
+			productos.add(new ProductoTestDataBuilder().conCodigo(codigo).build());
+			solicitudes.add(new SolicitudGarantia(codigo, NOMBRE_CLIENTE));
+		}
+		sistemaPersistencia.obtenerRepositorioProductos().agregarTodos(productos.stream());
+
+		Vendedor vendedor = sistemaPersistencia.crearVendedor(generadorFecha);
+		sistemaPersistencia.ejecutar(() -> vendedor.generarGarantias(solicitudes));
+	}
+
+	@After
+	public void tearDown() {
+		sistemaPersistencia.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	@Test
+	public void consultasPorCodigoUnaSentenciaTest() {
+
+		// act
+		long existe = contarSentencias(() -> assertTrue(repositorioGarantia.existeGarantia(CODIGO)));
+		long producto = contarSentencias(
+				() -> assertNotNull(repositorioGarantia.obtenerProductoConGarantiaPorCodigo(CODIGO)));
+		long garantia = contarSentencias(() -> assertNotNull(repositorioGarantia.obtener(CODIGO)));
+
+		// assert
+		assertEquals(1, existe);
+		assertEquals(1, producto);
+		assertEquals(1, garantia);
+	}
+
+	@Test
+	public void paginaConProductoUnaSentenciaTest() {
+
+		// arrange
+		List<PaginaGarantias> paginas = new ArrayList<>();
+
+		// act
+		long sentencias = contarSentencias(
+				() -> paginas.add(repositorioConsultaGarantia.buscarPorCliente(NOMBRE_CLIENTE, null, GARANTIAS)));
+
+		// assert
+		assertEquals(1, sentencias);
+		assertEquals(GARANTIAS, paginas.get(0).getGarantias().size());
+		for (GarantiaExtendida garantia : paginas.get(0).getGarantias()) {
+			assertNotNull(garantia.getProducto().getCodigo());
+		}
+	}
+
+	@Test
+	public void garantiaSinGrafoNoCargaProductoTest() {
+
+		// arrange
+		EntityManager entityManager = new ConexionJPA().createEntityManager();
+		estadisticas.clear();
+
+		// act
+		List<GarantiaExtendidaEntity> garantias = entityManager
+				.createQuery("SELECT garantia FROM GarantiaExtendida garantia", GarantiaExtendidaEntity.class)
+				.getResultList();
+
+		// assert
+		assertEquals(1, estadisticas.getPrepareStatementCount());
+		assertEquals(GARANTIAS, garantias.size());
+		for (GarantiaExtendidaEntity garantia : garantias) {
+			assertFalse(Hibernate.isInitialized(garantia.getProducto()));
+		}
+		entityManager.close();
+	}
+
+	private long contarSentencias(Runnable trabajo) {
+
+		estadisticas.clear();
+		sistemaPersistencia.ejecutar(trabajo);
+		return estadisticas.getPrepareStatementCount();
+	}
+}
@@ -0,0 +1,94 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Date;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import persistencia.conexion.ConexionJPA;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class RepositorioGarantiaIndexadoTest {
+
+	private static final String HABILITADO = "tienda.indice.garantias.habilitado";
+	private static final String NOMBRE_CLIENTE = "Cliente indexado";
+
+	private SistemaDePersistencia sistemaPersistencia;
+
+	private RepositorioGarantiaExtendida repositorioGarantia;
+
+	private Producto producto;
+
+	@Before
+	public void setUp() {
+
+		System.setProperty(HABILITADO, "true");
+
+		sistemaPersistencia = new SistemaDePersistencia();
+		repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+		producto = new ProductoTestDataBuilder().conCodigo("P00001").build();
+		sistemaPersistencia.ejecutar(() -> sistemaPersistencia.obtenerRepositorioProductos().agregar(producto));
+	}
+
+	@After
+	public void tearDown() {
+		sistemaPersistencia.cerrar();
+		ConexionJPA.cerrar();
+		System.clearProperty(HABILITADO);
+	}
+
+	@Test
+	public void garantiaRevertidaNoQuedaEnElIndiceTest() {
+
+		// arrange
+		try {
+			sistemaPersistencia.ejecutar(() -> {
+				repositorioGarantia.agregar(garantia(producto));
+				throw new IllegalStateException();
+			});
+			fail();
+		} catch (IllegalStateException e) {
+			// la transaccion se revierte con la garantia
+		}
+		Statistics estadisticas = new ConexionJPA().getEntityManagerFactory().unwrap(SessionFactory.class)
+				.getStatistics();
+		estadisticas.clear();
+
+		// act
+		boolean existe = sistemaPersistencia.ejecutar(() -> repositorioGarantia.existeGarantia(producto.getCodigo()));
+
+		// assert
+		assertFalse(existe);
+		assertEquals(0, estadisticas.getPrepareStatementCount());
+	}
+
+	@Test
+	public void garantiaSinConfirmarVisibleEnSuTransaccionTest() {
+
+		// act
+		boolean existe = sistemaPersistencia.ejecutar(() -> {
+			repositorioGarantia.agregar(garantia(producto));
+			return repositorioGarantia.existeGarantia(producto.getCodigo());
+		});
+
+		// assert
+		assertTrue(existe);
+		assertTrue(sistemaPersistencia.ejecutar(() -> repositorioGarantia.existeGarantia(producto.getCodigo())));
+	}
+
+	private GarantiaExtendida garantia(Producto producto) {
+		return new GarantiaExtendida(producto, new Date(), new Date(), producto.getPrecio() / 10, NOMBRE_CLIENTE);
+	}
+}
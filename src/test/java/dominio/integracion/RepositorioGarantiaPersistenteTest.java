@@ -0,0 +1,188 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import persistencia.conexion.ConexionJPA;
+import persistencia.conexion.ProveedorEntityManager;
+import persistencia.repositorio.RepositorioGarantiaPersistente;
+import persistencia.repositorio.RepositorioProductoPersistente;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class RepositorioGarantiaPersistenteTest {
+
+	private static final String NOMBRE_CLIENTE = "Cliente persistente";
+
+	private ProveedorEntityManager proveedorEntityManager;
+
+	private RepositorioProductoPersistente repositorioProducto;
+
+	private RepositorioGarantiaPersistente repositorioGarantia;
+
+	private Statistics estadisticas;
+
+	@Before
+	public void setUp() {
+
+		proveedorEntityManager = new ProveedorEntityManager(new ConexionJPA().getEntityManagerFactory());
+		repositorioProducto = new RepositorioProductoPersistente(proveedorEntityManager);
+		repositorioGarantia = new RepositorioGarantiaPersistente(proveedorEntityManager, repositorioProducto);
+		estadisticas = proveedorEntityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@After
+	public void tearDown() {
+		proveedorEntityManager.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	@Test
+	public void agregarGarantiaDuplicadaTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().conCodigo("P00001").build();
+		proveedorEntityManager.ejecutarEnTransaccion(() -> {
+			repositorioProducto.agregar(producto);
+			repositorioGarantia.agregar(garantia(producto));
+			return null;
+		});
+
+		// act
+		String mensaje = agregarEnTransaccion(garantia(producto));
+
+		// assert
+		assertEquals(Vendedor.EL_PRODUCTO_TIENE_GARANTIA, mensaje);
+	}
+
+	@Test
+	public void agregarGarantiaProductoInexistenteTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().conCodigo("P00404").build();
+
+		// act
+		String mensaje = agregarEnTransaccion(garantia(producto));
+
+		// assert
+		assertEquals(Vendedor.PRODUCTO_NO_EXISTE, mensaje);
+	}
+
+	@Test
+	public void agregarTodasTraduceRestriccionUnicaTest() {
+
+		// arrange
+		Producto individual = new ProductoTestDataBuilder().conCodigo("P00001").build();
+		Producto lote = new ProductoTestDataBuilder().conCodigo("P00002").build();
+		proveedorEntityManager.ejecutarEnTransaccion(() -> {
+			repositorioProducto.agregar(individual);
+			repositorioProducto.agregar(lote);
+			repositorioGarantia.agregar(garantia(individual));
+			repositorioGarantia.agregarTodas(Arrays.asList(garantia(lote)));
+			return null;
+		});
+
+		// act
+		String mensaje = null;
+		try {
+			proveedorEntityManager.ejecutarEnTransaccion(() -> {
+				repositorioGarantia.agregarTodas(Arrays.asList(garantia(lote)));
+				return null;
+			});
+		} catch (GarantiaExtendidaException e) {
+			mensaje = e.getMessage();
+		}
+
+		// assert
+		assertEquals(Vendedor.EL_PRODUCTO_TIENE_GARANTIA, mensaje);
+		assertTrue(proveedorEntityManager.ejecutarEnTransaccion(
+				() -> repositorioGarantia.existeGarantia(individual.getCodigo())
+						&& repositorioGarantia.existeGarantia(lote.getCodigo())));
+	}
+
+	@Test
+	public void agregarGarantiaUnaSentenciaTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().conCodigo("P00001").build();
+		proveedorEntityManager.ejecutarEnTransaccion(() -> {
+			repositorioProducto.agregar(producto);
+			return null;
+		});
+		proveedorEntityManager.cerrar();
+		estadisticas.clear();
+
+		// act
+		proveedorEntityManager.ejecutarEnTransaccion(() -> {
+			repositorioGarantia.agregar(garantia(producto));
+			return null;
+		});
+
+		// assert
+		assertEquals(1, estadisticas.getPrepareStatementCount());
+	}
+
+	@Test
+	public void agregarGarantiaConservaCacheDeProductosTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().conCodigo("P00001").build();
+		Producto otro = new ProductoTestDataBuilder().conCodigo("P00002").build();
+		proveedorEntityManager.ejecutarEnTransaccion(() -> {
+			repositorioProducto.agregar(producto);
+			repositorioProducto.agregar(otro);
+			return null;
+		});
+		leerEnEntityManagerNuevo(producto.getCodigo());
+		proveedorEntityManager.cerrar();
+		proveedorEntityManager.ejecutarEnTransaccion(() -> {
+			repositorioGarantia.agregar(garantia(otro));
+			return null;
+		});
+		estadisticas.clear();
+
+		// act
+		leerEnEntityManagerNuevo(producto.getCodigo());
+
+		// assert
+		assertEquals(0, estadisticas.getPrepareStatementCount());
+	}
+
+	private Producto leerEnEntityManagerNuevo(String codigo) {
+
+		proveedorEntityManager.cerrar();
+		return proveedorEntityManager.ejecutarEnTransaccion(() -> repositorioProducto.obtenerPorCodigo(codigo));
+	}
+
+	private String agregarEnTransaccion(GarantiaExtendida garantia) {
+
+		try {
+			proveedorEntityManager.ejecutarEnTransaccion(() -> {
+				repositorioGarantia.agregar(garantia);
+				return null;
+			});
+			fail();
+		} catch (GarantiaExtendidaException e) {
+			return e.getMessage();
+		}
+
+		return null;
+	}
+
+	private GarantiaExtendida garantia(Producto producto) {
+		return new GarantiaExtendida(producto, new Date(), new Date(), producto.getPrecio() / 10, NOMBRE_CLIENTE);
+	}
+}
@@ -0,0 +1,237 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import infraestructura.GeneradorFecha;
+import persistencia.conexion.ConexionJPA;
+import persistencia.repositorio.particionado.RepositorioGarantiaParticionado;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class RepositorioParticionadoTest {
+
+	private static final String HABILITADO = "tienda.particionado.habilitado";
+	private static final String PARTICIONES = "tienda.particionado.particiones";
+	private static final int HILOS = 4;
+	private static final int PRODUCTOS = 40;
+	private static final String NOMBRE_CLIENTE = "Cliente particionado";
+	private static final long ESPERA_RETIRO_MILLIS = 5000;
+
+	private SistemaDePersistencia sistemaPersistencia;
+
+	private GeneradorFecha generadorFecha;
+
+	private ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+
+	private List<String> codigos = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+
+		System.setProperty(HABILITADO, "true");
+		System.setProperty(PARTICIONES, String.valueOf(HILOS));
+
+		sistemaPersistencia = new SistemaDePersistencia();
+		generadorFecha = mock(GeneradorFecha.class);
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.now());
+
+		List<Producto> productos = new ArrayList<>();
+		for (int i = 0; i < PRODUCTOS; i++) {
+			String codigo = String.format("P%05d", i);
+			codigos.add(codigo);
+			productos.add(new ProductoTestDataBuilder().conCodigo(codigo).build());
+		}
+		sistemaPersistencia.obtenerRepositorioProductos().agregarTodos(productos.stream());
+	}
+
+	@After
+	public void tearDown() {
+		ejecutor.shutdownNow();
+		sistemaPersistencia.cerrar();
+		ConexionJPA.cerrar();
+		System.clearProperty(HABILITADO);
+		System.clearProperty(PARTICIONES);
+	}
+
+	@Test
+	public void cargarGarantiasPersistidasTest() throws Exception {
+
+		// arrange
+		Vendedor vendedor = sistemaPersistencia.crearVendedor(generadorFecha);
+		List<Future<?>> tareas = new ArrayList<>();
+		for (String codigo : codigos) {
+			tareas.add(ejecutor.submit(
+					() -> sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(codigo, NOMBRE_CLIENTE))));
+		}
+		List<CompletableFuture<Void>> confirmaciones = new ArrayList<>();
+		for (int i = 0; i < tareas.size(); i++) {
+			tareas.get(i).get();
+			confirmaciones.add(sistemaPersistencia.confirmacionGarantia(codigos.get(i)));
+		}
+		CompletableFuture.allOf(confirmaciones.toArray(new CompletableFuture<?>[0])).get();
+		sistemaPersistencia.cerrar();
+
+		// act
+		sistemaPersistencia = new SistemaDePersistencia();
+
+		// assert
+		assertEquals(PRODUCTOS,
+				sistemaPersistencia.obtenerRepositorioGarantia().obtenerCodigosConGarantia(codigos).size());
+		assertEquals(NOMBRE_CLIENTE,
+				sistemaPersistencia.obtenerRepositorioGarantia().obtener(codigos.get(0)).getNombreCliente());
+	}
+
+	@Test
+	public void garantiaUnicaEntreHilosTest() throws Exception {
+
+		// arrange
+		Vendedor vendedor = sistemaPersistencia.crearVendedor(generadorFecha);
+		String codigo = codigos.get(0);
+		List<Future<Boolean>> intentos = new ArrayList<>();
+
+		// act
+		for (int i = 0; i < HILOS; i++) {
+			intentos.add(ejecutor.submit(() -> {
+				try {
+					sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(codigo, NOMBRE_CLIENTE));
+					return true;
+				} catch (GarantiaExtendidaException e) {
+					return false;
+				}
+			}));
+		}
+
+		// assert
+		int exitosos = 0;
+		for (Future<Boolean> intento : intentos) {
+			exitosos += intento.get() ? 1 : 0;
+		}
+		assertEquals(1, exitosos);
+		sistemaPersistencia.confirmacionGarantia(codigo).get();
+		assertTrue(sistemaPersistencia.obtenerRepositorioGarantia().existeGarantia(codigo));
+	}
+
+	@Test
+	public void escrituraFallidaRetiraLaGarantiaDeMemoriaTest() throws Exception {
+
+		// arrange
+		RepositorioGarantiaExtendida repositorioPersistente = mock(RepositorioGarantiaExtendida.class);
+		doThrow(new IllegalStateException()).when(repositorioPersistente)
+				.agregarTodas(anyListOf(GarantiaExtendida.class));
+		doThrow(new IllegalStateException()).when(repositorioPersistente).agregar(any(GarantiaExtendida.class));
+		RepositorioGarantiaParticionado repositorio = new RepositorioGarantiaParticionado(HILOS,
+				repositorioPersistente, sistemaPersistencia, 10, 1, TimeUnit.MILLISECONDS, PRODUCTOS);
+		String codigo = codigos.get(0);
+
+		try {
+			// act
+			repositorio.agregar(garantia(codigo));
+
+			// assert
+			assertTrue(esperarRetiro(repositorio, codigo));
+			verify(repositorioPersistente, never()).existeGarantia(anyString());
+		} finally {
+			repositorio.cerrar();
+		}
+	}
+
+	@Test
+	public void loteFallidoRetiraTodasSusGarantiasDeMemoriaTest() throws Exception {
+
+		// arrange
+		CountDownLatch escribiendo = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		RepositorioGarantiaExtendida repositorioPersistente = mock(RepositorioGarantiaExtendida.class);
+		doAnswer(invocacion -> {
+			escribiendo.countDown();
+			liberar.await();
+			return null;
+		}).when(repositorioPersistente).agregarTodas(anyListOf(GarantiaExtendida.class));
+		RepositorioGarantiaParticionado repositorio = new RepositorioGarantiaParticionado(1, repositorioPersistente,
+				sistemaPersistencia, 1, 1, TimeUnit.MILLISECONDS, 1);
+		List<String> lote = codigos.subList(1, 4);
+		AtomicReference<RuntimeException> error = new AtomicReference<>();
+		Thread agregador = new Thread(() -> {
+			try {
+				repositorio.agregarTodas(Arrays.asList(garantia(lote.get(0)), garantia(lote.get(1)),
+						garantia(lote.get(2))));
+			} catch (RuntimeException e) {
+				error.set(e);
+			}
+		});
+
+		try {
+			repositorio.agregar(garantia(codigos.get(0)));
+			escribiendo.await(5, TimeUnit.SECONDS);
+
+			// act
+			agregador.start();
+			while (agregador.getState() != Thread.State.WAITING) {
+				Thread.sleep(1);
+			}
+			agregador.interrupt();
+			agregador.join();
+
+			// assert
+			assertTrue(error.get() instanceof IllegalStateException);
+			for (String codigo : lote) {
+				assertFalse(repositorio.existeGarantia(codigo));
+			}
+			assertTrue(repositorio.existeGarantia(codigos.get(0)));
+		} finally {
+			liberar.countDown();
+			repositorio.cerrar();
+		}
+	}
+
+	private GarantiaExtendida garantia(String codigo) {
+		Producto producto = new ProductoTestDataBuilder().conCodigo(codigo).build();
+		return new GarantiaExtendida(producto, new Date(), new Date(), producto.getPrecio(), NOMBRE_CLIENTE);
+	}
+
+	private boolean esperarRetiro(RepositorioGarantiaParticionado repositorio, String codigo)
+			throws InterruptedException {
+
+		long limite = System.currentTimeMillis() + ESPERA_RETIRO_MILLIS;
+		while (repositorio.existeGarantia(codigo)) {
+			if (System.currentTimeMillis() > limite) {
+				return false;
+			}
+			Thread.sleep(10);
+		}
+		return true;
+	}
+}
@@ -0,0 +1,77 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+
+import javax.persistence.NoResultException;
+import javax.persistence.PersistenceException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.Producto;
+import persistencia.conexion.ConexionJPA;
+import persistencia.conexion.ProveedorEntityManager;
+import persistencia.repositorio.RepositorioProductoPersistente;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class RepositorioProductoTest {
+
+	private static final String CODIGO = "N00001";
+	private static final String CODIGO_INEXISTENTE = "N99999";
+
+	private ProveedorEntityManager proveedorEntityManager;
+
+	private RepositorioProductoPersistente repositorioProducto;
+
+	@Before
+	public void setUp() {
+
+		proveedorEntityManager = new ProveedorEntityManager(new ConexionJPA().getEntityManagerFactory());
+		repositorioProducto = new RepositorioProductoPersistente(proveedorEntityManager);
+		agregar(new ProductoTestDataBuilder().conCodigo(CODIGO).build());
+	}
+
+	@After
+	public void tearDown() {
+		proveedorEntityManager.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	@Test
+	public void obtenerPorNaturalIdTest() {
+
+		// act
+		String codigo = proveedorEntityManager
+				.ejecutarEnTransaccion(() -> repositorioProducto.obtenerProductoEntityPorCodigo(CODIGO).getCodigo());
+
+		// assert
+		assertEquals(CODIGO, codigo);
+	}
+
+	@Test(expected = NoResultException.class)
+	public void obtenerCodigoInexistenteTest() {
+
+		// act
+		proveedorEntityManager
+				.ejecutarEnTransaccion(() -> repositorioProducto.obtenerProductoEntityPorCodigo(CODIGO_INEXISTENTE));
+	}
+
+	@Test(expected = PersistenceException.class)
+	public void agregarCodigoDuplicadoTest() {
+
+		// arrange
+		Producto duplicado = new ProductoTestDataBuilder().conCodigo(CODIGO).conNombre("Otro nombre").build();
+
+		// act
+		agregar(duplicado);
+	}
+
+	private void agregar(Producto producto) {
+
+		proveedorEntityManager.ejecutarEnTransaccion(() -> {
+			repositorioProducto.agregar(producto);
+			return null;
+		});
+	}
+}
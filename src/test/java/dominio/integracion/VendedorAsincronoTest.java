@@ -0,0 +1,73 @@
+package dominio.integracion;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.Producto;
+import infraestructura.GeneradorFecha;
+import infraestructura.asincrono.VendedorAsincrono;
+import persistencia.conexion.ConexionJPA;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class VendedorAsincronoTest {
+
+	private static final int PRODUCTOS = 50;
+	private static final String NOMBRE_CLIENTE = "Cliente asincrono";
+
+	private SistemaDePersistencia sistemaPersistencia;
+
+	private VendedorAsincrono vendedorAsincrono;
+
+	@Before
+	public void setUp() {
+
+		sistemaPersistencia = new SistemaDePersistencia();
+
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.now());
+		vendedorAsincrono = sistemaPersistencia.crearVendedorAsincrono(generadorFecha);
+	}
+
+	@After
+	public void tearDown() {
+		vendedorAsincrono.detener();
+		sistemaPersistencia.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	@Test
+	public void generarGarantiasAsincronasTest() throws Exception {
+
+		// arrange
+		List<Producto> productos = new ArrayList<>();
+		for (int i = 0; i < PRODUCTOS; i++) {
+			productos.add(new ProductoTestDataBuilder().conCodigo(String.format("A%05d", i)).build());
+		}
+		sistemaPersistencia.obtenerRepositorioProductos().agregarTodos(productos.stream());
+
+		// act
+		List<CompletableFuture<Void>> garantias = new ArrayList<>();
+		for (Producto producto : productos) {
+			garantias.add(vendedorAsincrono.generarGarantiaAsync(producto.getCodigo(), NOMBRE_CLIENTE));
+		}
+		CompletableFuture.allOf(garantias.toArray(new CompletableFuture<?>[0])).get();
+
+		// assert
+		for (Producto producto : productos) {
+			assertTrue(vendedorAsincrono.tieneGarantiaAsync(producto.getCodigo()).get());
+		}
+		assertEquals(0, vendedorAsincrono.getTareasFallidas());
+	}
+}
@@ -0,0 +1,37 @@
+package dominio.integracion;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import persistencia.repositorio.bitacora.PoliticaSincronizacion;
+import persistencia.repositorio.bitacora.RepositorioGarantiaBitacora;
+import persistencia.sistema.SistemaDePersistencia;
+
+public class VendedorBitacoraTest extends VendedorTest {
+
+	private static final int REGISTROS_POR_SEGMENTO = 2;
+
+	@Rule
+	public TemporaryFolder carpetaTemporal = new TemporaryFolder();
+
+	private RepositorioGarantiaBitacora repositorioGarantiaBitacora;
+
+	@Override
+	protected RepositorioGarantiaExtendida crearRepositorioGarantia(SistemaDePersistencia sistemaPersistencia) {
+
+		repositorioGarantiaBitacora = new RepositorioGarantiaBitacora(carpetaTemporal.getRoot().toPath(),
+				REGISTROS_POR_SEGMENTO, PoliticaSincronizacion.SIEMPRE, 0, TimeUnit.MILLISECONDS);
+		repositorioGarantiaBitacora.abrir();
+
+		return repositorioGarantiaBitacora;
+	}
+
+	@After
+	public void cerrarBitacora() {
+		repositorioGarantiaBitacora.cerrar();
+	}
+}
@@ -0,0 +1,163 @@
+package dominio.integracion;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.Cliente;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import infraestructura.GeneradorFecha;
+import persistencia.conexion.ConexionJPA;
+import persistencia.sistema.SistemaDePersistencia;
+import testdatabuilder.ClienteTestDataBuilder;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class VendedorConcurrenteTest {
+
+	private static final int HILOS = 4;
+	private static final int PRODUCTOS_POR_HILO = 25;
+
+	private SistemaDePersistencia sistemaPersistencia;
+
+	private RepositorioProducto repositorioProducto;
+	private RepositorioGarantiaExtendida repositorioGarantia;
+	private GeneradorFecha generadorFecha;
+
+	@Before
+	public void setUp() {
+
+		sistemaPersistencia = new SistemaDePersistencia();
+
+		repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
+		repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+		generadorFecha = mock(GeneradorFecha.class);
+
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.now());
+	}
+
+	@After
+	public void tearDown() {
+		sistemaPersistencia.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	@Test
+	public void generarGarantiasEnParaleloTest() throws Exception {
+
+		// arrange
+		List<String> codigos = new ArrayList<>();
+		for (int i = 0; i < HILOS * PRODUCTOS_POR_HILO; i++) {
+			codigos.add(String.format("P%05d", i));
+		}
+		sistemaPersistencia.ejecutar(() -> {
+			for (String codigo : codigos) {
+				repositorioProducto.agregar(new ProductoTestDataBuilder().conCodigo(codigo).build());
+			}
+		});
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia, generadorFecha);
+		Cliente cliente = new ClienteTestDataBuilder().build();
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+
+		// act
+		List<Future<?>> tareas = new ArrayList<>();
+		for (int hilo = 0; hilo < HILOS; hilo++) {
+			List<String> codigosHilo = codigos.subList(hilo * PRODUCTOS_POR_HILO, (hilo + 1) * PRODUCTOS_POR_HILO);
+			tareas.add(executor.submit(() -> {
+				for (String codigo : codigosHilo) {
+					sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(codigo, cliente.getNombre()));
+				}
+			}));
+		}
+		for (Future<?> tarea : tareas) {
+			tarea.get();
+		}
+		executor.shutdown();
+
+		// assert
+		Assert.assertEquals(codigos.size(),
+				sistemaPersistencia.ejecutar(() -> repositorioGarantia.obtenerCodigosConGarantia(codigos)).size());
+	}
+
+	@Test
+	public void generarGarantiaMismoCodigoEnParaleloTest() throws Exception {
+
+		// arrange
+		List<String> codigos = new ArrayList<>();
+		for (int i = 0; i < PRODUCTOS_POR_HILO; i++) {
+			codigos.add(String.format("P%05d", i));
+		}
+		sistemaPersistencia.ejecutar(() -> {
+			for (String codigo : codigos) {
+				repositorioProducto.agregar(new ProductoTestDataBuilder().conCodigo(codigo).build());
+			}
+		});
+		Vendedor vendedor = sistemaPersistencia.crearVendedor(generadorFecha);
+		Cliente cliente = new ClienteTestDataBuilder().build();
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+		AtomicInteger generadas = new AtomicInteger();
+		AtomicInteger rechazadas = new AtomicInteger();
+
+		// act
+		List<Future<?>> tareas = new ArrayList<>();
+		for (int hilo = 0; hilo < HILOS; hilo++) {
+			tareas.add(executor.submit(() -> {
+				for (String codigo : codigos) {
+					try {
+						sistemaPersistencia.ejecutar(() -> vendedor.generarGarantia(codigo, cliente.getNombre()));
+						generadas.incrementAndGet();
+					} catch (GarantiaExtendidaException e) {
+						Assert.assertEquals(Vendedor.EL_PRODUCTO_TIENE_GARANTIA, e.getMessage());
+						rechazadas.incrementAndGet();
+					}
+				}
+			}));
+		}
+		for (Future<?> tarea : tareas) {
+			tarea.get();
+		}
+		executor.shutdown();
+
+		// assert
+		Assert.assertEquals(codigos.size(), generadas.get());
+		Assert.assertEquals((HILOS - 1) * codigos.size(), rechazadas.get());
+	}
+
+	@Test
+	public void errorRevierteLaTransaccionDelHiloTest() {
+
+		// arrange
+		String codigo = "P09999";
+		try {
+			sistemaPersistencia.ejecutar(() -> {
+				repositorioProducto.agregar(new ProductoTestDataBuilder().conCodigo(codigo).build());
+				throw new StackOverflowError();
+			});
+			Assert.fail();
+		} catch (StackOverflowError e) {
+			// el error se propaga despues de revertir
+		}
+
+		// act
+		List<?> productos = sistemaPersistencia
+				.ejecutar(() -> repositorioProducto.obtenerPorCodigos(Arrays.asList(codigo)));
+
+		// assert
+		Assert.assertTrue(productos.isEmpty());
+	}
+}
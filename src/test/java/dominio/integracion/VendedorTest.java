@@ -6,6 +6,8 @@ import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -15,11 +17,14 @@ import org.junit.Test;
 import dominio.Cliente;
 import dominio.GarantiaExtendida;
 import dominio.Producto;
+import dominio.ResultadoGarantia;
+import dominio.SolicitudGarantia;
 import dominio.Vendedor;
 import dominio.excepcion.GarantiaExtendidaException;
 import dominio.repositorio.RepositorioGarantiaExtendida;
 import dominio.repositorio.RepositorioProducto;
 import infraestructura.GeneradorFecha;
+import persistencia.conexion.ConexionJPA;
 import persistencia.sistema.SistemaDePersistencia;
 import testdatabuilder.ClienteTestDataBuilder;
 import testdatabuilder.ProductoTestDataBuilder;
@@ -27,6 +32,9 @@ import testdatabuilder.ProductoTestDataBuilder;
 public class VendedorTest {
 
 	private static final String COMPUTADOR_LENOVO = "Computador Lenovo";
+	private static final String CODIGO_SEGUNDO_PRODUCTO = "F01TSB0151";
+	private static final String CODIGO_TRES_VOCALES = "FARNe1odf10";
+	private static final String CODIGO_INEXISTENTE = "F01TSC0152";
 
 	private static final double COSTO_PRODUCTO_MAYOR_BASE = 500000.1;
 	private static final double COSTO_PRODUCTO_MENOR_BASE = 499999;
@@ -45,7 +53,7 @@ public class VendedorTest {
 		sistemaPersistencia = new SistemaDePersistencia();
 
 		repositorioProducto = sistemaPersistencia.obtenerRepositorioProductos();
-		repositorioGarantia = sistemaPersistencia.obtenerRepositorioGarantia();
+		repositorioGarantia = crearRepositorioGarantia(sistemaPersistencia);
 		generadorFecha = mock(GeneradorFecha.class);
 
 		sistemaPersistencia.iniciar();
@@ -54,6 +62,12 @@ public class VendedorTest {
 	@After
 	public void tearDown() {
 		sistemaPersistencia.terminar();
+		sistemaPersistencia.cerrar();
+		ConexionJPA.cerrar();
+	}
+
+	protected RepositorioGarantiaExtendida crearRepositorioGarantia(SistemaDePersistencia sistemaPersistencia) {
+		return sistemaPersistencia.obtenerRepositorioGarantia();
 	}
 
 	@Test
@@ -333,4 +347,63 @@ public class VendedorTest {
 
 	}
 
+	@Test
+	public void generarGarantiasTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().conNombre(COMPUTADOR_LENOVO).build();
+		Producto segundoProducto = new ProductoTestDataBuilder().conCodigo(CODIGO_SEGUNDO_PRODUCTO)
+				.conPrecio(COSTO_PRODUCTO_MENOR_BASE).build();
+		Producto productoTresVocales = new ProductoTestDataBuilder().conCodigo(CODIGO_TRES_VOCALES).build();
+		repositorioProducto.agregar(producto);
+		repositorioProducto.agregar(segundoProducto);
+		repositorioProducto.agregar(productoTresVocales);
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia, generadorFecha);
+		Cliente cliente = new ClienteTestDataBuilder().build();
+
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.now());
+
+		// act
+		List<ResultadoGarantia> resultados = vendedor.generarGarantias(Arrays.asList(
+				new SolicitudGarantia(producto.getCodigo(), cliente.getNombre()),
+				new SolicitudGarantia(null, cliente.getNombre()),
+				new SolicitudGarantia(productoTresVocales.getCodigo(), cliente.getNombre()),
+				new SolicitudGarantia(producto.getCodigo(), cliente.getNombre()),
+				new SolicitudGarantia(CODIGO_INEXISTENTE, cliente.getNombre()),
+				new SolicitudGarantia(segundoProducto.getCodigo(), cliente.getNombre())));
+
+		// assert
+		Assert.assertEquals(6, resultados.size());
+		Assert.assertTrue(resultados.get(0).isExitosa());
+		Assert.assertEquals(Vendedor.CODIGO_PRODUCTO_NULL, resultados.get(1).getMensaje());
+		Assert.assertEquals(Vendedor.PRODUCTO_SIN_GARANTIA, resultados.get(2).getMensaje());
+		Assert.assertEquals(Vendedor.EL_PRODUCTO_TIENE_GARANTIA, resultados.get(3).getMensaje());
+		Assert.assertEquals(Vendedor.PRODUCTO_NO_EXISTE, resultados.get(4).getMensaje());
+		Assert.assertTrue(resultados.get(5).isExitosa());
+		Assert.assertTrue(vendedor.tieneGarantia(producto.getCodigo()));
+		Assert.assertEquals(49999.9, repositorioGarantia.obtener(segundoProducto.getCodigo()).getPrecioGarantia(),
+				1e-6);
+		Assert.assertNull(repositorioGarantia.obtenerProductoConGarantiaPorCodigo(productoTresVocales.getCodigo()));
+	}
+
+	@Test
+	public void generarGarantiasProductoYaTieneGarantiaTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().conNombre(COMPUTADOR_LENOVO).build();
+		repositorioProducto.agregar(producto);
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia, generadorFecha);
+		Cliente cliente = new ClienteTestDataBuilder().build();
+
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.now());
+		vendedor.generarGarantia(producto.getCodigo(), cliente.getNombre());
+
+		// act
+		List<ResultadoGarantia> resultados = vendedor
+				.generarGarantias(Arrays.asList(new SolicitudGarantia(producto.getCodigo(), cliente.getNombre())));
+
+		// assert
+		Assert.assertEquals(Vendedor.EL_PRODUCTO_TIENE_GARANTIA, resultados.get(0).getMensaje());
+	}
+
 }
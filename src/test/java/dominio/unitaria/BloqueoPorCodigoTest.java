@@ -0,0 +1,128 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import infraestructura.GeneradorFecha;
+import infraestructura.concurrencia.BloqueoPorCodigo;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class BloqueoPorCodigoTest {
+
+	private static final int HILOS = 8;
+	private static final int CODIGOS = 200;
+	private static final int FRANJAS = 1024;
+	private static final String CODIGO_OCUPADO = "A";
+	private static final String CODIGO_LIBRE = "B";
+
+	@Test
+	public void generarGarantiaMismoCodigoEnParaleloTest() throws Exception {
+
+		// arrange
+		Map<String, AtomicInteger> agregadas = new ConcurrentHashMap<>();
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		doAnswer(invocacion -> {
+			GarantiaExtendida garantia = (GarantiaExtendida) invocacion.getArguments()[0];
+			if (agregadas.containsKey(garantia.getProducto().getCodigo())) {
+				throw new GarantiaExtendidaException(Vendedor.EL_PRODUCTO_TIENE_GARANTIA);
+			}
+			Thread.yield();
+			agregadas.computeIfAbsent(garantia.getProducto().getCodigo(), codigo -> new AtomicInteger())
+					.incrementAndGet();
+			return null;
+		}).when(repositorioGarantia).agregar(any(GarantiaExtendida.class));
+
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+		when(repositorioProducto.obtenerPorCodigo(anyString())).thenAnswer(invocacion -> new ProductoTestDataBuilder()
+				.conCodigo((String) invocacion.getArguments()[0]).build());
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.now());
+
+		BloqueoPorCodigo bloqueoPorCodigo = new BloqueoPorCodigo(FRANJAS);
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia, generadorFecha, bloqueoPorCodigo);
+		CyclicBarrier salida = new CyclicBarrier(HILOS);
+		AtomicInteger rechazadas = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+
+		// act
+		List<Future<?>> tareas = new ArrayList<>();
+		for (int hilo = 0; hilo < HILOS; hilo++) {
+			tareas.add(executor.submit(() -> {
+				salida.await();
+				for (int i = 0; i < CODIGOS; i++) {
+					try {
+						vendedor.generarGarantia(String.format("P%05d", i), "Cliente");
+					} catch (GarantiaExtendidaException e) {
+						assertEquals(Vendedor.EL_PRODUCTO_TIENE_GARANTIA, e.getMessage());
+						rechazadas.incrementAndGet();
+					}
+				}
+				return null;
+			}));
+		}
+		for (Future<?> tarea : tareas) {
+			tarea.get();
+		}
+		executor.shutdown();
+
+		// assert
+		assertEquals(CODIGOS, agregadas.size());
+		for (AtomicInteger veces : agregadas.values()) {
+			assertEquals(1, veces.get());
+		}
+		assertEquals((HILOS - 1) * CODIGOS, rechazadas.get());
+	}
+
+	@Test
+	public void codigosDistintosNoSeEsperanTest() throws Exception {
+
+		// arrange
+		BloqueoPorCodigo bloqueoPorCodigo = new BloqueoPorCodigo(FRANJAS);
+		CountDownLatch tomado = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		Future<?> tarea = executor.submit(() -> bloqueoPorCodigo.ejecutar(CODIGO_OCUPADO, () -> {
+			tomado.countDown();
+			try {
+				liberar.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		tomado.await(5, TimeUnit.SECONDS);
+
+		// act
+		String codigo = bloqueoPorCodigo.ejecutar(CODIGO_LIBRE, () -> CODIGO_LIBRE);
+
+		// assert
+		assertEquals(CODIGO_LIBRE, codigo);
+		assertEquals(0, bloqueoPorCodigo.getEsperas());
+		liberar.countDown();
+		tarea.get();
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,113 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import dominio.CalculadoraFechaGarantia;
+import dominio.Vendedor;
+
+public class CalculadoraFechaGarantiaTest {
+
+	private static final double PRECIO_MAYOR_BASE = 500000.1;
+	private static final double PRECIO_IGUAL_BASE = 500000;
+	private static final LocalDate FECHA_DESDE = LocalDate.of(2015, 1, 1);
+	private static final LocalDate FECHA_HASTA = LocalDate.of(2030, 12, 31);
+
+	@Test
+	public void calcularFechaFinEquivalenteAlgoritmoDiarioTest() {
+
+		// arrange
+		CalculadoraFechaGarantia calculadora = new CalculadoraFechaGarantia();
+
+		for (LocalDate fechaInicio = FECHA_DESDE; !fechaInicio.isAfter(FECHA_HASTA); fechaInicio = fechaInicio
+				.plusDays(1)) {
+
+			// act
+			LocalDate fechaFinMayor = calculadora.calcularFechaFin(fechaInicio, PRECIO_MAYOR_BASE);
+			LocalDate fechaFinMenor = calculadora.calcularFechaFin(fechaInicio, PRECIO_IGUAL_BASE);
+
+			// assert
+			assertEquals(fechaInicio.toString(), calcularFechaFinMayorDiaADia(fechaInicio), fechaFinMayor);
+			assertEquals(fechaInicio.toString(), fechaInicio.plusDays(Vendedor.DIAS_GARANTIA_MENOR), fechaFinMenor);
+		}
+	}
+
+	@Test
+	public void calcularFechaFinEjemploTest() {
+
+		// arrange
+		CalculadoraFechaGarantia calculadora = new CalculadoraFechaGarantia();
+
+		// act
+		LocalDate fechaFin = calculadora.calcularFechaFin(LocalDate.of(2018, 8, 16), 650000);
+		LocalDate fechaFinDomingo = calculadora.calcularFechaFin(LocalDate.of(2018, 8, 17), PRECIO_MAYOR_BASE);
+
+		// assert
+		assertEquals(LocalDate.of(2019, 4, 6), fechaFin);
+		assertEquals(LocalDate.of(2019, 4, 8), fechaFinDomingo);
+	}
+
+	@Test
+	public void calcularFechasFinEnBloqueTest() {
+
+		// arrange
+		CalculadoraFechaGarantia calculadora = new CalculadoraFechaGarantia();
+		List<LocalDate> fechasInicio = new ArrayList<>();
+		long[] diasInicio = new long[DayOfWeek.values().length * 2];
+		double[] precios = new double[diasInicio.length];
+		long[] diasFinEsperados = new long[diasInicio.length];
+
+		for (int i = 0; i < diasInicio.length; i++) {
+			LocalDate fechaInicio = FECHA_DESDE.plusDays(i);
+			fechasInicio.add(fechaInicio);
+			diasInicio[i] = fechaInicio.toEpochDay();
+			precios[i] = i % 2 == 0 ? PRECIO_MAYOR_BASE : PRECIO_IGUAL_BASE;
+			diasFinEsperados[i] = calculadora.calcularFechaFin(fechaInicio, precios[i]).toEpochDay();
+		}
+
+		// act
+		List<LocalDate> fechasFin = calculadora.calcularFechasFin(fechasInicio, PRECIO_MAYOR_BASE);
+		long[] diasFin = new long[diasInicio.length];
+		calculadora.calcularDiasFin(diasInicio, precios, diasFin);
+
+		// assert
+		for (int i = 0; i < fechasInicio.size(); i++) {
+			assertEquals(calcularFechaFinMayorDiaADia(fechasInicio.get(i)), fechasFin.get(i));
+		}
+		assertArrayEquals(diasFinEsperados, diasFin);
+	}
+
+	private LocalDate calcularFechaFinMayorDiaADia(LocalDate fechaInicio) {
+
+		LocalDate fechaFin = fechaInicio.plusDays(Vendedor.DIAS_GARANTIA_MAYOR);
+		int iter = 2;
+
+		while (iter > 0) {
+			int lunes = 0;
+
+			while (fechaFin.isAfter(fechaInicio) || fechaFin.equals(fechaInicio)) {
+				if (DayOfWeek.MONDAY.equals(fechaInicio.getDayOfWeek())) {
+					lunes++;
+				}
+				fechaInicio = fechaInicio.plusDays(1);
+			}
+
+			fechaFin = fechaFin.plusDays(lunes);
+
+			--iter;
+		}
+
+		if (DayOfWeek.SUNDAY.equals(fechaFin.getDayOfWeek())) {
+			fechaFin = fechaFin.plusDays(1);
+		}
+
+		return fechaFin;
+	}
+}
@@ -0,0 +1,118 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import dominio.CalculadoraFechaGarantia;
+import dominio.CotizacionGarantia;
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import infraestructura.GeneradorFecha;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class CotizacionGarantiaTest {
+
+	private static final LocalDate FECHA_ACTUAL = LocalDate.of(2018, 8, 16);
+	private static final int FILAS = 10000;
+	private static final double PRECIO_MAYOR = 650000;
+
+	@Test
+	public void cotizarGarantiaSinGuardarTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().conPrecio(PRECIO_MAYOR).build();
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+		when(repositorioProducto.obtenerPorCodigos(Arrays.asList(producto.getCodigo())))
+				.thenReturn(Arrays.asList(producto));
+		when(generadorFecha.obtenerFechaActual()).thenReturn(FECHA_ACTUAL);
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia, generadorFecha);
+
+		// act
+		CotizacionGarantia cotizacion = vendedor.cotizarGarantia(producto.getCodigo());
+
+		// assert
+		assertTrue(cotizacion.isExitosa());
+		assertEquals(130000.0, cotizacion.getPrecioGarantia(), 1e-6);
+		assertEquals(LocalDate.of(2019, 4, 6),
+				cotizacion.getFechaFinGarantia().toInstant().atZone(ZoneId.systemDefault()).toLocalDate());
+		verify(repositorioGarantia, never()).agregar(any(GarantiaExtendida.class));
+	}
+
+	@Test
+	public void cotizarCatalogoTest() {
+
+		// arrange
+		String[] codigos = new String[FILAS];
+		double[] precios = new double[FILAS];
+		for (int i = 0; i < FILAS; i++) {
+			codigos[i] = String.format("C%05d", i);
+			precios[i] = i % 2 == 0 ? PRECIO_MAYOR : Vendedor.LIMITE_PRECIO;
+		}
+		codigos[1] = null;
+		codigos[2] = "FARNe1odf10";
+		precios[3] = Double.NaN;
+
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+		when(repositorioGarantia.obtenerCodigosConGarantia(anyCollectionOf(String.class)))
+				.thenReturn(new HashSet<>(Collections.singletonList(codigos[4])));
+		when(generadorFecha.obtenerFechaActual()).thenReturn(FECHA_ACTUAL);
+		Vendedor vendedor = new Vendedor(mock(RepositorioProducto.class), repositorioGarantia, generadorFecha);
+
+		List<String> codigosRecibidos = new ArrayList<>();
+		List<String> mensajes = new ArrayList<>();
+		double[] preciosGarantia = new double[FILAS];
+		long[] diasFin = new long[FILAS];
+		List<Thread> hilos = new ArrayList<>();
+		ForkJoinPool pool = new ForkJoinPool(2);
+
+		// act
+		try {
+			vendedor.cotizarCatalogo(codigos, precios, (codigo, precioGarantia, diaFinGarantia, mensaje) -> {
+				preciosGarantia[codigosRecibidos.size()] = precioGarantia;
+				diasFin[codigosRecibidos.size()] = diaFinGarantia;
+				codigosRecibidos.add(codigo);
+				mensajes.add(mensaje);
+				hilos.add(Thread.currentThread());
+			}, pool);
+		} finally {
+			pool.shutdown();
+		}
+
+		// assert
+		assertEquals(Arrays.asList(codigos), codigosRecibidos);
+		assertTrue(hilos.stream().allMatch(hilo -> hilo == Thread.currentThread()));
+		assertEquals(Vendedor.CODIGO_PRODUCTO_NULL, mensajes.get(1));
+		assertEquals(Vendedor.PRODUCTO_SIN_GARANTIA, mensajes.get(2));
+		assertEquals(Vendedor.PRODUCTO_NO_EXISTE, mensajes.get(3));
+		assertEquals(Vendedor.EL_PRODUCTO_TIENE_GARANTIA, mensajes.get(4));
+		assertNull(mensajes.get(FILAS - 1));
+		assertEquals(130000.0, preciosGarantia[FILAS - 2], 1e-6);
+		assertEquals(50000.0, preciosGarantia[FILAS - 1], 1e-6);
+		assertEquals(new CalculadoraFechaGarantia().calcularDiaFin(FECHA_ACTUAL.toEpochDay(), PRECIO_MAYOR),
+				diasFin[FILAS - 2]);
+	}
+}
@@ -0,0 +1,60 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import dominio.Producto;
+import persistencia.entitad.ProductoEntity;
+import persistencia.repositorio.RepositorioProductoPersistente;
+import persistencia.repositorio.cache.RepositorioProductoCache;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class RepositorioProductoCacheTest {
+
+	@Test
+	public void cacheaProductoDeDominioTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().build();
+		RepositorioProductoPersistente repositorioProducto = mock(RepositorioProductoPersistente.class);
+		when(repositorioProducto.obtenerPorCodigo(producto.getCodigo())).thenReturn(producto);
+		RepositorioProductoCache repositorioProductoCache = new RepositorioProductoCache(repositorioProducto, 10, 1,
+				TimeUnit.HOURS);
+		repositorioProductoCache.obtenerPorCodigo(producto.getCodigo());
+
+		// act
+		Producto cacheado = repositorioProductoCache.obtenerPorCodigo(producto.getCodigo());
+
+		// assert
+		assertSame(producto, cacheado);
+		verify(repositorioProducto, times(1)).obtenerPorCodigo(producto.getCodigo());
+		assertEquals(1, repositorioProductoCache.getEstadisticas().getAciertos());
+	}
+
+	@Test
+	public void noCacheaEntitiesTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().build();
+		RepositorioProductoPersistente repositorioProducto = mock(RepositorioProductoPersistente.class);
+		when(repositorioProducto.obtenerProductoEntityPorCodigo(producto.getCodigo()))
+				.thenReturn(new ProductoEntity());
+		RepositorioProductoCache repositorioProductoCache = new RepositorioProductoCache(repositorioProducto, 10, 1,
+				TimeUnit.HOURS);
+
+		// act
+		repositorioProductoCache.obtenerProductoEntityPorCodigo(producto.getCodigo());
+		repositorioProductoCache.obtenerProductoEntityPorCodigo(producto.getCodigo());
+
+		// assert
+		verify(repositorioProducto, times(2)).obtenerProductoEntityPorCodigo(producto.getCodigo());
+	}
+}
@@ -0,0 +1,55 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+import dominio.Producto;
+import persistencia.repositorio.compacto.RepositorioProductoCompacto;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class RepositorioProductoCompactoTest {
+
+	private static final int PRODUCTOS = 1000;
+
+	@Test
+	public void obtenerProductosDespuesDeCrecerTest() {
+
+		// arrange
+		RepositorioProductoCompacto repositorio = new RepositorioProductoCompacto(1);
+
+		// act
+		repositorio.agregarTodos(IntStream.range(0, PRODUCTOS)
+				.mapToObj(i -> new Producto(String.format("C%05d", i), "Producto " + i, i)));
+
+		// assert
+		assertEquals(PRODUCTOS, repositorio.getProductos());
+		assertEquals("Producto 500", repositorio.obtenerPorCodigo("C00500").getNombre());
+		assertEquals(999, repositorio.precioPorCodigo("C00999"), 0);
+		assertEquals(2, repositorio.obtenerPorCodigos(Arrays.asList("C00001", "X00001", "C00002")).size());
+		assertNull(repositorio.obtenerPorCodigo("X00001"));
+		assertEquals(Double.NaN, repositorio.precioPorCodigo("X00001"), 0);
+	}
+
+	@Test
+	public void actualizarProductoExistenteTest() {
+
+		// arrange
+		RepositorioProductoCompacto repositorio = new RepositorioProductoCompacto(16);
+		Producto producto = new ProductoTestDataBuilder().build();
+		repositorio.agregar(producto);
+
+		// act
+		repositorio.agregarTodos(Stream.of(new Producto(producto.getCodigo(), "Port\u00e1til Lenovo", 123)));
+
+		// assert
+		assertEquals(1, repositorio.getProductos());
+		assertEquals("Port\u00e1til Lenovo", repositorio.obtenerPorCodigo(producto.getCodigo()).getNombre());
+		assertEquals(123, repositorio.precioPorCodigo(producto.getCodigo()), 0);
+	}
+}
@@ -0,0 +1,120 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import dominio.Vendedor;
+import infraestructura.UnidadDeTrabajo;
+import infraestructura.asincrono.PoliticaRechazo;
+import infraestructura.asincrono.VendedorAsincrono;
+
+public class VendedorAsincronoTest {
+
+	private static final String CODIGO = "F01TSA0150";
+	private static final String NOMBRE_CLIENTE = "Cliente";
+
+	private static final UnidadDeTrabajo SIN_TRANSACCION = new UnidadDeTrabajo() {
+
+		@Override
+		public <T> T ejecutar(Supplier<T> trabajo) {
+			return trabajo.get();
+		}
+
+		@Override
+		public void ejecutar(Runnable trabajo) {
+			trabajo.run();
+		}
+
+		@Override
+		public void alTerminar(Runnable alConfirmar, Runnable alCancelar) {
+			alConfirmar.run();
+		}
+	};
+
+	@Test
+	public void tieneGarantiaAsyncTest() throws Exception {
+
+		// arrange
+		Vendedor vendedor = mock(Vendedor.class);
+		when(vendedor.tieneGarantia(CODIGO)).thenReturn(true);
+		VendedorAsincrono vendedorAsincrono = new VendedorAsincrono(vendedor, SIN_TRANSACCION, 2, 10,
+				PoliticaRechazo.RECHAZAR, false);
+
+		// act
+		boolean tieneGarantia = vendedorAsincrono.tieneGarantiaAsync(CODIGO).get();
+
+		// assert
+		assertTrue(tieneGarantia);
+		assertEquals(1, vendedorAsincrono.getTareasCompletadas());
+		vendedorAsincrono.detener();
+	}
+
+	@Test
+	public void rechazaConColaLlenaTest() throws Exception {
+
+		// arrange
+		Vendedor vendedor = mock(Vendedor.class);
+		CountDownLatch liberar = new CountDownLatch(1);
+		doAnswer(invocacion -> {
+			liberar.await();
+			return null;
+		}).when(vendedor).generarGarantia(CODIGO, NOMBRE_CLIENTE);
+		VendedorAsincrono vendedorAsincrono = new VendedorAsincrono(vendedor, SIN_TRANSACCION, 1, 1,
+				PoliticaRechazo.RECHAZAR, false);
+
+		// act
+		CompletableFuture<Void> enCurso = vendedorAsincrono.generarGarantiaAsync(CODIGO, NOMBRE_CLIENTE);
+		CompletableFuture<Void> enCola = vendedorAsincrono.generarGarantiaAsync(CODIGO, NOMBRE_CLIENTE);
+		CompletableFuture<Void> rechazada = vendedorAsincrono.generarGarantiaAsync(CODIGO, NOMBRE_CLIENTE);
+
+		// assert
+		assertEquals(1, vendedorAsincrono.getTareasEnCola());
+		try {
+			rechazada.get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof RejectedExecutionException);
+		}
+		liberar.countDown();
+		CompletableFuture.allOf(enCurso, enCola).get();
+		assertEquals(1, vendedorAsincrono.getTareasRechazadas());
+		assertEquals(2, vendedorAsincrono.getTareasCompletadas());
+		vendedorAsincrono.detener();
+	}
+
+	@Test
+	public void errorCompletaElFuturoTest() throws Exception {
+
+		// arrange
+		Vendedor vendedor = mock(Vendedor.class);
+		when(vendedor.tieneGarantia(CODIGO)).thenThrow(new NoClassDefFoundError("dominio.Producto"));
+		VendedorAsincrono vendedorAsincrono = new VendedorAsincrono(vendedor, SIN_TRANSACCION, 1, 10,
+				PoliticaRechazo.RECHAZAR, false);
+
+		// act
+		CompletableFuture<Boolean> tieneGarantia = vendedorAsincrono.tieneGarantiaAsync(CODIGO);
+
+		// assert
+		try {
+			tieneGarantia.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof NoClassDefFoundError);
+		}
+		assertEquals(1, vendedorAsincrono.getTareasFallidas());
+		vendedorAsincrono.detener();
+	}
+}
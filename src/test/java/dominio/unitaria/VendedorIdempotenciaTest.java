@@ -0,0 +1,154 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import dominio.GarantiaExtendida;
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import infraestructura.GeneradorFecha;
+import infraestructura.UnidadDeTrabajo;
+import persistencia.repositorio.idempotencia.RepositorioIdempotenciaMemoria;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class VendedorIdempotenciaTest {
+
+	private static final String CLAVE = "pos-7-000123";
+	private static final String NOMBRE_CLIENTE = "Cliente";
+
+	private Producto producto;
+	private RepositorioProducto repositorioProducto;
+	private RepositorioGarantiaExtendida repositorioGarantia;
+	private GeneradorFecha generadorFecha;
+	private Vendedor vendedor;
+
+	@Before
+	public void setUp() {
+
+		producto = new ProductoTestDataBuilder().build();
+		repositorioProducto = mock(RepositorioProducto.class);
+		repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		generadorFecha = mock(GeneradorFecha.class);
+		when(repositorioProducto.obtenerPorCodigo(producto.getCodigo())).thenReturn(producto);
+		when(generadorFecha.obtenerFechaActual()).thenReturn(LocalDate.now());
+
+		vendedor = new Vendedor(repositorioProducto, repositorioGarantia, generadorFecha, null,
+				new RepositorioIdempotenciaMemoria(100, 1, TimeUnit.HOURS));
+	}
+
+	@Test
+	public void reintentoExitosoNoConsultaRepositoriosTest() {
+
+		// arrange
+		vendedor.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE, CLAVE);
+		verify(repositorioGarantia).agregar(any(GarantiaExtendida.class));
+		reset(repositorioProducto, repositorioGarantia);
+
+		// act
+		vendedor.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE, CLAVE);
+
+		// assert
+		verifyZeroInteractions(repositorioProducto, repositorioGarantia);
+	}
+
+	@Test
+	public void reintentoRechazadoRepiteMensajeTest() {
+
+		// arrange
+		doThrow(new GarantiaExtendidaException(Vendedor.EL_PRODUCTO_TIENE_GARANTIA)).when(repositorioGarantia)
+				.agregar(any(GarantiaExtendida.class));
+		try {
+			vendedor.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE, CLAVE);
+			fail();
+		} catch (GarantiaExtendidaException e) {
+			assertEquals(Vendedor.EL_PRODUCTO_TIENE_GARANTIA, e.getMessage());
+		}
+		reset(repositorioProducto, repositorioGarantia);
+
+		try {
+			// act
+			vendedor.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE, CLAVE);
+			fail();
+		} catch (GarantiaExtendidaException e) {
+			// assert
+			assertEquals(Vendedor.EL_PRODUCTO_TIENE_GARANTIA, e.getMessage());
+			verifyZeroInteractions(repositorioProducto, repositorioGarantia);
+		}
+	}
+
+	@Test
+	public void transaccionRevertidaNoRegistraResultadoTest() {
+
+		// arrange
+		UnidadDeTrabajo unidadDeTrabajo = mock(UnidadDeTrabajo.class);
+		doAnswer(invocacion -> {
+			((Runnable) invocacion.getArguments()[1]).run();
+			return null;
+		}).when(unidadDeTrabajo).alTerminar(any(Runnable.class), any(Runnable.class));
+		Vendedor vendedorRevertido = new Vendedor(repositorioProducto, repositorioGarantia, generadorFecha, null,
+				new RepositorioIdempotenciaMemoria(100, 1, TimeUnit.HOURS, null, unidadDeTrabajo));
+		vendedorRevertido.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE, CLAVE);
+
+		// act
+		vendedorRevertido.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE, CLAVE);
+
+		// assert
+		verify(repositorioGarantia, times(2)).agregar(any(GarantiaExtendida.class));
+	}
+
+	@Test
+	public void solicitudesConcurrentesConLaMismaClaveGeneranUnaVezTest() throws Exception {
+
+		// arrange
+		CountDownLatch generando = new CountDownLatch(1);
+		CountDownLatch liberar = new CountDownLatch(1);
+		doAnswer(invocacion -> {
+			generando.countDown();
+			liberar.await();
+			return null;
+		}).when(repositorioGarantia).agregar(any(GarantiaExtendida.class));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		Future<?> primera = executor
+				.submit(() -> vendedor.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE, CLAVE));
+		generando.await(5, TimeUnit.SECONDS);
+
+		// act
+		Future<?> segunda = executor
+				.submit(() -> vendedor.generarGarantia(producto.getCodigo(), NOMBRE_CLIENTE, CLAVE));
+
+		// assert
+		try {
+			segunda.get(100, TimeUnit.MILLISECONDS);
+			fail();
+		} catch (TimeoutException e) {
+			liberar.countDown();
+		}
+		primera.get();
+		segunda.get();
+		executor.shutdown();
+		verify(repositorioGarantia).agregar(any(GarantiaExtendida.class));
+	}
+}
@@ -0,0 +1,76 @@
+package dominio.unitaria;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+
+import dominio.Producto;
+import dominio.Vendedor;
+import dominio.VendedorInstrumentado;
+import dominio.excepcion.GarantiaExtendidaException;
+import dominio.repositorio.RepositorioGarantiaExtendida;
+import dominio.repositorio.RepositorioProducto;
+import infraestructura.GeneradorFecha;
+import infraestructura.metricas.EstadisticasMetodo;
+import infraestructura.metricas.RegistroMetricas;
+import testdatabuilder.ProductoTestDataBuilder;
+
+public class VendedorInstrumentadoTest {
+
+	private static final String CODIGO_TRES_VOCALES = "FARNe1odf10";
+
+	@Test
+	public void registraLlamadaYLatenciaTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().build();
+
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+		RegistroMetricas registroMetricas = new RegistroMetricas();
+
+		when(repositorioGarantia.existeGarantia(producto.getCodigo())).thenReturn(true);
+
+		Vendedor vendedor = new VendedorInstrumentado(repositorioProducto, repositorioGarantia, generadorFecha,
+				registroMetricas);
+
+		// act
+		vendedor.tieneGarantia(producto.getCodigo());
+		vendedor.tieneGarantia(producto.getCodigo());
+
+		// assert
+		EstadisticasMetodo estadisticas = registroMetricas.metrica("Vendedor.tieneGarantia").getEstadisticas();
+		assertEquals(2, estadisticas.getLlamadas());
+		assertEquals(0, estadisticas.getErrores());
+		assertTrue(estadisticas.getLatenciaMaximaMicros() >= estadisticas.getLatenciaP50Micros());
+	}
+
+	@Test
+	public void registraErroresPorMensajeTest() {
+
+		// arrange
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+		RegistroMetricas registroMetricas = new RegistroMetricas();
+
+		Vendedor vendedor = new VendedorInstrumentado(repositorioProducto, repositorioGarantia, generadorFecha,
+				registroMetricas);
+
+		// act
+		try {
+			vendedor.generarGarantia(CODIGO_TRES_VOCALES, "Cliente");
+			fail();
+		} catch (GarantiaExtendidaException e) {
+			// assert
+			EstadisticasMetodo estadisticas = registroMetricas.metrica("Vendedor.generarGarantia").getEstadisticas();
+			assertEquals(1, estadisticas.getErrores());
+			assertEquals(Long.valueOf(1), estadisticas.getErroresPorMensaje().get(Vendedor.PRODUCTO_SIN_GARANTIA));
+		}
+	}
+}
@@ -1,17 +1,28 @@
 package dominio.unitaria;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import org.junit.Test;
 
+import dominio.GarantiaExtendida;
 import dominio.Producto;
+import dominio.SolicitudGarantia;
 import dominio.Vendedor;
+import dominio.excepcion.GarantiaExtendidaException;
 import dominio.repositorio.RepositorioGarantiaExtendida;
 import dominio.repositorio.RepositorioProducto;
 import infraestructura.GeneradorFecha;
+import persistencia.repositorio.compacto.RepositorioProductoCompacto;
 import testdatabuilder.ProductoTestDataBuilder;
 
 public class VendedorTest {
@@ -28,7 +39,7 @@ public class VendedorTest {
 		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
 		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
 
-		when(repositorioGarantia.obtenerProductoConGarantiaPorCodigo(producto.getCodigo())).thenReturn(producto);
+		when(repositorioGarantia.existeGarantia(producto.getCodigo())).thenReturn(true);
 
 		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia, generadorFecha);
 
@@ -51,7 +62,7 @@ public class VendedorTest {
 		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
 		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
 
-		when(repositorioGarantia.obtenerProductoConGarantiaPorCodigo(producto.getCodigo())).thenReturn(null);
+		when(repositorioGarantia.existeGarantia(producto.getCodigo())).thenReturn(false);
 
 		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia, generadorFecha);
 
@@ -61,4 +72,57 @@ public class VendedorTest {
 		//assert
 		assertFalse(existeProducto);
 	}
+
+	@Test
+	public void mismoOrdenDeValidacionIndividualYLoteTest() {
+
+		// arrange
+		Producto producto = new ProductoTestDataBuilder().conCodigo("AEI0001").build();
+
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		RepositorioProducto repositorioProducto = mock(RepositorioProducto.class);
+		GeneradorFecha generadorFecha = mock(GeneradorFecha.class);
+
+		when(repositorioGarantia.existeGarantia(producto.getCodigo())).thenReturn(true);
+		when(repositorioGarantia.obtenerCodigosConGarantia(Collections.singleton(producto.getCodigo())))
+				.thenReturn(Collections.singleton(producto.getCodigo()));
+		doThrow(new GarantiaExtendidaException(Vendedor.EL_PRODUCTO_TIENE_GARANTIA)).when(repositorioGarantia)
+				.agregar(any(GarantiaExtendida.class));
+
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia, generadorFecha);
+
+		// act
+		String mensajeLote = vendedor
+				.generarGarantias(Arrays.asList(new SolicitudGarantia(producto.getCodigo(), "Cliente"))).get(0)
+				.getMensaje();
+		String mensajeIndividual = null;
+		try {
+			vendedor.generarGarantia(producto.getCodigo(), "Cliente");
+		} catch (GarantiaExtendidaException e) {
+			mensajeIndividual = e.getMessage();
+		}
+
+		//assert
+		assertEquals(Vendedor.PRODUCTO_SIN_GARANTIA, mensajeLote);
+		assertEquals(mensajeLote, mensajeIndividual);
+	}
+
+	@Test
+	public void productoInexistenteEnCatalogoCompactoTest() {
+
+		// arrange
+		RepositorioProductoCompacto repositorioProducto = new RepositorioProductoCompacto(16);
+		repositorioProducto.agregar(new ProductoTestDataBuilder().build());
+		RepositorioGarantiaExtendida repositorioGarantia = mock(RepositorioGarantiaExtendida.class);
+		Vendedor vendedor = new Vendedor(repositorioProducto, repositorioGarantia, mock(GeneradorFecha.class));
+
+		try {
+			// act
+			vendedor.generarGarantia("F01TSA0404", "Cliente");
+			fail();
+		} catch (GarantiaExtendidaException e) {
+			// assert
+			assertEquals(Vendedor.PRODUCTO_NO_EXISTE, e.getMessage());
+		}
+	}
 }